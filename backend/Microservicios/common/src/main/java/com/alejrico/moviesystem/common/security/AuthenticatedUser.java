@@ -0,0 +1,36 @@
+package com.alejrico.moviesystem.common.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Usuario de un token de acceso ya validado. {@link JwtAuthenticationFilter} lo deja como
+ * atributo de la petición. Las llamadas de otros servicios con la credencial de servicio
+ * llegan como {@link #service()}, con ROLE_SERVICE.
+ */
+public record AuthenticatedUser(Long userId, String username, List<String> roles, String tokenId,
+                                Instant issuedAt, Instant expiresAt) {
+
+    public static final String REQUEST_ATTRIBUTE = AuthenticatedUser.class.getName();
+    public static final String ROLE_ADMIN = "ROLE_ADMIN";
+    public static final String ROLE_SERVICE = "ROLE_SERVICE";
+
+    public static AuthenticatedUser service() {
+        return new AuthenticatedUser(null, "service", List.of(ROLE_SERVICE), null, null, Instant.MAX);
+    }
+
+    public static Optional<AuthenticatedUser> from(HttpServletRequest request) {
+        return Optional.ofNullable((AuthenticatedUser) request.getAttribute(REQUEST_ATTRIBUTE));
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role.startsWith("ROLE_") ? role : "ROLE_" + role);
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -0,0 +1,104 @@
+package com.alejrico.moviesystem.common.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Si la petición trae "Authorization: Bearer ...", valida el token en local y deja el usuario
+ * en la petición ({@link AuthenticatedUser#from}). Un token inválido, caducado o revocado
+ * ({@link RevocationList}) responde 401. La cabecera {@link ServiceTokenInterceptor#HEADER}
+ * con la credencial de servicio identifica a otro microservicio (ROLE_SERVICE).
+ * <p>
+ * Las rutas de auth.admin-paths (patrones Ant) exigen ROLE_ADMIN o la credencial de servicio:
+ * sin credenciales responden 401 y con un usuario normal 403. El resto sigue admitiendo
+ * peticiones sin token.
+ * <p>
+ * auth.service-token es obligatorio: sin él el servicio no arranca, en lugar de aceptar un
+ * valor por defecto conocido como credencial de servicio.
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private final JwtVerifier jwtVerifier;
+    private final RevocationList revocationList;
+    private final byte[] serviceToken;
+    private final List<String> adminPaths;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    public JwtAuthenticationFilter(JwtVerifier jwtVerifier,
+                                   RevocationList revocationList,
+                                   @Value("${auth.service-token}") String serviceToken,
+                                   @Value("${auth.admin-paths:}") List<String> adminPaths) {
+        this.jwtVerifier = jwtVerifier;
+        this.revocationList = revocationList;
+        this.serviceToken = ServiceTokenInterceptor.requireToken(serviceToken).getBytes(StandardCharsets.UTF_8);
+        this.adminPaths = adminPaths.stream().map(String::trim).filter(path -> !path.isEmpty()).toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AuthenticatedUser user = null;
+        String presentedServiceToken = request.getHeader(ServiceTokenInterceptor.HEADER);
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (presentedServiceToken != null) {
+            if (!isServiceToken(presentedServiceToken)) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Credencial de servicio no válida");
+                return;
+            }
+            user = AuthenticatedUser.service();
+        } else if (header != null && header.startsWith("Bearer ")) {
+            Optional<AuthenticatedUser> verified = jwtVerifier.verify(header.substring(7));
+            if (verified.isEmpty() || revocationList.isRevoked(verified.get())) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token no válido, caducado o revocado");
+                return;
+            }
+            user = verified.get();
+        }
+        if (user != null) {
+            request.setAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE, user);
+        }
+
+        if (isAdminPath(request)) {
+            if (user == null) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Se requiere autenticación");
+                return;
+            }
+            if (!user.hasRole(AuthenticatedUser.ROLE_ADMIN) && !user.hasRole(AuthenticatedUser.ROLE_SERVICE)) {
+                response.sendError(HttpServletResponse.SC_FORBIDDEN, "Se requiere el rol de administrador");
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    // Comparación en tiempo constante
+    private boolean isServiceToken(String presented) {
+        return MessageDigest.isEqual(serviceToken, presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Las peticiones de comprobación CORS (OPTIONS) no llevan credenciales
+    private boolean isAdminPath(HttpServletRequest request) {
+        if (adminPaths.isEmpty() || CorsUtils.isPreFlightRequest(request)) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return adminPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+}
@@ -0,0 +1,149 @@
+package com.alejrico.moviesystem.common.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.ProtectedHeader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Valida en local los tokens de acceso emitidos por user-service (JWT RS256). La clave pública
+ * se descarga una vez de /api/auth/public-key y se guarda por identificador (kid); solo se
+ * vuelve a pedir si aparece un kid desconocido, como mucho cada 30 segundos. Los tokens ya
+ * validados se guardan hasta que caducan, así que un mismo token solo se verifica una vez.
+ */
+@Component
+public class JwtVerifier {
+
+    private static final String ISSUER = "user-service";
+    private static final long KEY_REFRESH_INTERVAL_MS = 30_000;
+
+    // Descarga las claves publicadas: kid -> clave
+    interface KeySource {
+        Map<String, PublicKey> fetch();
+    }
+
+    private final KeySource keySource;
+    private final int maxCachedTokens;
+    private final Map<String, PublicKey> keys = new ConcurrentHashMap<>();
+    private volatile long lastKeyFetch;
+    private final Map<String, AuthenticatedUser> verified;
+
+    @Autowired
+    public JwtVerifier(@Value("${services.user-service.url:http://localhost:8081}") String userServiceUrl,
+                       @Value("${auth.jwt.verified-cache-size:10000}") int maxCachedTokens,
+                       RestTemplateBuilder restTemplateBuilder) {
+        this(remoteKeySource(restTemplateBuilder.build(), userServiceUrl), maxCachedTokens);
+    }
+
+    JwtVerifier(KeySource keySource, int maxCachedTokens) {
+        this.keySource = keySource;
+        this.maxCachedTokens = maxCachedTokens;
+        this.verified = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AuthenticatedUser> eldest) {
+                return size() > JwtVerifier.this.maxCachedTokens;
+            }
+        };
+    }
+
+    // Vacío si el token no es válido, está caducado o no se pudo obtener la clave
+    public Optional<AuthenticatedUser> verify(String token) {
+        Instant now = Instant.now();
+        synchronized (verified) {
+            AuthenticatedUser cached = verified.get(token);
+            if (cached != null) {
+                if (!cached.isExpired(now)) {
+                    return Optional.of(cached);
+                }
+                verified.remove(token);
+                return Optional.empty();
+            }
+        }
+
+        try {
+            Claims claims = Jwts.parser()
+                    .keyLocator(new LocatorAdapter<Key>() {
+                        @Override
+                        protected Key locate(ProtectedHeader header) {
+                            return key(header.getKeyId());
+                        }
+                    })
+                    .requireIssuer(ISSUER)
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+
+            List<?> roles = claims.get("roles", List.class);
+            AuthenticatedUser user = new AuthenticatedUser(
+                    Long.valueOf(claims.getSubject()),
+                    claims.get("username", String.class),
+                    roles != null ? roles.stream().map(String::valueOf).toList() : List.of(),
+                    claims.getId(),
+                    claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                    claims.getExpiration().toInstant());
+            synchronized (verified) {
+                verified.put(token, user);
+            }
+            return Optional.of(user);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private PublicKey key(String keyId) {
+        PublicKey key = keyId != null ? keys.get(keyId) : null;
+        if (key == null && System.currentTimeMillis() - lastKeyFetch > KEY_REFRESH_INTERVAL_MS) {
+            // Clave nueva (rotación o primer uso): se vuelve a descargar
+            synchronized (keys) {
+                key = keyId != null ? keys.get(keyId) : null;
+                if (key == null && System.currentTimeMillis() - lastKeyFetch > KEY_REFRESH_INTERVAL_MS) {
+                    lastKeyFetch = System.currentTimeMillis();
+                    try {
+                        keys.putAll(keySource.fetch());
+                    } catch (RuntimeException e) {
+                        System.err.println("No se pudo obtener la clave pública de user-service: " + e.getMessage());
+                    }
+                    key = keyId != null ? keys.get(keyId) : null;
+                }
+            }
+        }
+        if (key == null) {
+            throw new JwtException("Clave de firma desconocida: " + keyId);
+        }
+        return key;
+    }
+
+    private static KeySource remoteKeySource(RestTemplate restTemplate, String userServiceUrl) {
+        return () -> {
+            Map<?, ?> published = restTemplate.getForObject(userServiceUrl + "/api/auth/public-key", Map.class);
+            if (published == null || !(published.get("kid") instanceof String kid) || !(published.get("key") instanceof String key)) {
+                return Map.of();
+            }
+            try {
+                PublicKey publicKey = KeyFactory.getInstance("RSA")
+                        .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(key)));
+                return Map.of(kid, publicKey);
+            } catch (Exception e) {
+                throw new IllegalStateException("Clave pública no válida", e);
+            }
+        };
+    }
+}
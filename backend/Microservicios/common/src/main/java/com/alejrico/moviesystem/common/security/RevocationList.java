@@ -0,0 +1,179 @@
+package com.alejrico.moviesystem.common.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Tokens revocados en user-service (logout y cierres de sesión forzados). Se mantiene en memoria
+ * un filtro de Bloom con las claves revocadas, sincronizado cada pocos segundos con
+ * /api/internal/revocations (con la credencial de servicio), así que comprobar un token no supone
+ * ninguna llamada. Solo si el filtro da positivo se pregunta a user-service por esa clave; la
+ * respuesta se guarda hasta que la revocación caduca o llega un cambio para esa clave.
+ * <p>
+ * Si user-service no responde a la comprobación exacta, el token se acepta (como mucho hasta que
+ * caduca) salvo que ya se hubiera confirmado su revocación.
+ */
+@Component
+public class RevocationList {
+
+    private static final String USER_KEY_PREFIX = "user:";
+    private static final long REBUILD_INTERVAL_MS = 3_600_000;
+    private static final long NOT_REVOKED_TTL_MS = 60_000;
+
+    record Entry(long id, String key, long revokedAt, long expiresAt) {
+    }
+
+    record Delta(List<Entry> entries, long cursor, boolean hasMore) {
+    }
+
+    // Acceso a user-service: cambios desde un cursor y consulta exacta de una clave
+    interface RevocationSource {
+        Delta changesSince(long after);
+
+        Optional<Entry> find(String key);
+    }
+
+    private record ExactResult(Entry entry, long validUntil) {
+    }
+
+    private final RevocationSource source;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    private volatile long cursor;
+    private volatile long lastRebuild;
+    private final Map<String, ExactResult> exact = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ExactResult> eldest) {
+            return size() > 10_000;
+        }
+    };
+
+    @Autowired
+    public RevocationList(@Value("${services.user-service.url:http://localhost:8081}") String userServiceUrl,
+                          @Value("${auth.revocation.expected-entries:100000}") int expectedRevocations,
+                          @Value("${auth.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                          @Value("${auth.service-token}") String serviceToken,
+                          RestTemplateBuilder restTemplateBuilder) {
+        this(remoteSource(restTemplateBuilder.additionalInterceptors(new ServiceTokenInterceptor(serviceToken)).build(),
+                userServiceUrl), expectedRevocations, falsePositiveRate);
+    }
+
+    RevocationList(RevocationSource source, int expectedRevocations, double falsePositiveRate) {
+        this.source = source;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    public boolean isRevoked(AuthenticatedUser user) {
+        BloomFilter current = filter;
+        if (user.tokenId() != null && current.mightContain(user.tokenId()) && lookup(user.tokenId()) != null) {
+            return true;
+        }
+        String userKey = USER_KEY_PREFIX + user.userId();
+        if (!current.mightContain(userKey)) {
+            return false;
+        }
+        Entry entry = lookup(userKey);
+        // El iat del JWT va en segundos: un token emitido en el mismo segundo del cierre también cae
+        return entry != null && (user.issuedAt() == null || user.issuedAt().getEpochSecond() <= entry.revokedAt() / 1000);
+    }
+
+    // Cambios desde la última sincronización; cada hora (o si se llena) el filtro se reconstruye entero
+    @Scheduled(fixedDelayString = "${auth.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        try {
+            if (filter.isSaturated() || System.currentTimeMillis() - lastRebuild > REBUILD_INTERVAL_MS) {
+                BloomFilter rebuilt = new BloomFilter(expectedRevocations, falsePositiveRate);
+                long rebuiltCursor = load(rebuilt, 0);
+                filter = rebuilt;
+                cursor = rebuiltCursor;
+                lastRebuild = System.currentTimeMillis();
+            } else {
+                cursor = load(filter, cursor);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("No se pudo sincronizar la lista de tokens revocados: " + e.getMessage());
+        }
+    }
+
+    private long load(BloomFilter target, long after) {
+        long position = after;
+        Delta delta;
+        do {
+            delta = source.changesSince(position);
+            for (Entry entry : delta.entries()) {
+                target.add(entry.key());
+                // Un nuevo cierre de sesión para la misma clave invalida la respuesta guardada
+                synchronized (exact) {
+                    exact.remove(entry.key());
+                }
+            }
+            if (delta.cursor() <= position) {
+                break;
+            }
+            position = delta.cursor();
+        } while (delta.hasMore());
+        return position;
+    }
+
+    // Revocación vigente de la clave o null; los "no revocado" se guardan poco tiempo
+    private Entry lookup(String key) {
+        long now = System.currentTimeMillis();
+        synchronized (exact) {
+            ExactResult cached = exact.get(key);
+            if (cached != null && cached.validUntil() > now) {
+                return cached.entry();
+            }
+        }
+        Optional<Entry> found;
+        try {
+            found = source.find(key);
+        } catch (RuntimeException e) {
+            System.err.println("No se pudo comprobar la revocación de " + key + ": " + e.getMessage());
+            return null;
+        }
+        Entry entry = found.filter(revoked -> revoked.expiresAt() > now).orElse(null);
+        synchronized (exact) {
+            exact.put(key, new ExactResult(entry, entry != null ? entry.expiresAt() : now + NOT_REVOKED_TTL_MS));
+        }
+        return entry;
+    }
+
+    private static RevocationSource remoteSource(RestTemplate restTemplate, String userServiceUrl) {
+        return new RevocationSource() {
+            @Override
+            public Delta changesSince(long after) {
+                Delta delta = restTemplate.getForObject(userServiceUrl + "/api/internal/revocations?after={after}&limit=5000",
+                        Delta.class, after);
+                return delta != null && delta.entries() != null ? delta : new Delta(List.of(), after, false);
+            }
+
+            @Override
+            public Optional<Entry> find(String key) {
+                try {
+                    return Optional.ofNullable(restTemplate.getForObject(userServiceUrl + "/api/internal/revocations/{key}",
+                            Entry.class, key));
+                } catch (HttpClientErrorException e) {
+                    if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                        return Optional.empty();
+                    }
+                    throw e;
+                }
+            }
+        };
+    }
+}
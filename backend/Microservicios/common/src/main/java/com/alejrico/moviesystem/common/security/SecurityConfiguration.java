@@ -0,0 +1,14 @@
+package com.alejrico.moviesystem.common.security;
+
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra la validación local de tokens ({@link JwtVerifier}, {@link RevocationList}) y el
+ * filtro que protege las rutas de administración. Cada servicio que la necesite la importa
+ * con @Import; los que solo usan alguna clase suelta (p. ej. {@link BloomFilter}) no.
+ */
+@Configuration
+@ComponentScan(basePackageClasses = SecurityConfiguration.class)
+public class SecurityConfiguration {
+}
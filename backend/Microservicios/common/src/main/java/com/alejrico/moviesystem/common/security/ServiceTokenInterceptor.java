@@ -0,0 +1,39 @@
+package com.alejrico.moviesystem.common.security;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Añade la credencial de servicio (auth.service-token) a las llamadas entre microservicios.
+ * Al recibirla, {@link JwtAuthenticationFilter} trata la petición como ROLE_SERVICE, que
+ * basta para las rutas internas (liberar butacas, cancelaciones masivas, invalidar cachés).
+ */
+public class ServiceTokenInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String HEADER = "X-Service-Token";
+
+    private final String serviceToken;
+
+    public ServiceTokenInterceptor(String serviceToken) {
+        this.serviceToken = requireToken(serviceToken);
+    }
+
+    // Sin credencial (variable SERVICE_TOKEN) el servicio no arranca
+    public static String requireToken(String serviceToken) {
+        if (serviceToken == null || serviceToken.isBlank()) {
+            throw new IllegalStateException("auth.service-token no está configurado (variable SERVICE_TOKEN)");
+        }
+        return serviceToken;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        request.getHeaders().set(HEADER, serviceToken);
+        return execution.execute(request, body);
+    }
+}
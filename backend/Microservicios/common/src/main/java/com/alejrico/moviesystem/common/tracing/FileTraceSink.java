@@ -0,0 +1,99 @@
+package com.alejrico.moviesystem.common.tracing;
+
+import brave.handler.MutableSpan;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Escribe las trazas en un fichero local, un span por línea en el formato JSON v2 de Zipkin
+ * (se pueden subir tal cual a Zipkin o Jaeger). La escritura va en un hilo propio con una cola
+ * acotada: si el disco no da abasto se descartan trazas en vez de frenar las peticiones.
+ */
+public class FileTraceSink implements TraceSink, AutoCloseable {
+
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter writer;
+    private final ThreadPoolExecutor executor;
+
+    public FileTraceSink(Path file, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "trace-export");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    public void export(List<MutableSpan> spans) {
+        executor.execute(() -> write(spans));
+    }
+
+    private void write(List<MutableSpan> spans) {
+        try {
+            for (MutableSpan span : spans) {
+                writer.write(objectMapper.writeValueAsString(toZipkin(span)));
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("No se pudo escribir la traza " + spans.get(0).traceId() + ": " + e.getMessage());
+        }
+    }
+
+    static Map<String, Object> toZipkin(MutableSpan span) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("traceId", span.traceId());
+        if (span.parentId() != null) {
+            json.put("parentId", span.parentId());
+        }
+        json.put("id", span.id());
+        if (span.kind() != null) {
+            json.put("kind", span.kind().name());
+        }
+        json.put("name", span.name());
+        json.put("timestamp", span.startTimestamp());
+        json.put("duration", Math.max(1, span.finishTimestamp() - span.startTimestamp()));
+        if (span.localServiceName() != null) {
+            json.put("localEndpoint", Map.of("serviceName", span.localServiceName()));
+        }
+        if (span.remoteServiceName() != null) {
+            json.put("remoteEndpoint", Map.of("serviceName", span.remoteServiceName()));
+        }
+        Map<String, String> tags = new LinkedHashMap<>(span.tags());
+        if (span.error() != null) {
+            String message = span.error().getMessage();
+            tags.putIfAbsent("error", message != null ? message : span.error().getClass().getSimpleName());
+        }
+        if (!tags.isEmpty()) {
+            json.put("tags", tags);
+        }
+        return json;
+    }
+
+    @Override
+    public void close() throws Exception {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        writer.close();
+    }
+}
@@ -0,0 +1,35 @@
+package com.alejrico.moviesystem.common.tracing;
+
+import brave.handler.MutableSpan;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// Guarda en memoria las últimas trazas exportadas (pruebas y depuración local)
+public class InMemoryTraceSink implements TraceSink {
+
+    private final int maxTraces;
+    private final Deque<List<MutableSpan>> traces = new ArrayDeque<>();
+
+    public InMemoryTraceSink(int maxTraces) {
+        this.maxTraces = maxTraces;
+    }
+
+    @Override
+    public synchronized void export(List<MutableSpan> spans) {
+        traces.addLast(List.copyOf(spans));
+        while (traces.size() > maxTraces) {
+            traces.removeFirst();
+        }
+    }
+
+    public synchronized List<List<MutableSpan>> traces() {
+        return new ArrayList<>(traces);
+    }
+
+    public synchronized void clear() {
+        traces.clear();
+    }
+}
@@ -0,0 +1,113 @@
+package com.alejrico.moviesystem.common.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Muestreo de cola: todas las peticiones se trazan (muestreo de cabecera al 100 %), pero los spans
+ * se retienen en memoria hasta que termina el span raíz local de la traza. Entonces se decide si
+ * la traza se exporta: siempre si es lenta (raíz por encima del umbral) o si algún span terminó
+ * con error o respuesta 5xx, y si no solo una pequeña fracción como referencia.
+ * <p>
+ * Lentitud y errores se deciden por servicio: cada uno conserva su parte de la traza según su
+ * propia duración, y la llamada a otro servicio queda igualmente medida en el span cliente.
+ * La fracción de referencia sale del id de traza, así que todos los servicios con la misma
+ * tasa eligen las mismas trazas y estas llegan completas. Las trazas cuya raíz no termina se
+ * descartan al llenarse el búfer.
+ */
+@Component
+public class TailSamplingSpanHandler extends SpanHandler {
+
+    private static final long MAX_PENDING_AGE_MICROS = 60_000_000;
+    private static final int BASELINE_BUCKETS = 10_000;
+
+    private record PendingTrace(long createdAt, List<MutableSpan> spans) {
+    }
+
+    private final TraceSink sink;
+    private final long slowThresholdMicros;
+    private final double baselineRate;
+    private final int maxPendingTraces;
+    private final Map<Long, PendingTrace> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TailSamplingSpanHandler(TraceSink sink,
+                                   @Value("${tracing.tail.slow-threshold-ms:500}") long slowThresholdMs,
+                                   @Value("${tracing.tail.baseline-rate:0.01}") double baselineRate,
+                                   @Value("${tracing.tail.max-pending-traces:10000}") int maxPendingTraces) {
+        this.sink = sink;
+        this.slowThresholdMicros = slowThresholdMs * 1000;
+        this.baselineRate = baselineRate;
+        this.maxPendingTraces = maxPendingTraces;
+    }
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.ABANDONED) {
+            return true;
+        }
+        // Copia: el span deja de ser nuestro al volver de este método
+        MutableSpan finished = new MutableSpan(span);
+        if (!context.isLocalRoot()) {
+            PendingTrace trace = pending.get(context.localRootId());
+            if (trace == null && hasRoom(finished.startTimestamp())) {
+                trace = pending.computeIfAbsent(context.localRootId(),
+                        id -> new PendingTrace(finished.startTimestamp(), new ArrayList<>()));
+            }
+            if (trace != null) {
+                synchronized (trace) {
+                    trace.spans().add(finished);
+                }
+            }
+            return true;
+        }
+
+        PendingTrace trace = pending.remove(context.localRootId());
+        List<MutableSpan> spans = new ArrayList<>();
+        if (trace != null) {
+            synchronized (trace) {
+                spans.addAll(trace.spans());
+            }
+        }
+        spans.add(finished);
+        if (shouldKeep(context.traceId(), finished, spans)) {
+            sink.export(spans);
+        }
+        return true;
+    }
+
+    boolean shouldKeep(long traceIdLow, MutableSpan root, List<MutableSpan> spans) {
+        if (root.finishTimestamp() - root.startTimestamp() >= slowThresholdMicros) {
+            return true;
+        }
+        for (MutableSpan span : spans) {
+            if (span.error() != null || span.tag("error") != null || "SERVER_ERROR".equals(span.tag("outcome"))) {
+                return true;
+            }
+        }
+        return inBaseline(traceIdLow);
+    }
+
+    // Los 64 bits bajos del id de traza son aleatorios: el resto módulo N reparte las trazas por igual
+    boolean inBaseline(long traceIdLow) {
+        return Math.floorMod(traceIdLow, BASELINE_BUCKETS) < baselineRate * BASELINE_BUCKETS;
+    }
+
+    // Si el búfer está lleno se purgan las trazas huérfanas; si sigue lleno, la nueva no se retiene
+    private boolean hasRoom(long nowMicros) {
+        if (pending.size() < maxPendingTraces) {
+            return true;
+        }
+        pending.values().removeIf(trace -> nowMicros - trace.createdAt() > MAX_PENDING_AGE_MICROS);
+        return pending.size() < maxPendingTraces;
+    }
+}
@@ -0,0 +1,14 @@
+package com.alejrico.moviesystem.common.tracing;
+
+import brave.handler.MutableSpan;
+
+import java.util.List;
+
+/**
+ * Destino de las trazas que {@link TailSamplingSpanHandler} decide conservar. Recibe todos los
+ * spans locales de una traza de una vez; se elige con tracing.export.sink (file o memory).
+ */
+public interface TraceSink {
+
+    void export(List<MutableSpan> spans);
+}
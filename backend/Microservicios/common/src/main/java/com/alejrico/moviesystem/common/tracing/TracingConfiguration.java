@@ -0,0 +1,30 @@
+package com.alejrico.moviesystem.common.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Muestreo de cola ({@link TailSamplingSpanHandler}) y destino de las trazas que conserva. Los
+ * servicios con Brave la importan con @Import; cada uno añade aparte sus propios spans (p. ej.
+ * los comandos de Mongo).
+ */
+@Configuration
+@ComponentScan(basePackageClasses = TracingConfiguration.class)
+public class TracingConfiguration {
+
+    @Bean
+    public TraceSink traceSink(@Value("${tracing.export.sink:file}") String sink,
+                               @Value("${tracing.export.file:traces/${spring.application.name:service}.jsonl}") String file,
+                               ObjectMapper objectMapper) throws IOException {
+        if ("memory".equals(sink)) {
+            return new InMemoryTraceSink(1000);
+        }
+        return new FileTraceSink(Path.of(file), objectMapper);
+    }
+}
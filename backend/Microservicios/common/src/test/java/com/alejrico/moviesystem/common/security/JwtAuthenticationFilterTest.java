@@ -0,0 +1,102 @@
+package com.alejrico.moviesystem.common.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtAuthenticationFilterTest {
+
+    private final Map<String, AuthenticatedUser> tokens = Map.of(
+            "admin", user(1L, "ROLE_USER", "ROLE_ADMIN"),
+            "user", user(2L, "ROLE_USER"));
+
+    private final JwtVerifier verifier = new JwtVerifier(Map::of, 10) {
+        @Override
+        public Optional<AuthenticatedUser> verify(String token) {
+            return Optional.ofNullable(tokens.get(token));
+        }
+    };
+
+    private final RevocationList revocationList = new RevocationList(new RevocationList.RevocationSource() {
+        @Override
+        public RevocationList.Delta changesSince(long after) {
+            return new RevocationList.Delta(List.of(), after, false);
+        }
+
+        @Override
+        public Optional<RevocationList.Entry> find(String key) {
+            return Optional.empty();
+        }
+    }, 1000, 0.01);
+
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter(verifier, revocationList, "secreto-interno",
+            List.of("/api/reservations/showtime/*/cancel-all", "/api/reservations/snapshots/**"));
+
+    @Test
+    void adminPathsRequireAdminOrServiceCredential() throws Exception {
+        String path = "/api/reservations/showtime/s1/cancel-all";
+
+        assertEquals(401, run(request(path)).getStatus());
+        assertEquals(403, run(withBearer(request(path), "user")).getStatus());
+        assertEquals(200, run(withBearer(request(path), "admin")).getStatus());
+
+        MockHttpServletRequest internal = request(path);
+        internal.addHeader(ServiceTokenInterceptor.HEADER, "secreto-interno");
+        assertEquals(200, run(internal).getStatus());
+        assertTrue(AuthenticatedUser.from(internal).orElseThrow().hasRole("SERVICE"));
+
+        MockHttpServletRequest forged = request("/api/reservations/snapshots/movies/m1/invalidate");
+        forged.addHeader(ServiceTokenInterceptor.HEADER, "adivinado");
+        assertEquals(401, run(forged).getStatus());
+    }
+
+    @Test
+    void otherPathsStillAcceptAnonymousRequests() throws Exception {
+        MockHttpServletRequest anonymous = request("/api/reservations/user/2");
+        assertEquals(200, run(anonymous).getStatus());
+        assertNull(anonymous.getAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE));
+
+        assertEquals(401, run(withBearer(request("/api/reservations/user/2"), "caducado")).getStatus());
+    }
+
+    // Sin credencial de servicio configurada el servicio no arranca (ni el filtro ni el cliente)
+    @Test
+    void blankServiceCredentialFailsAtStartup() {
+        assertThrows(IllegalStateException.class, () -> new JwtAuthenticationFilter(verifier, revocationList, "",
+                List.of("/api/reservations/snapshots/**")));
+        assertThrows(IllegalStateException.class, () -> new JwtAuthenticationFilter(verifier, revocationList, "  ",
+                List.of()));
+        assertThrows(IllegalStateException.class, () -> new ServiceTokenInterceptor(""));
+        assertThrows(IllegalStateException.class, () -> new ServiceTokenInterceptor(null));
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        return new MockHttpServletRequest("POST", path);
+    }
+
+    private static MockHttpServletRequest withBearer(MockHttpServletRequest request, String token) {
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static AuthenticatedUser user(long id, String... roles) {
+        return new AuthenticatedUser(id, "u" + id, List.of(roles), "jti-" + id, Instant.now(), Instant.now().plusSeconds(900));
+    }
+}
@@ -0,0 +1,80 @@
+package com.alejrico.moviesystem.common.security;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtVerifierTest {
+
+    private final KeyPair keyPair = rsa();
+    private final AtomicInteger keyFetches = new AtomicInteger();
+    private final JwtVerifier verifier = new JwtVerifier(() -> {
+        keyFetches.incrementAndGet();
+        return Map.of("k1", keyPair.getPublic());
+    }, 100);
+
+    @Test
+    void verifiesTokensLocallyAndCachesKeyAndClaims() {
+        String token = token(keyPair, "k1", "user-service", Instant.now().plusSeconds(900));
+
+        AuthenticatedUser user = verifier.verify(token).orElseThrow();
+        assertEquals(42L, user.userId());
+        assertEquals("ana", user.username());
+        assertTrue(user.hasRole("ADMIN"));
+
+        assertSame(user, verifier.verify(token).orElseThrow());
+        verifier.verify(token(keyPair, "k1", "user-service", Instant.now().plusSeconds(600)));
+        assertEquals(1, keyFetches.get());
+    }
+
+    @Test
+    void rejectsForgedExpiredAndForeignTokens() {
+        assertTrue(verifier.verify(token(rsa(), "k1", "user-service", Instant.now().plusSeconds(900))).isEmpty());
+        assertTrue(verifier.verify(token(keyPair, "k1", "user-service", Instant.now().minusSeconds(5))).isEmpty());
+        assertTrue(verifier.verify(token(keyPair, "k1", "otro-emisor", Instant.now().plusSeconds(900))).isEmpty());
+        assertTrue(verifier.verify("no-es-un-jwt").isEmpty());
+    }
+
+    @Test
+    void unknownKeyIdsDoNotHammerUserService() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(verifier.verify(token(keyPair, "k2", "user-service", Instant.now().plusSeconds(900))).isEmpty());
+        }
+        assertEquals(1, keyFetches.get());
+    }
+
+    private static String token(KeyPair keyPair, String keyId, String issuer, Instant expiresAt) {
+        return Jwts.builder()
+                .header().keyId(keyId).and()
+                .issuer(issuer)
+                .subject("42")
+                .claim("username", "ana")
+                .claim("roles", List.of("ROLE_USER", "ROLE_ADMIN"))
+                .issuedAt(new Date())
+                .expiration(Date.from(expiresAt))
+                .signWith(keyPair.getPrivate(), Jwts.SIG.RS256)
+                .compact();
+    }
+
+    private static KeyPair rsa() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.alejrico.moviesystem.common.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RevocationListTest {
+
+    private final List<RevocationList.Entry> revoked = new ArrayList<>();
+    private final AtomicInteger exactChecks = new AtomicInteger();
+    private boolean userServiceDown;
+
+    private final RevocationList revocationList = new RevocationList(new RevocationList.RevocationSource() {
+        @Override
+        public RevocationList.Delta changesSince(long after) {
+            List<RevocationList.Entry> changes = revoked.stream().filter(entry -> entry.id() > after).toList();
+            long cursor = changes.isEmpty() ? after : changes.get(changes.size() - 1).id();
+            return new RevocationList.Delta(changes, cursor, false);
+        }
+
+        @Override
+        public Optional<RevocationList.Entry> find(String key) {
+            exactChecks.incrementAndGet();
+            if (userServiceDown) {
+                throw new IllegalStateException("user-service no responde");
+            }
+            return revoked.stream().filter(entry -> entry.key().equals(key)).reduce((first, last) -> last);
+        }
+    }, 10_000, 0.01);
+
+    @Test
+    void revokedTokensAreRejectedAfterTheNextSync() {
+        AuthenticatedUser user = user(7L, "jti-1", Instant.now());
+        revocationList.sync();
+        assertFalse(revocationList.isRevoked(user));
+
+        revoke("jti-1", System.currentTimeMillis());
+        assertFalse(revocationList.isRevoked(user), "hasta la siguiente sincronización no se conoce");
+        revocationList.sync();
+        assertTrue(revocationList.isRevoked(user));
+        assertTrue(revocationList.isRevoked(user));
+        assertEquals(1, exactChecks.get(), "la comprobación exacta se guarda");
+    }
+
+    @Test
+    void forcedSignOutRevokesOnlyTokensIssuedBefore() {
+        long signOut = System.currentTimeMillis();
+        revoke("user:7", signOut);
+        revocationList.sync();
+
+        assertTrue(revocationList.isRevoked(user(7L, "antiguo", Instant.ofEpochMilli(signOut).minusSeconds(60))));
+        assertFalse(revocationList.isRevoked(user(7L, "nuevo", Instant.ofEpochMilli(signOut).plusSeconds(2))));
+        assertFalse(revocationList.isRevoked(user(8L, "otro", Instant.ofEpochMilli(signOut).minusSeconds(60))));
+    }
+
+    @Test
+    void tokensMissingFromTheFilterNeverCallUserService() {
+        for (int i = 0; i < 500; i++) {
+            revoke("revocado-" + i, System.currentTimeMillis());
+        }
+        revocationList.sync();
+        userServiceDown = true;
+
+        int rejected = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (revocationList.isRevoked(user(1000L + i, "vigente-" + i, Instant.now()))) {
+                rejected++;
+            }
+        }
+        // Solo los falsos positivos del filtro (y del usuario) llegan a la comprobación exacta
+        assertEquals(0, rejected);
+        assertTrue(exactChecks.get() < 10_000 * 2 * 0.02, "comprobaciones exactas: " + exactChecks.get());
+    }
+
+    private void revoke(String key, long revokedAt) {
+        revoked.add(new RevocationList.Entry(revoked.size() + 1, key, revokedAt, revokedAt + 900_000));
+    }
+
+    private static AuthenticatedUser user(Long userId, String tokenId, Instant issuedAt) {
+        return new AuthenticatedUser(userId, "ana", List.of("ROLE_USER"), tokenId, issuedAt, issuedAt.plusSeconds(900));
+    }
+}
@@ -0,0 +1,131 @@
+package com.alejrico.moviesystem.common.tracing;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.propagation.TraceContext;
+import brave.propagation.TraceContextOrSamplingFlags;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TailSamplingSpanHandlerTest {
+
+    private final InMemoryTraceSink sink = new InMemoryTraceSink(10);
+    private final Tracing reservationTracing = tracing("reservation-service");
+    private final Tracing showtimeTracing = tracing("showtime-service");
+
+    @AfterEach
+    void close() {
+        reservationTracing.close();
+        showtimeTracing.close();
+    }
+
+    @Test
+    void fastSuccessfulTracesAreDropped() {
+        Tracer tracer = reservationTracing.tracer();
+        Span root = tracer.newTrace().name("post /api/reservations").start(1_000_000);
+        tracer.newChild(root.context()).name("insert reservations").start(1_010_000).finish(1_020_000);
+        root.finish(1_050_000);
+
+        assertTrue(sink.traces().isEmpty());
+    }
+
+    @Test
+    void slowAndFailedTracesAreExportedWithAllTheirSpans() {
+        Tracer tracer = reservationTracing.tracer();
+        Span slow = tracer.newTrace().name("post /api/reservations").start(1_000_000);
+        tracer.newChild(slow.context()).name("put /api/showtimes/{id}/reserve-seats").start(1_010_000).finish(1_700_000);
+        slow.finish(1_750_000);
+
+        Span failed = tracer.newTrace().name("post /api/reservations").start(2_000_000);
+        tracer.newChild(failed.context()).name("insert reservations").start(2_010_000)
+                .error(new IllegalStateException("timeout")).finish(2_020_000);
+        failed.finish(2_030_000);
+
+        List<List<MutableSpan>> traces = sink.traces();
+        assertEquals(2, traces.size());
+        assertEquals(2, traces.get(0).size());
+        assertEquals(2, traces.get(1).size());
+        assertEquals("post /api/reservations", traces.get(1).get(1).name());
+    }
+
+    // El contexto viaja en las cabeceras; showtime-service decide sobre su propia parte de la traza
+    @Test
+    void downstreamSegmentKeepsTheCallerAsParent() {
+        Span root = reservationTracing.tracer().newTrace().name("post /api/reservations").start(1_000_000);
+        Span client = reservationTracing.tracer().newChild(root.context()).kind(Span.Kind.CLIENT)
+                .name("put").start(1_010_000);
+        Map<String, String> headers = new HashMap<>();
+        reservationTracing.propagation().injector(Map<String, String>::put).inject(client.context(), headers);
+
+        TraceContextOrSamplingFlags extracted = showtimeTracing.propagation()
+                .extractor(Map<String, String>::get).extract(headers);
+        Span server = showtimeTracing.tracer().joinSpan(extracted.context()).kind(Span.Kind.SERVER)
+                .name("put /api/showtimes/{id}/reserve-seats").start(1_020_000);
+        TraceContext serverContext = server.context();
+        showtimeTracing.tracer().newChild(serverContext).name("update showtimes").start(1_030_000).finish(1_600_000);
+        server.finish(1_650_000);
+        client.finish(1_660_000);
+        root.finish(1_670_000);
+
+        List<List<MutableSpan>> traces = sink.traces();
+        assertEquals(2, traces.size(), "cada servicio exporta su parte de la traza lenta");
+        List<MutableSpan> showtimePart = traces.get(0);
+        assertEquals("showtime-service", showtimePart.get(0).localServiceName());
+        assertEquals(root.context().traceIdString(), showtimePart.get(1).traceId());
+        assertEquals(client.context().spanIdString(), showtimePart.get(1).parentId());
+    }
+
+    // Trazas rápidas y sin errores: las de referencia las eligen los dos servicios por igual
+    @Test
+    void baselineSampleIsDecidedByTraceIdInEveryService() {
+        InMemoryTraceSink reservationSink = new InMemoryTraceSink(1000);
+        InMemoryTraceSink showtimeSink = new InMemoryTraceSink(1000);
+        try (Tracing reservation = tracing("reservation-service", reservationSink, 0.2);
+             Tracing showtime = tracing("showtime-service", showtimeSink, 0.2)) {
+            for (int i = 0; i < 500; i++) {
+                Span root = reservation.tracer().newTrace().name("post /api/reservations").start(1_000_000);
+                Span client = reservation.tracer().newChild(root.context()).kind(Span.Kind.CLIENT)
+                        .name("put").start(1_010_000);
+                Map<String, String> headers = new HashMap<>();
+                reservation.propagation().injector(Map<String, String>::put).inject(client.context(), headers);
+                TraceContextOrSamplingFlags extracted = showtime.propagation()
+                        .extractor(Map<String, String>::get).extract(headers);
+                showtime.tracer().joinSpan(extracted.context()).kind(Span.Kind.SERVER)
+                        .name("put /api/showtimes/{id}/reserve-seats").start(1_020_000).finish(1_030_000);
+                client.finish(1_040_000);
+                root.finish(1_050_000);
+            }
+        }
+
+        Set<String> kept = traceIds(reservationSink);
+        assertEquals(kept, traceIds(showtimeSink));
+        assertTrue(kept.size() > 50 && kept.size() < 150, "trazas de referencia: " + kept.size());
+    }
+
+    private static Set<String> traceIds(InMemoryTraceSink sink) {
+        return sink.traces().stream().map(spans -> spans.get(0).traceId()).collect(Collectors.toSet());
+    }
+
+    private Tracing tracing(String serviceName) {
+        return tracing(serviceName, sink, 0);
+    }
+
+    private static Tracing tracing(String serviceName, TraceSink sink, double baselineRate) {
+        return Tracing.newBuilder()
+                .localServiceName(serviceName)
+                .supportsJoin(false)
+                .addSpanHandler(new TailSamplingSpanHandler(sink, 500, baselineRate, 100))
+                .build();
+    }
+}
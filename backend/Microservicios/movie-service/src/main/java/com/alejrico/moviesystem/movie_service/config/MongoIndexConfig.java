@@ -0,0 +1,24 @@
+package com.alejrico.moviesystem.movie_service.config;
+
+import com.alejrico.moviesystem.movie_service.model.Movie;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    // Las importaciones hacen upsert por externalId; las películas creadas a mano no lo tienen
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        mongoTemplate.indexOps(Movie.class)
+                .createIndex(new Index("externalId", Sort.Direction.ASC).unique().sparse());
+    }
+}
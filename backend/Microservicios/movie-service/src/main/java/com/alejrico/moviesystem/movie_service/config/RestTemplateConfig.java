@@ -0,0 +1,22 @@
+package com.alejrico.moviesystem.movie_service.config;
+
+import com.alejrico.moviesystem.common.security.ServiceTokenInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestTemplate;
+
+@Configuration
+public class RestTemplateConfig {
+    
+    // Creado con el builder de Spring Boot para que las llamadas salientes queden en http.client.requests;
+    // solo se usa contra otros servicios, así que lleva la credencial de servicio
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder restTemplateBuilder,
+                                     @Value("${auth.service-token}") String serviceToken) {
+        return restTemplateBuilder
+                .additionalInterceptors(new ServiceTokenInterceptor(serviceToken))
+                .build();
+    }
+} 
\ No newline at end of file
@@ -1,16 +1,32 @@
 package com.alejrico.moviesystem.movie_service.controller;
 
+import com.alejrico.moviesystem.movie_service.dto.MovieDetailsResponse;
+import com.alejrico.moviesystem.movie_service.dto.MovieFacetResponse;
+import com.alejrico.moviesystem.movie_service.dto.MovieImportStatus;
 import com.alejrico.moviesystem.movie_service.dto.MovieRequest;
 import com.alejrico.moviesystem.movie_service.dto.MovieResponse;
+import com.alejrico.moviesystem.movie_service.dto.MovieSuggestion;
+import com.alejrico.moviesystem.movie_service.dto.MovieSummaryResponse;
+import com.alejrico.moviesystem.movie_service.service.MovieDetailsService;
+import com.alejrico.moviesystem.movie_service.service.MovieFacetIndex;
+import com.alejrico.moviesystem.movie_service.service.MovieImportService;
+import com.alejrico.moviesystem.movie_service.service.MovieRecommendationService;
 import com.alejrico.moviesystem.movie_service.service.MovieService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/movies")
@@ -19,6 +35,9 @@ import java.util.Optional;
 public class MovieController {
     
     private final MovieService movieService;
+    private final MovieImportService movieImportService;
+    private final MovieRecommendationService movieRecommendationService;
+    private final MovieDetailsService movieDetailsService;
     
     @GetMapping
     public ResponseEntity<List<MovieResponse>> getAllMovies() {
@@ -26,6 +45,33 @@ public class MovieController {
         return ResponseEntity.ok(movies);
     }
     
+    // Importación masiva (cuerpo NDJSON o CSV); responde enseguida y se procesa en segundo plano
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<MovieImportStatus> importMovies(
+            @RequestParam(defaultValue = "ndjson") String format,
+            InputStream body) throws IOException {
+        MovieImportService.Format importFormat;
+        try {
+            importFormat = MovieImportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(movieImportService.startImport(body, importFormat));
+    }
+    
+    @GetMapping("/import/{importId}")
+    public ResponseEntity<MovieImportStatus> getImportStatus(@PathVariable String importId) {
+        return movieImportService.getStatus(importId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // Vista reducida para la cuadrícula: GET /api/movies?view=summary
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<List<MovieSummaryResponse>> getMovieSummaries() {
+        return ResponseEntity.ok(movieService.getMovieSummaries());
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<MovieResponse> getMovieById(@PathVariable String id) {
         Optional<MovieResponse> movie = movieService.getMovieById(id);
@@ -33,6 +79,25 @@ public class MovieController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    // Película y próximas funciones en una sola llamada (página de detalle)
+    @GetMapping("/{id}/details")
+    public ResponseEntity<MovieDetailsResponse> getMovieDetails(@PathVariable String id) {
+        return movieDetailsService.getDetails(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // "Quienes reservaron esta película también reservaron..."
+    @GetMapping("/{id}/recommendations")
+    public ResponseEntity<List<MovieSummaryResponse>> getRecommendations(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "10") int limit) {
+        if (movieService.getMovieById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(movieRecommendationService.getRecommendations(id, Math.max(1, Math.min(limit, 20))));
+    }
+    
     @PostMapping
     public ResponseEntity<MovieResponse> createMovie(@Valid @RequestBody MovieRequest movieRequest) {
         MovieResponse createdMovie = movieService.createMovie(movieRequest);
@@ -62,9 +127,49 @@ public class MovieController {
         return ResponseEntity.ok(movies);
     }
     
+    // Filtros por faceta; cada parámetro admite varios valores (?genre=Acción&genre=Drama)
+    @GetMapping("/filter")
+    public ResponseEntity<MovieFacetResponse> filterMovies(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) List<String> genre,
+            @RequestParam(required = false) List<String> rating,
+            @RequestParam(required = false) List<String> duration,
+            @RequestParam(required = false) List<String> releaseYear,
+            @RequestParam(required = false) Boolean showtimesToday) {
+        Map<String, Set<String>> selected = new HashMap<>();
+        putFacet(selected, MovieFacetIndex.GENRE, genre);
+        putFacet(selected, MovieFacetIndex.RATING, rating);
+        putFacet(selected, MovieFacetIndex.DURATION, duration);
+        putFacet(selected, MovieFacetIndex.RELEASE_YEAR, releaseYear);
+        if (showtimesToday != null) {
+            selected.put(MovieFacetIndex.SHOWTIMES_TODAY, Set.of(showtimesToday.toString()));
+        }
+        return ResponseEntity.ok(movieService.filterMovies(q, selected));
+    }
+    
+    // Autocompletado del buscador: se sirve desde memoria, sin consultas a la base de datos
+    @GetMapping("/suggest")
+    public ResponseEntity<List<MovieSuggestion>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(movieService.suggest(q, Math.max(1, Math.min(limit, 10))));
+    }
+    
     @GetMapping("/genres")
     public ResponseEntity<List<String>> getAllGenres() {
         List<String> genres = movieService.getAllGenres();
         return ResponseEntity.ok(genres);
     }
-} 
\ No newline at end of file
+    
+    // Número de películas por género (barra de géneros de la página principal)
+    @GetMapping("/genres/counts")
+    public ResponseEntity<Map<String, Long>> getGenreCounts() {
+        return ResponseEntity.ok(movieService.getGenreCounts());
+    }
+    
+    private void putFacet(Map<String, Set<String>> selected, String facet, List<String> values) {
+        if (values != null && !values.isEmpty()) {
+            selected.put(facet, new HashSet<>(values));
+        }
+    }
+}
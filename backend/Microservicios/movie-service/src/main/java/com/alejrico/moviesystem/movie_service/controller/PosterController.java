@@ -0,0 +1,115 @@
+package com.alejrico.moviesystem.movie_service.controller;
+
+import com.alejrico.moviesystem.movie_service.dto.MovieResponse;
+import com.alejrico.moviesystem.movie_service.service.MovieService;
+import com.alejrico.moviesystem.movie_service.service.PosterCache;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Proxy de pósters: los clientes piden el póster a movie-service en lugar de al host de
+ * terceros. /{id}/poster redirige al fichero en caché, cuyo nombre depende del contenido,
+ * y ese fichero se sirve con caché inmutable de un año.
+ */
+@RestController
+@RequestMapping("/api/movies")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class PosterController {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private final MovieService movieService;
+    private final PosterCache posterCache;
+
+    // size = original | w185 | w342 (anchos configurados en movie.posters.widths)
+    @GetMapping("/{id}/poster")
+    public ResponseEntity<Void> getPoster(@PathVariable String id,
+                                          @RequestParam(defaultValue = PosterCache.ORIGINAL) String size) {
+        if (!size.equals(PosterCache.ORIGINAL) && posterCache.getWidths().stream().noneMatch(w -> size.equals("w" + w))) {
+            return ResponseEntity.badRequest().build();
+        }
+        Optional<String> posterUrl = movieService.getMovieById(id).map(MovieResponse::getPosterImage);
+        if (posterUrl.isEmpty() || posterUrl.get().isBlank()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        URI location;
+        try {
+            location = URI.create("/api/movies/posters/" + posterCache.resolve(posterUrl.get(), size));
+        } catch (IOException | IllegalArgumentException e) {
+            // Si el origen falla se redirige a la imagen original para no dejar la cartelera sin póster
+            System.err.println("No se pudo cachear el póster de " + id + ": " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.FOUND)
+                    .location(URI.create(posterUrl.get()))
+                    .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                    .build();
+        }
+        // La redirección caduca pronto: si cambia el póster de la película, cambia el destino
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(location)
+                .header(HttpHeaders.CACHE_CONTROL, "public, max-age=300")
+                .build();
+    }
+
+    // Un GET completo se envía con sendfile de Tomcat (del disco al socket sin pasar por la JVM).
+    // HEAD, Range e If-None-Match van por ResourceHttpMessageConverter, que copia el fichero con
+    // un búfer y resuelve los rangos; con el ETag, Spring contesta 304 a If-None-Match
+    @GetMapping("/posters/{fileName}")
+    public ResponseEntity<Resource> servePoster(@PathVariable String fileName, HttpServletRequest request)
+            throws IOException {
+        Optional<Path> file = posterCache.open(fileName);
+        if (file.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag("\"" + fileName + "\"")
+                .header(HttpHeaders.CACHE_CONTROL, IMMUTABLE)
+                .headers(headers -> headers.setExpires(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(365)))
+                .contentType(MediaType.parseMediaType(contentType(fileName)));
+
+        if (sendfile(request)) {
+            long length = Files.size(file.get());
+            request.setAttribute("org.apache.tomcat.sendfile.filename", file.get().toAbsolutePath().toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", length);
+            return response.contentLength(length).build();
+        }
+        return response.body(new FileSystemResource(file.get()));
+    }
+
+    private static boolean sendfile(HttpServletRequest request) {
+        return "GET".equals(request.getMethod())
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && request.getHeader(HttpHeaders.IF_NONE_MATCH) == null;
+    }
+
+    private static String contentType(String fileName) {
+        if (fileName.endsWith(".png")) {
+            return MediaType.IMAGE_PNG_VALUE;
+        }
+        if (fileName.endsWith(".gif")) {
+            return MediaType.IMAGE_GIF_VALUE;
+        }
+        if (fileName.endsWith(".webp")) {
+            return "image/webp";
+        }
+        return MediaType.IMAGE_JPEG_VALUE;
+    }
+}
@@ -0,0 +1,25 @@
+package com.alejrico.moviesystem.movie_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+// Película y sus próximas funciones en una sola respuesta (página de detalle)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieDetailsResponse {
+    
+    private MovieResponse movie;
+    
+    // Funciones tal como las devuelve showtime-service, desde hoy y sin las canceladas
+    private List<Map<String, Object>> showtimes;
+    
+    // true si alguna parte no respondió a tiempo; en "unavailable" se indica cuál
+    private boolean partial;
+    
+    private List<String> unavailable;
+}
@@ -0,0 +1,19 @@
+package com.alejrico.moviesystem.movie_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieFacetResponse {
+    
+    private List<MovieResponse> movies;
+    
+    // faceta -> valor -> número de películas
+    private Map<String, Map<String, Integer>> facets;
+}
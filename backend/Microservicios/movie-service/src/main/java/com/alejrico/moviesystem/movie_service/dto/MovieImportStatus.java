@@ -0,0 +1,36 @@
+package com.alejrico.moviesystem.movie_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class MovieImportStatus {
+    
+    private String id;
+    private String format; // ndjson, csv
+    private String status; // receiving, running, completed, failed
+    private long rowsRead;
+    private long upserted;
+    private long failed;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String message;
+    
+    // Solo se guardan los primeros errores; el total está en "failed"
+    private List<RowError> errors = new ArrayList<>();
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String externalId;
+        private String message;
+    }
+}
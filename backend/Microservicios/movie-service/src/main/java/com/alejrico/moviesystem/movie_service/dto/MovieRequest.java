@@ -40,4 +40,7 @@ public class MovieRequest {
     private String director;
     
     private List<String> cast;
+    
+    // Solo en importaciones masivas
+    private String externalId;
 } 
\ No newline at end of file
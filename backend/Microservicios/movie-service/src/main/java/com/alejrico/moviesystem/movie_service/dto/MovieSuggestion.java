@@ -0,0 +1,15 @@
+package com.alejrico.moviesystem.movie_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieSuggestion {
+    
+    private String text;
+    private String type; // title, director, cast
+    private String movieId; // solo para títulos
+}
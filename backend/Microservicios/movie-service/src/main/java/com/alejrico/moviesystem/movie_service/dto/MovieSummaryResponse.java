@@ -0,0 +1,19 @@
+package com.alejrico.moviesystem.movie_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Vista reducida para la cuadrícula de películas (sin descripción ni reparto)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieSummaryResponse {
+    
+    private String id;
+    private String title;
+    private String posterImage;
+    private String genre;
+    private String rating;
+    private Integer duration;
+}
@@ -46,4 +46,12 @@ public class Movie {
     private String director;
     
     private List<String> cast;
+    
+    // Identificador del distribuidor; clave de las importaciones masivas (índice único disperso)
+    private String externalId;
+    
+    public Movie(String id, String title, String description, String posterImage, String genre, Integer duration,
+                 String rating, String releaseDate, String director, List<String> cast) {
+        this(id, title, description, posterImage, genre, duration, rating, releaseDate, director, cast, null);
+    }
 } 
\ No newline at end of file
@@ -10,22 +10,7 @@ import java.util.List;
 @Repository
 public interface MovieRepository extends MongoRepository<Movie, String> {
     
-    // Buscar películas por género
-    List<Movie> findByGenreIgnoreCase(String genre);
-    
-    // Buscar películas por título (contiene)
-    @Query("{'title': {$regex: ?0, $options: 'i'}}")
-    List<Movie> findByTitleContainingIgnoreCase(String title);
-    
-    // Buscar películas por género y título
-    @Query("{'genre': {$regex: ?0, $options: 'i'}, 'title': {$regex: ?1, $options: 'i'}}")
-    List<Movie> findByGenreAndTitleContainingIgnoreCase(String genre, String title);
-    
-    // Buscar películas por director
-    @Query("{'director': {$regex: ?0, $options: 'i'}}")
-    List<Movie> findByDirectorContainingIgnoreCase(String director);
-    
-    // Obtener géneros únicos
-    @Query(value = "{}", fields = "{'genre': 1}")
-    List<Movie> findAllGenres();
-} 
\ No newline at end of file
+    // Solo los campos de la vista resumida; Mongo no lee ni envía descripción ni reparto
+    @Query(value = "{}", fields = "{'title': 1, 'posterImage': 1, 'genre': 1, 'rating': 1, 'duration': 1}")
+    List<Movie> findAllSummaries();
+}
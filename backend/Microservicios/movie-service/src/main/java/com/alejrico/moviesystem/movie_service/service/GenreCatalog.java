@@ -0,0 +1,83 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.model.Movie;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Géneros del catálogo con su número de películas. Se calculan con una agregación
+ * ($group por género) que solo lee ese campo, y el resultado se guarda en memoria hasta que
+ * cambia el género de alguna película; las peticiones normales no tocan la base de datos.
+ */
+@Component
+public class GenreCatalog {
+    
+    private final Supplier<Map<String, Long>> source;
+    
+    // Cada invalidación cambia la generación; una carga iniciada antes no se guarda
+    private final AtomicLong generation = new AtomicLong();
+    
+    private volatile Map<String, Long> counts;
+    
+    @Autowired
+    public GenreCatalog(MongoTemplate mongoTemplate) {
+        this(() -> aggregate(mongoTemplate));
+    }
+    
+    GenreCatalog(Supplier<Map<String, Long>> source) {
+        this.source = source;
+    }
+    
+    public List<String> getGenres() {
+        return new ArrayList<>(getCounts().keySet());
+    }
+    
+    public Map<String, Long> getCounts() {
+        Map<String, Long> current = counts;
+        return current != null ? current : load();
+    }
+    
+    // Se llama al crear o borrar una película, o cuando una actualización cambia su género
+    public void invalidate() {
+        generation.incrementAndGet();
+        counts = null;
+    }
+    
+    private synchronized Map<String, Long> load() {
+        Map<String, Long> current = counts;
+        if (current != null) {
+            return current;
+        }
+        long loadGeneration = generation.get();
+        Map<String, Long> loaded = Collections.unmodifiableMap(source.get());
+        // Si se invalidó durante la agregación el resultado puede no incluir ese cambio: se
+        // devuelve a quien lo pidió pero no se guarda
+        if (generation.get() == loadGeneration) {
+            counts = loaded;
+        }
+        return loaded;
+    }
+    
+    private static Map<String, Long> aggregate(MongoTemplate mongoTemplate) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("genre").ne(null)),
+                Aggregation.group("genre").count().as("count"));
+        Map<String, Long> loaded = new TreeMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Movie.class, Document.class)) {
+            loaded.put(row.getString("_id"), ((Number) row.get("count")).longValue());
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,194 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.dto.MovieResponse;
+import com.alejrico.moviesystem.movie_service.dto.MovieSummaryResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché de lectura de películas: las respuestas por id (LRU acotada) y copias inmutables
+ * de las listas completas (vista completa y resumida). Si varias peticiones fallan a la vez
+ * para la misma clave solo una consulta Mongo; las demás esperan ese mismo resultado. Las
+ * escrituras del catálogo invalidan la entrada afectada y las listas.
+ * <p>
+ * Métricas: movie.cache.requests (result=hit|miss), movie.cache.load, movie.cache.evictions
+ * y movie.cache.size, etiquetadas con cache=movie|all|summaries.
+ */
+@Component
+public class MovieCache {
+
+    private final int maxEntries;
+    private final Map<String, MovieResponse> entries;
+    private final Map<String, CompletableFuture<Optional<MovieResponse>>> loadingById = new ConcurrentHashMap<>();
+    private final Map<String, List<?>> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<List<?>>> loadingSnapshots = new ConcurrentHashMap<>();
+
+    // Cada invalidación cambia la generación; una carga iniciada antes no se guarda
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Timer loadTimer;
+    // Contadores y temporizador de cada lista, resueltos al crear la caché
+    private final Map<String, SnapshotMeters> snapshotMeters;
+
+    public MovieCache(MeterRegistry meterRegistry,
+                      @Value("${movie.cache.max-entries:5000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MovieResponse> eldest) {
+                if (size() > MovieCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        this.hits = requests(meterRegistry, "movie", "hit");
+        this.misses = requests(meterRegistry, "movie", "miss");
+        this.evictions = Counter.builder("movie.cache.evictions").tag("cache", "movie").register(meterRegistry);
+        this.loadTimer = Timer.builder("movie.cache.load").tag("cache", "movie").register(meterRegistry);
+        Gauge.builder("movie.cache.size", this, MovieCache::size).tag("cache", "movie").register(meterRegistry);
+        this.snapshotMeters = Map.of(
+                "all", SnapshotMeters.of(meterRegistry, "all"),
+                "summaries", SnapshotMeters.of(meterRegistry, "summaries"));
+    }
+
+    public Optional<MovieResponse> get(String id, Supplier<Optional<MovieResponse>> loader) {
+        MovieResponse cached;
+        synchronized (entries) {
+            cached = entries.get(id);
+        }
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached);
+        }
+        misses.increment();
+
+        long loadGeneration = generation.get();
+        CompletableFuture<Optional<MovieResponse>> loading = new CompletableFuture<>();
+        CompletableFuture<Optional<MovieResponse>> existing = loadingById.putIfAbsent(id, loading);
+        if (existing != null) {
+            return join(existing);
+        }
+
+        try {
+            Optional<MovieResponse> loaded = loadTimer.record(loader);
+            // Las películas inexistentes no se guardan: una creación posterior debe verse al momento
+            if (loaded.isPresent() && generation.get() == loadGeneration) {
+                synchronized (entries) {
+                    entries.put(id, loaded.get());
+                }
+            }
+            loading.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadingById.remove(id, loading);
+        }
+    }
+
+    public List<MovieResponse> getAll(Supplier<List<MovieResponse>> loader) {
+        return snapshot("all", loader);
+    }
+
+    public List<MovieSummaryResponse> getSummaries(Supplier<List<MovieSummaryResponse>> loader) {
+        return snapshot("summaries", loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> snapshot(String name, Supplier<List<T>> loader) {
+        SnapshotMeters meters = snapshotMeters.get(name);
+        List<T> cached = (List<T>) snapshots.get(name);
+        if (cached != null) {
+            meters.hits().increment();
+            return cached;
+        }
+        meters.misses().increment();
+
+        long loadGeneration = generation.get();
+        CompletableFuture<List<?>> loading = new CompletableFuture<>();
+        CompletableFuture<List<?>> existing = loadingSnapshots.putIfAbsent(name, loading);
+        if (existing != null) {
+            return (List<T>) join(existing);
+        }
+
+        try {
+            List<T> loaded = List.copyOf(meters.load().record(loader));
+            if (generation.get() == loadGeneration) {
+                snapshots.put(name, loaded);
+            }
+            loading.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadingSnapshots.remove(name, loading);
+        }
+    }
+
+    public void invalidate(String id) {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            entries.remove(id);
+        }
+        snapshots.clear();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+        snapshots.clear();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String cache, String result) {
+        return Counter.builder("movie.cache.requests").tag("cache", cache).tag("result", result).register(meterRegistry);
+    }
+
+    private record SnapshotMeters(Counter hits, Counter misses, Timer load) {
+
+        static SnapshotMeters of(MeterRegistry meterRegistry, String cache) {
+            return new SnapshotMeters(requests(meterRegistry, cache, "hit"), requests(meterRegistry, cache, "miss"),
+                    Timer.builder("movie.cache.load").tag("cache", cache).register(meterRegistry));
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
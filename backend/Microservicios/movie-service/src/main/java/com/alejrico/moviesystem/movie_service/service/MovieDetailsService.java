@@ -0,0 +1,187 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.dto.MovieDetailsResponse;
+import com.alejrico.moviesystem.movie_service.dto.MovieResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Respuesta compuesta de la página de detalle: la película y sus próximas funciones se piden
+ * a la vez, cada rama con su propio tiempo límite. Si una rama no responde a tiempo se
+ * devuelve lo que haya llegado marcado como parcial. Las respuestas completas se guardan
+ * unos segundos, porque esta es la página más visitada.
+ * <p>
+ * La cola del pool está acotada: si showtime-service se atasca, las ramas que no caben se
+ * rechazan al momento y cuentan como no disponibles, en lugar de acumularse sin límite.
+ */
+@Service
+public class MovieDetailsService {
+    
+    private static final int MAX_CACHED = 1000;
+    
+    private final MovieService movieService;
+    private final RestTemplate restTemplate;
+    private final String showtimeServiceUrl;
+    private final long movieTimeoutMs;
+    private final long showtimesTimeoutMs;
+    private final long ttlMs;
+    
+    private final ExecutorService executor;
+    private final Map<String, CachedDetails> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedDetails> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+    
+    public MovieDetailsService(MovieService movieService,
+                               @Value("${services.showtime-service.url:http://localhost:8083}") String showtimeServiceUrl,
+                               @Value("${movie.details.movie-timeout-ms:500}") long movieTimeoutMs,
+                               @Value("${movie.details.showtimes-timeout-ms:800}") long showtimesTimeoutMs,
+                               @Value("${movie.details.ttl-ms:5000}") long ttlMs,
+                               @Value("${movie.details.threads:16}") int threads,
+                               @Value("${movie.details.queue-capacity:64}") int queueCapacity,
+                               RestTemplateBuilder restTemplateBuilder) {
+        this.movieService = movieService;
+        this.showtimeServiceUrl = showtimeServiceUrl;
+        this.movieTimeoutMs = movieTimeoutMs;
+        this.showtimesTimeoutMs = showtimesTimeoutMs;
+        this.ttlMs = ttlMs;
+        
+        // Los tiempos de conexión y lectura liberan el hilo aunque la petición ya se haya abandonado
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) showtimesTimeoutMs);
+        requestFactory.setReadTimeout((int) showtimesTimeoutMs * 2);
+        this.restTemplate = restTemplateBuilder.requestFactory(() -> requestFactory).build();
+        
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "movie-details-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    /**
+     * Devuelve vacío si la película no existe. Si la rama de la película no responde a tiempo
+     * la respuesta es parcial, sin película; el cliente puede pedirla aparte.
+     */
+    public Optional<MovieDetailsResponse> getDetails(String movieId) {
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            CachedDetails cached = cache.get(movieId);
+            if (cached != null && cached.expiresAt > now) {
+                return Optional.of(cached.response);
+            }
+        }
+        
+        // Las dos ramas arrancan antes de esperar a ninguna
+        CompletableFuture<Optional<MovieResponse>> movieBranch = submit(() -> movieService.getMovieById(movieId));
+        CompletableFuture<List<Map<String, Object>>> showtimesBranch = submit(() -> fetchUpcomingShowtimes(movieId));
+        long started = System.nanoTime();
+        
+        List<String> unavailable = new ArrayList<>();
+        Optional<MovieResponse> movie = await(movieBranch, started, movieTimeoutMs, "película", movieId);
+        if (movie == null) {
+            unavailable.add("movie");
+        } else if (movie.isEmpty()) {
+            showtimesBranch.cancel(true);
+            return Optional.empty();
+        }
+        List<Map<String, Object>> showtimes = await(showtimesBranch, started, showtimesTimeoutMs, "funciones", movieId);
+        if (showtimes == null) {
+            unavailable.add("showtimes");
+        }
+        
+        MovieDetailsResponse response = new MovieDetailsResponse(movie != null ? movie.get() : null,
+                showtimes != null ? showtimes : List.of(), !unavailable.isEmpty(), unavailable);
+        // Las respuestas parciales no se guardan: la siguiente petición vuelve a intentarlo
+        if (unavailable.isEmpty()) {
+            synchronized (cache) {
+                cache.put(movieId, new CachedDetails(response, System.currentTimeMillis() + ttlMs));
+            }
+        }
+        return Optional.of(response);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    // Con el pool y la cola llenos la rama falla enseguida y la respuesta sale parcial
+    private <T> CompletableFuture<T> submit(Supplier<T> branch) {
+        try {
+            return CompletableFuture.supplyAsync(branch, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("pool de detalle saturado", e));
+        }
+    }
+    
+    private List<Map<String, Object>> fetchUpcomingShowtimes(String movieId) {
+        List<Map<String, Object>> showtimes;
+        try {
+            showtimes = restTemplate.exchange(
+                    showtimeServiceUrl + "/api/showtimes/movie/" + movieId, HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<Map<String, Object>>>() {}).getBody();
+        } catch (HttpClientErrorException.NotFound e) {
+            return List.of();
+        }
+        if (showtimes == null) {
+            return List.of();
+        }
+        
+        String today = LocalDate.now().toString();
+        return showtimes.stream()
+                .filter(showtime -> !"cancelled".equals(showtime.get("status")))
+                .filter(showtime -> String.valueOf(showtime.get("date")).compareTo(today) >= 0)
+                .sorted(Comparator.comparing((Map<String, Object> showtime) -> String.valueOf(showtime.get("date")))
+                        .thenComparing(showtime -> String.valueOf(showtime.get("time"))))
+                .collect(Collectors.toList());
+    }
+    
+    // Espera la rama hasta su límite (contado desde el arranque de ambas); null si no llegó o falló
+    private <T> T await(CompletableFuture<T> branch, long startNanos, long timeoutMs, String name, String movieId) {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs) - (System.nanoTime() - startNanos);
+        try {
+            return branch.get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            branch.cancel(true);
+            System.err.println("Tiempo agotado obteniendo " + name + " de la película " + movieId);
+        } catch (ExecutionException e) {
+            System.err.println("Error obteniendo " + name + " de la película " + movieId + ": " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+    
+    private record CachedDetails(MovieDetailsResponse response, long expiresAt) {}
+}
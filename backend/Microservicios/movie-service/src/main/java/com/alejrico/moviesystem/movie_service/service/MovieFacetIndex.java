@@ -0,0 +1,266 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.model.Movie;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de facetas del catálogo con un mapa de bits por valor de faceta. Cada película tiene
+ * un ordinal denso (los ordinales libres se reutilizan), así que los mapas de bits son pequeños
+ * y los filtros se resuelven con AND/OR de bits: OR entre los valores de una misma faceta y
+ * AND entre facetas. Los recuentos por valor se calculan sobre el filtro de las demás facetas,
+ * de modo que marcar "Acción" no oculta el recuento de los otros géneros.
+ */
+@Component
+public class MovieFacetIndex {
+
+    public static final String GENRE = "genre";
+    public static final String RATING = "rating";
+    public static final String DURATION = "duration";
+    public static final String RELEASE_YEAR = "releaseYear";
+    public static final String SHOWTIMES_TODAY = "showtimesToday";
+
+    public static final List<String> FACETS = List.of(GENRE, RATING, DURATION, RELEASE_YEAR, SHOWTIMES_TODAY);
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<Movie> moviesByOrdinal = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+
+    // faceta -> valor -> películas con ese valor
+    private final Map<String, Map<String, BitSet>> bitmaps = new HashMap<>();
+    // ordinal -> faceta -> valor, para poder retirar la película de sus mapas de bits
+    private final Map<Integer, Map<String, String>> valuesByOrdinal = new HashMap<>();
+    private Set<String> moviesWithShowtimesToday = Set.of();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Result(List<Movie> movies, Map<String, Map<String, Integer>> facets) {
+    }
+
+    public void rebuild(Collection<Movie> catalog) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            moviesByOrdinal.clear();
+            freeOrdinals.clear();
+            live.clear();
+            bitmaps.clear();
+            valuesByOrdinal.clear();
+            for (Movie movie : catalog) {
+                add(movie);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Movie movie) {
+        lock.writeLock().lock();
+        try {
+            remove(movie.getId());
+            add(movie);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(String movieId) {
+        lock.writeLock().lock();
+        try {
+            remove(movieId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Solo cambian los mapas de bits de la faceta "con funciones hoy"
+    public void updateShowtimesToday(Set<String> movieIds) {
+        lock.writeLock().lock();
+        try {
+            moviesWithShowtimesToday = Set.copyOf(movieIds);
+            bitmaps.remove(SHOWTIMES_TODAY);
+            for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                String value = String.valueOf(moviesWithShowtimesToday.contains(moviesByOrdinal.get(ordinal).getId()));
+                valuesByOrdinal.get(ordinal).put(SHOWTIMES_TODAY, value);
+                bitmap(SHOWTIMES_TODAY, value).set(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Result filter(Map<String, Set<String>> selected) {
+        return filter(selected, null);
+    }
+
+    /**
+     * Aplica los filtros (faceta -> valores aceptados) y devuelve las películas que los cumplen,
+     * junto con el recuento de cada valor de cada faceta. Si se indica {@code candidates}
+     * (por ejemplo, los resultados de una búsqueda de texto) todo se limita a esas películas.
+     */
+    public Result filter(Map<String, Set<String>> selected, Collection<String> candidates) {
+        lock.readLock().lock();
+        try {
+            BitSet universe = live;
+            if (candidates != null) {
+                universe = new BitSet();
+                for (String movieId : candidates) {
+                    Integer ordinal = ordinals.get(movieId);
+                    if (ordinal != null) {
+                        universe.set(ordinal);
+                    }
+                }
+            }
+
+            Map<String, BitSet> perFacet = new HashMap<>();
+            selected.forEach((facet, values) -> {
+                if (values != null && !values.isEmpty()) {
+                    perFacet.put(facet, union(facet, values));
+                }
+            });
+
+            BitSet matches = intersect(universe, perFacet, null);
+            List<Movie> movies = new ArrayList<>(matches.cardinality());
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0; ordinal = matches.nextSetBit(ordinal + 1)) {
+                movies.add(moviesByOrdinal.get(ordinal));
+            }
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for (String facet : FACETS) {
+                // Recuento disyuntivo: se ignora el filtro de la propia faceta
+                BitSet others = perFacet.containsKey(facet) ? intersect(universe, perFacet, facet) : matches;
+                Map<String, Integer> counts = new TreeMap<>();
+                bitmaps.getOrDefault(facet, Map.of()).forEach((value, bitmap) -> {
+                    BitSet count = (BitSet) bitmap.clone();
+                    count.and(others);
+                    counts.put(value, count.cardinality());
+                });
+                facets.put(facet, counts);
+            }
+            return new Result(movies, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet union(String facet, Set<String> values) {
+        BitSet union = new BitSet();
+        Map<String, BitSet> facetBitmaps = bitmaps.getOrDefault(facet, Map.of());
+        for (String value : values) {
+            BitSet bitmap = facetBitmaps.get(normalizeValue(facet, value));
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    private BitSet intersect(BitSet universe, Map<String, BitSet> perFacet, String excludedFacet) {
+        BitSet result = (BitSet) universe.clone();
+        perFacet.forEach((facet, bitmap) -> {
+            if (!facet.equals(excludedFacet)) {
+                result.and(bitmap);
+            }
+        });
+        return result;
+    }
+
+    private void add(Movie movie) {
+        if (movie.getId() == null) {
+            return;
+        }
+        int ordinal = freeOrdinals.isEmpty() ? moviesByOrdinal.size() : freeOrdinals.pop();
+        if (ordinal == moviesByOrdinal.size()) {
+            moviesByOrdinal.add(movie);
+        } else {
+            moviesByOrdinal.set(ordinal, movie);
+        }
+        ordinals.put(movie.getId(), ordinal);
+        live.set(ordinal);
+
+        Map<String, String> values = valuesOf(movie);
+        valuesByOrdinal.put(ordinal, values);
+        values.forEach((facet, value) -> bitmap(facet, value).set(ordinal));
+    }
+
+    private void remove(String movieId) {
+        Integer ordinal = ordinals.remove(movieId);
+        if (ordinal == null) {
+            return;
+        }
+        live.clear(ordinal);
+        moviesByOrdinal.set(ordinal, null);
+        freeOrdinals.push(ordinal);
+
+        Map<String, String> values = valuesByOrdinal.remove(ordinal);
+        values.forEach((facet, value) -> {
+            Map<String, BitSet> facetBitmaps = bitmaps.get(facet);
+            BitSet bitmap = facetBitmaps.get(value);
+            bitmap.clear(ordinal);
+            if (bitmap.isEmpty()) {
+                facetBitmaps.remove(value);
+            }
+        });
+    }
+
+    private BitSet bitmap(String facet, String value) {
+        return bitmaps.computeIfAbsent(facet, key -> new HashMap<>()).computeIfAbsent(value, key -> new BitSet());
+    }
+
+    private Map<String, String> valuesOf(Movie movie) {
+        Map<String, String> values = new HashMap<>();
+        if (movie.getGenre() != null && !movie.getGenre().isBlank()) {
+            values.put(GENRE, movie.getGenre().trim());
+        }
+        if (movie.getRating() != null && !movie.getRating().isBlank()) {
+            values.put(RATING, movie.getRating().trim());
+        }
+        if (movie.getDuration() != null) {
+            values.put(DURATION, durationBand(movie.getDuration()));
+        }
+        if (movie.getReleaseDate() != null && movie.getReleaseDate().length() >= 4) {
+            values.put(RELEASE_YEAR, movie.getReleaseDate().substring(0, 4));
+        }
+        values.put(SHOWTIMES_TODAY, String.valueOf(moviesWithShowtimesToday.contains(movie.getId())));
+        return values;
+    }
+
+    // Los géneros y clasificaciones se comparan sin mayúsculas ni tildes ("accion" = "Acción")
+    private String normalizeValue(String facet, String value) {
+        if (!GENRE.equals(facet) && !RATING.equals(facet)) {
+            return value;
+        }
+        String wanted = MovieSearchIndex.normalize(value.trim());
+        for (String existing : bitmaps.getOrDefault(facet, Map.of()).keySet()) {
+            if (MovieSearchIndex.normalize(existing).equals(wanted)) {
+                return existing;
+            }
+        }
+        return value;
+    }
+
+    static String durationBand(int minutes) {
+        if (minutes < 90) {
+            return "0-89";
+        } else if (minutes < 120) {
+            return "90-119";
+        } else if (minutes < 150) {
+            return "120-149";
+        }
+        return "150+";
+    }
+}
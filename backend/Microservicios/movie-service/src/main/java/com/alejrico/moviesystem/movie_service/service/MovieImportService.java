@@ -0,0 +1,395 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.dto.MovieImportStatus;
+import com.alejrico.moviesystem.movie_service.dto.MovieRequest;
+import com.alejrico.moviesystem.movie_service.model.Movie;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva del catálogo de un distribuidor (NDJSON o CSV). El fichero se recibe en
+ * disco y se procesa en segundo plano fila a fila: cada fila se valida con las restricciones de
+ * {@link MovieRequest} y las válidas se escriben en lotes de upserts no ordenados por externalId.
+ * La memoria usada depende del tamaño del lote, no del fichero. Los índices y cachés del
+ * catálogo se recargan una sola vez al terminar.
+ */
+@Service
+@RequiredArgsConstructor
+public class MovieImportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final List<String> CSV_COLUMNS = List.of("externalId", "title", "description", "posterImage",
+            "genre", "duration", "rating", "releaseDate", "director", "cast");
+
+    private final MongoTemplate mongoTemplate;
+    private final MovieService movieService;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, MovieImportStatus> imports = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "movie-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${movie.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${movie.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public MovieImportStatus startImport(InputStream body, Format format) throws IOException {
+        MovieImportStatus status = new MovieImportStatus();
+        status.setId(UUID.randomUUID().toString());
+        status.setFormat(format.name().toLowerCase());
+        status.setStatus("receiving");
+        status.setStartedAt(LocalDateTime.now());
+        imports.put(status.getId(), status);
+
+        // Se vuelca a disco para responder enseguida y procesar sin mantener la petición abierta
+        Path upload = Files.createTempFile("movie-import-", "." + status.getFormat());
+        try {
+            Files.copy(body, upload, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(upload);
+            finish(status, "failed", "No se pudo recibir el fichero: " + e.getMessage());
+            throw e;
+        }
+
+        update(status, current -> current.setStatus("running"));
+        executor.submit(() -> run(status, upload, format));
+        return getStatus(status.getId()).orElseThrow();
+    }
+
+    public Optional<MovieImportStatus> getStatus(String importId) {
+        MovieImportStatus status = imports.get(importId);
+        if (status == null) {
+            return Optional.empty();
+        }
+        synchronized (status) {
+            MovieImportStatus copy = new MovieImportStatus();
+            copy.setId(status.getId());
+            copy.setFormat(status.getFormat());
+            copy.setStatus(status.getStatus());
+            copy.setRowsRead(status.getRowsRead());
+            copy.setUpserted(status.getUpserted());
+            copy.setFailed(status.getFailed());
+            copy.setStartedAt(status.getStartedAt());
+            copy.setFinishedAt(status.getFinishedAt());
+            copy.setMessage(status.getMessage());
+            copy.setErrors(new ArrayList<>(status.getErrors()));
+            return Optional.of(copy);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(MovieImportStatus status, Path upload, Format format) {
+        try (BufferedReader reader = Files.newBufferedReader(upload, StandardCharsets.UTF_8)) {
+            List<Row> batch = new ArrayList<>(batchSize);
+            RowSource source = format == Format.CSV ? new CsvRowSource(reader) : new NdjsonRowSource(reader);
+            Row row;
+            while ((row = source.next()) != null) {
+                update(status, current -> current.setRowsRead(current.getRowsRead() + 1));
+                if (row.error() != null) {
+                    reportError(status, row.line(), null, row.error());
+                    continue;
+                }
+                String invalid = validate(row.request());
+                if (invalid != null) {
+                    reportError(status, row.line(), row.request().getExternalId(), invalid);
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    writeBatch(status, batch);
+                    batch.clear();
+                }
+            }
+            writeBatch(status, batch);
+
+            movieService.reloadCatalog();
+            finish(status, "completed", null);
+        } catch (Exception e) {
+            System.err.println("Error en la importación " + status.getId() + ": " + e.getMessage());
+            finish(status, "failed", e.getMessage());
+            try {
+                // Lo ya escrito queda en la base de datos: se recargan igualmente índices y cachés
+                movieService.reloadCatalog();
+            } catch (Exception reloadError) {
+                System.err.println("No se pudo recargar el catálogo tras la importación: " + reloadError.getMessage());
+            }
+        } finally {
+            try {
+                Files.deleteIfExists(upload);
+            } catch (IOException e) {
+                System.err.println("No se pudo borrar el fichero temporal " + upload + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void writeBatch(MovieImportStatus status, List<Row> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Movie.class);
+        for (Row row : batch) {
+            MovieRequest request = row.request();
+            Update update = new Update()
+                    .set("title", request.getTitle())
+                    .set("description", request.getDescription())
+                    .set("posterImage", request.getPosterImage())
+                    .set("genre", request.getGenre())
+                    .set("duration", request.getDuration())
+                    .set("rating", request.getRating())
+                    .set("releaseDate", request.getReleaseDate())
+                    .set("director", request.getDirector())
+                    .set("cast", request.getCast());
+            bulk.upsert(Query.query(Criteria.where("externalId").is(request.getExternalId())), update);
+        }
+
+        int written = batch.size();
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // En modo no ordenado el resto del lote se escribe; solo fallan las filas indicadas
+            for (BulkWriteError error : e.getErrors()) {
+                Row row = batch.get(error.getIndex());
+                reportError(status, row.line(), row.request().getExternalId(), error.getMessage());
+            }
+            written -= e.getErrors().size();
+        }
+        int upserted = written;
+        update(status, current -> current.setUpserted(current.getUpserted() + upserted));
+    }
+
+    private String validate(MovieRequest request) {
+        if (request.getExternalId() == null || request.getExternalId().isBlank()) {
+            return "El identificador externo es obligatorio";
+        }
+        Set<ConstraintViolation<MovieRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void reportError(MovieImportStatus status, long line, String externalId, String message) {
+        update(status, current -> {
+            current.setFailed(current.getFailed() + 1);
+            if (current.getErrors().size() < maxReportedErrors) {
+                current.getErrors().add(new MovieImportStatus.RowError(line, externalId, message));
+            }
+        });
+    }
+
+    private void finish(MovieImportStatus status, String result, String message) {
+        update(status, current -> {
+            current.setStatus(result);
+            current.setMessage(message);
+            current.setFinishedAt(LocalDateTime.now());
+        });
+    }
+
+    private void update(MovieImportStatus status, Consumer<MovieImportStatus> change) {
+        synchronized (status) {
+            change.accept(status);
+        }
+    }
+
+    record Row(long line, MovieRequest request, String error) {
+    }
+
+    interface RowSource {
+        Row next() throws IOException;
+    }
+
+    // Un objeto JSON por línea; las líneas vacías se ignoran
+    private final class NdjsonRowSource implements RowSource {
+        private final BufferedReader reader;
+        private long line;
+
+        private NdjsonRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Row(line, objectMapper.readValue(text, MovieRequest.class), null);
+                } catch (JsonProcessingException e) {
+                    return new Row(line, null, "JSON no válido: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * CSV con cabecera (columnas en cualquier orden, ver CSV_COLUMNS). Admite campos entre
+     * comillas con comas, comillas dobladas y saltos de línea; el reparto se separa con "|".
+     */
+    static final class CsvRowSource implements RowSource {
+        private final BufferedReader reader;
+        private long line;
+        private long recordStart;
+        private Map<String, Integer> header;
+
+        CsvRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Row next() throws IOException {
+            if (header == null) {
+                List<String> columns = readRecord();
+                if (columns == null) {
+                    return null;
+                }
+                header = new HashMap<>();
+                for (int i = 0; i < columns.size(); i++) {
+                    header.put(columns.get(i).trim(), i);
+                }
+                if (!header.keySet().containsAll(CSV_COLUMNS)) {
+                    throw new IOException("La cabecera CSV debe incluir las columnas " + String.join(",", CSV_COLUMNS));
+                }
+            }
+
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+            long recordLine = recordStart;
+
+            if (fields.size() != header.size()) {
+                return new Row(recordLine, null, "Se esperaban " + header.size() + " columnas y hay " + fields.size());
+            }
+            MovieRequest request = new MovieRequest();
+            request.setExternalId(field(fields, "externalId"));
+            request.setTitle(field(fields, "title"));
+            request.setDescription(field(fields, "description"));
+            request.setPosterImage(field(fields, "posterImage"));
+            request.setGenre(field(fields, "genre"));
+            request.setRating(field(fields, "rating"));
+            request.setReleaseDate(field(fields, "releaseDate"));
+            request.setDirector(field(fields, "director"));
+            String cast = field(fields, "cast");
+            request.setCast(cast == null ? List.of() : Arrays.stream(cast.split("\\|"))
+                    .map(String::trim)
+                    .filter(actor -> !actor.isEmpty())
+                    .toList());
+            String duration = field(fields, "duration");
+            if (duration != null) {
+                try {
+                    request.setDuration(Integer.parseInt(duration));
+                } catch (NumberFormatException e) {
+                    return new Row(recordLine, null, "Duración no válida: " + duration);
+                }
+            }
+            return new Row(recordLine, request, null);
+        }
+
+        private String field(List<String> fields, String column) {
+            String value = fields.get(header.get(column)).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        // Lee un registro completo, que puede ocupar varias líneas si hay saltos entre comillas
+        private List<String> readRecord() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+            recordStart = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    if (quoted) {
+                        if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                            current.append('"');
+                            i++;
+                        } else if (c == '"') {
+                            quoted = false;
+                        } else {
+                            current.append(c);
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(current.toString());
+                        current.setLength(0);
+                    } else {
+                        current.append(c);
+                    }
+                }
+                if (!quoted) {
+                    break;
+                }
+                text = reader.readLine();
+                if (text == null) {
+                    throw new IOException("Comillas sin cerrar en el registro de la línea " + line);
+                }
+                line++;
+                current.append('\n');
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Popularidad de cada película (entradas vendidas) tomada de los contadores agregados de
+ * reservation-service. Se consulta periódicamente, nunca por cada petición de sugerencias.
+ */
+@Service
+@RequiredArgsConstructor
+public class MoviePopularityService {
+    
+    private final MovieSuggestIndex movieSuggestIndex;
+    private final RestTemplate restTemplate;
+    
+    @Value("${services.reservation-service.url:http://localhost:8084}")
+    private String reservationServiceUrl;
+    
+    @Scheduled(fixedDelayString = "${movie.popularity.refresh-interval-ms:300000}")
+    public void refreshPopularity() {
+        try {
+            List<Map<String, Object>> movieStats = restTemplate.exchange(
+                    reservationServiceUrl + "/api/reservations/stats/movies", HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<Map<String, Object>>>() {}).getBody();
+            if (movieStats == null) {
+                return;
+            }
+            
+            Map<String, Long> ticketsByMovie = new HashMap<>();
+            for (Map<String, Object> stats : movieStats) {
+                if (stats.get("key") instanceof String movieId && stats.get("tickets") instanceof Number tickets) {
+                    ticketsByMovie.put(movieId, tickets.longValue());
+                }
+            }
+            movieSuggestIndex.updatePopularity(ticketsByMovie);
+        } catch (Exception e) {
+            // Se conserva la última popularidad conocida
+            System.err.println("No se pudo actualizar la popularidad de las películas: " + e.getMessage());
+        }
+    }
+}
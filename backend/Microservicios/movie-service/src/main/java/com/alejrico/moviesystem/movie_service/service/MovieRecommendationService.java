@@ -0,0 +1,73 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.dto.MovieSummaryResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Recomendaciones "reservadas juntas" calculadas por reservation-service a partir del
+ * historial de reservas. La tabla completa se descarga periódicamente y se sirve desde
+ * memoria; los datos de cada película salen de la caché del catálogo.
+ */
+@Service
+@RequiredArgsConstructor
+public class MovieRecommendationService {
+    
+    private final MovieService movieService;
+    private final RestTemplate restTemplate;
+    
+    // Película -> ids de sus vecinas, de mayor a menor similitud
+    private volatile Map<String, List<String>> neighbours = Map.of();
+    
+    @Value("${services.reservation-service.url:http://localhost:8084}")
+    private String reservationServiceUrl;
+    
+    @Scheduled(fixedDelayString = "${movie.recommendations.refresh-interval-ms:600000}")
+    public void refreshRecommendations() {
+        try {
+            List<Map<String, Object>> table = restTemplate.exchange(
+                    reservationServiceUrl + "/api/reservations/recommendations", HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<Map<String, Object>>>() {}).getBody();
+            if (table == null) {
+                return;
+            }
+            
+            Map<String, List<String>> loaded = new HashMap<>();
+            for (Map<String, Object> row : table) {
+                if (row.get("movieId") instanceof String movieId && row.get("neighbours") instanceof List<?> list) {
+                    loaded.put(movieId, list.stream()
+                            .filter(Map.class::isInstance)
+                            .map(neighbour -> ((Map<?, ?>) neighbour).get("movieId"))
+                            .filter(String.class::isInstance)
+                            .map(String.class::cast)
+                            .collect(Collectors.toUnmodifiableList()));
+                }
+            }
+            neighbours = Map.copyOf(loaded);
+        } catch (Exception e) {
+            // Se siguen sirviendo las últimas recomendaciones conocidas
+            System.err.println("No se pudieron actualizar las recomendaciones: " + e.getMessage());
+        }
+    }
+    
+    public List<MovieSummaryResponse> getRecommendations(String movieId, int limit) {
+        return neighbours.getOrDefault(movieId, List.of()).stream()
+                .map(movieService::getMovieById)
+                .flatMap(Optional::stream) // películas borradas desde el último cálculo
+                .limit(limit)
+                .map(movie -> new MovieSummaryResponse(movie.getId(), movie.getTitle(), movie.getPosterImage(),
+                        movie.getGenre(), movie.getRating(), movie.getDuration()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,203 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.model.Movie;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria sobre título, director, reparto y descripción.
+ * Los términos se normalizan (minúsculas y sin tildes) y se guardan ordenados, de modo que
+ * una búsqueda por prefijo es un rango del mapa: "acc" encuentra "Acción" mientras se escribe.
+ * Cada término pesa según el campo en el que aparece; una película debe contener todos los
+ * términos de la consulta y se ordena por la suma de sus pesos.
+ */
+@Component
+public class MovieSearchIndex {
+
+    static final float TITLE_WEIGHT = 5f;
+    static final float DIRECTOR_WEIGHT = 3f;
+    static final float CAST_WEIGHT = 2f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Una coincidencia solo por prefijo vale menos que el término completo
+    private static final float PREFIX_FACTOR = 0.5f;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // término -> (id de película -> peso del término en esa película)
+    private final NavigableMap<String, Map<String, Float>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByMovie = new HashMap<>();
+    private final Map<String, Movie> movies = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void rebuild(Collection<Movie> catalog) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByMovie.clear();
+            movies.clear();
+            for (Movie movie : catalog) {
+                add(movie);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Movie movie) {
+        lock.writeLock().lock();
+        try {
+            remove(movie.getId());
+            add(movie);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(String movieId) {
+        lock.writeLock().lock();
+        try {
+            remove(movieId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return movies.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve las películas que contienen todos los términos de la consulta (completos o como
+     * prefijo), de mayor a menor relevancia y, a igual relevancia, por título.
+     */
+    public List<Movie> search(String query) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Float> scores = null;
+            for (String queryTerm : queryTerms) {
+                Map<String, Float> termScores = scoreTerm(queryTerm);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    // Intersección: solo siguen las películas que también contienen este término
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((movieId, score) -> score + termScores.get(movieId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Map<String, Float> ranked = scores;
+            return ranked.keySet().stream()
+                    .map(movies::get)
+                    .sorted(Comparator.comparing((Movie movie) -> ranked.get(movie.getId())).reversed()
+                            .thenComparing(movie -> normalize(movie.getTitle())))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Mejor peso de cada película para un término de la consulta, recorriendo el rango de prefijos
+    private Map<String, Float> scoreTerm(String queryTerm) {
+        Map<String, Float> scores = new HashMap<>();
+        for (Map.Entry<String, Map<String, Float>> entry
+                : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+            float factor = entry.getKey().equals(queryTerm) ? 1f : PREFIX_FACTOR;
+            entry.getValue().forEach((movieId, weight) -> scores.merge(movieId, weight * factor, Math::max));
+        }
+        return scores;
+    }
+
+    private void add(Movie movie) {
+        if (movie.getId() == null) {
+            return;
+        }
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, movie.getTitle(), TITLE_WEIGHT);
+        addField(weights, movie.getDirector(), DIRECTOR_WEIGHT);
+        if (movie.getCast() != null) {
+            for (String actor : movie.getCast()) {
+                addField(weights, actor, CAST_WEIGHT);
+            }
+        }
+        addField(weights, movie.getDescription(), DESCRIPTION_WEIGHT);
+
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new HashMap<>()).put(movie.getId(), weight));
+        termsByMovie.put(movie.getId(), new HashSet<>(weights.keySet()));
+        movies.put(movie.getId(), movie);
+    }
+
+    private void addField(Map<String, Float> weights, String text, float weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Float::sum);
+        }
+    }
+
+    private void remove(String movieId) {
+        Set<String> terms = termsByMovie.remove(movieId);
+        movies.remove(movieId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<String, Float> moviesWithTerm = postings.get(term);
+            if (moviesWithTerm != null) {
+                moviesWithTerm.remove(movieId);
+                if (moviesWithTerm.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> terms = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    // "Acción" -> "accion", "Timothée" -> "timothee"
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,13 +1,24 @@
 package com.alejrico.moviesystem.movie_service.service;
 
+import com.alejrico.moviesystem.movie_service.dto.MovieFacetResponse;
 import com.alejrico.moviesystem.movie_service.dto.MovieRequest;
 import com.alejrico.moviesystem.movie_service.dto.MovieResponse;
+import com.alejrico.moviesystem.movie_service.dto.MovieSuggestion;
+import com.alejrico.moviesystem.movie_service.dto.MovieSummaryResponse;
 import com.alejrico.moviesystem.movie_service.model.Movie;
 import com.alejrico.moviesystem.movie_service.repository.MovieRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -17,30 +28,68 @@ import java.util.stream.Collectors;
 public class MovieService {
     
     private final MovieRepository movieRepository;
+    private final MovieSearchIndex movieSearchIndex;
+    private final MovieSuggestIndex movieSuggestIndex;
+    private final MovieFacetIndex movieFacetIndex;
+    private final GenreCatalog genreCatalog;
+    private final MovieCache movieCache;
+    private final RestTemplate restTemplate;
+    
+    @Value("${services.reservation-service.url:http://localhost:8084}")
+    private String reservationServiceUrl;
+    
+    // Se ejecuta después de DataInitializer, con el catálogo ya cargado
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildSearchIndex() {
+        List<Movie> catalog = movieRepository.findAll();
+        movieSearchIndex.rebuild(catalog);
+        movieSuggestIndex.rebuild(catalog);
+        movieFacetIndex.rebuild(catalog);
+        System.out.println("Índice de búsqueda de películas construido: " + movieSearchIndex.size() + " películas");
+    }
     
     public List<MovieResponse> getAllMovies() {
-        return movieRepository.findAll()
+        return movieCache.getAll(() -> movieRepository.findAll()
                 .stream()
                 .map(this::mapToMovieResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+    
+    // Vista de la cuadrícula: la proyección se hace en Mongo y se serializa un DTO reducido
+    public List<MovieSummaryResponse> getMovieSummaries() {
+        return movieCache.getSummaries(() -> movieRepository.findAllSummaries()
+                .stream()
+                .map(this::mapToMovieSummaryResponse)
+                .collect(Collectors.toList()));
     }
     
     public Optional<MovieResponse> getMovieById(String id) {
-        return movieRepository.findById(id)
-                .map(this::mapToMovieResponse);
+        return movieCache.get(id, () -> movieRepository.findById(id)
+                .map(this::mapToMovieResponse));
+    }
+    
+    // Tras una importación masiva: una sola recarga de índices y cachés en lugar de una por fila
+    public void reloadCatalog() {
+        movieCache.invalidateAll();
+        genreCatalog.invalidate();
+        rebuildSearchIndex();
     }
     
     public MovieResponse createMovie(MovieRequest movieRequest) {
         Movie movie = mapToMovie(movieRequest);
         Movie savedMovie = movieRepository.save(movie);
+        onMovieSaved(savedMovie, null);
         return mapToMovieResponse(savedMovie);
     }
     
     public Optional<MovieResponse> updateMovie(String id, MovieRequest movieRequest) {
         return movieRepository.findById(id)
                 .map(existingMovie -> {
+                    String previousGenre = existingMovie.getGenre();
                     updateMovieFromRequest(existingMovie, movieRequest);
                     Movie savedMovie = movieRepository.save(existingMovie);
+                    onMovieSaved(savedMovie, previousGenre);
+                    notifyMovieChanged(id);
                     return mapToMovieResponse(savedMovie);
                 });
     }
@@ -48,22 +97,34 @@ public class MovieService {
     public boolean deleteMovie(String id) {
         if (movieRepository.existsById(id)) {
             movieRepository.deleteById(id);
+            onMovieDeleted(id);
+            notifyMovieChanged(id);
             return true;
         }
         return false;
     }
     
+    // El texto se busca en el índice en memoria (título, director, reparto y descripción) ordenado por relevancia
+    @Timed(value = "movie.search", histogram = true)
     public List<MovieResponse> searchMovies(String title, String genre) {
         List<Movie> movies;
         
-        if (title != null && !title.trim().isEmpty() && genre != null && !genre.trim().isEmpty()) {
-            movies = movieRepository.findByGenreAndTitleContainingIgnoreCase(genre, title);
-        } else if (title != null && !title.trim().isEmpty()) {
-            movies = movieRepository.findByTitleContainingIgnoreCase(title);
+        if (title != null && !title.trim().isEmpty()) {
+            movies = movieSearchIndex.search(title);
+            if (genre != null && !genre.trim().isEmpty()) {
+                // El género se compara igual que sin texto (faceta), limitado a los resultados y en su orden
+                Set<String> inGenre = movieFacetIndex.filter(Map.of(MovieFacetIndex.GENRE, Set.of(genre)),
+                                movies.stream().map(Movie::getId).collect(Collectors.toList()))
+                        .movies().stream().map(Movie::getId).collect(Collectors.toSet());
+                movies = movies.stream()
+                        .filter(movie -> inGenre.contains(movie.getId()))
+                        .collect(Collectors.toList());
+            }
         } else if (genre != null && !genre.trim().isEmpty()) {
-            movies = movieRepository.findByGenreIgnoreCase(genre);
+            movies = movieFacetIndex.filter(Map.of(MovieFacetIndex.GENRE, Set.of(genre))).movies();
         } else {
-            movies = movieRepository.findAll();
+            // Sin filtros: la lista completa cacheada
+            return getAllMovies();
         }
         
         return movies.stream()
@@ -71,14 +132,70 @@ public class MovieService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Filtrado por facetas (OR dentro de una faceta, AND entre facetas) con recuentos por valor.
+     * Si hay texto, las películas siguen el orden de relevancia de la búsqueda; si no, por título.
+     */
+    public MovieFacetResponse filterMovies(String query, Map<String, Set<String>> selected) {
+        List<Movie> movies;
+        MovieFacetIndex.Result result;
+        if (query != null && !query.trim().isEmpty()) {
+            // Los recuentos se limitan a las películas que coinciden con el texto
+            List<Movie> hits = movieSearchIndex.search(query);
+            result = movieFacetIndex.filter(selected, hits.stream().map(Movie::getId).collect(Collectors.toList()));
+            Set<String> filtered = result.movies().stream().map(Movie::getId).collect(Collectors.toSet());
+            movies = hits.stream()
+                    .filter(movie -> filtered.contains(movie.getId()))
+                    .collect(Collectors.toList());
+        } else {
+            result = movieFacetIndex.filter(selected);
+            movies = result.movies().stream()
+                    .sorted(Comparator.comparing(Movie::getTitle, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                    .collect(Collectors.toList());
+        }
+        
+        return new MovieFacetResponse(movies.stream().map(this::mapToMovieResponse).collect(Collectors.toList()), result.facets());
+    }
+    
+    public List<MovieSuggestion> suggest(String query, int limit) {
+        return movieSuggestIndex.suggest(query, limit);
+    }
+    
     public List<String> getAllGenres() {
-        return movieRepository.findAll()
-                .stream()
-                .map(Movie::getGenre)
-                .collect(Collectors.toSet()) // Remove duplicates
-                .stream()
-                .sorted()
-                .collect(Collectors.toList());
+        return genreCatalog.getGenres();
+    }
+    
+    public Map<String, Long> getGenreCounts() {
+        return genreCatalog.getCounts();
+    }
+    
+    // Mantiene los índices en memoria al día tras cada escritura del catálogo
+    private void onMovieSaved(Movie movie, String previousGenre) {
+        if (!Objects.equals(previousGenre, movie.getGenre())) {
+            genreCatalog.invalidate();
+        }
+        movieCache.invalidate(movie.getId());
+        movieSearchIndex.index(movie);
+        movieSuggestIndex.index(movie);
+        movieFacetIndex.index(movie);
+    }
+    
+    private void onMovieDeleted(String id) {
+        genreCatalog.invalidate();
+        movieCache.invalidate(id);
+        movieSearchIndex.delete(id);
+        movieSuggestIndex.delete(id);
+        movieFacetIndex.delete(id);
+    }
+    
+    // Avisa a reservation-service para que descarte el título copiado en sus datos locales
+    private void notifyMovieChanged(String id) {
+        try {
+            restTemplate.postForLocation(reservationServiceUrl + "/api/reservations/snapshots/movies/" + id + "/invalidate", null);
+        } catch (Exception e) {
+            // La copia local caduca igualmente por TTL
+            System.err.println("No se pudo notificar el cambio de la película " + id + ": " + e.getMessage());
+        }
     }
     
     private Movie mapToMovie(MovieRequest movieRequest) {
@@ -107,6 +224,11 @@ public class MovieService {
         movie.setCast(movieRequest.getCast());
     }
     
+    private MovieSummaryResponse mapToMovieSummaryResponse(Movie movie) {
+        return new MovieSummaryResponse(movie.getId(), movie.getTitle(), movie.getPosterImage(),
+                movie.getGenre(), movie.getRating(), movie.getDuration());
+    }
+    
     private MovieResponse mapToMovieResponse(Movie movie) {
         MovieResponse response = new MovieResponse();
         response.setId(movie.getId());
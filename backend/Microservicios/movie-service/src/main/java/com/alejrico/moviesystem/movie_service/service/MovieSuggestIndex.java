@@ -0,0 +1,232 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.dto.MovieSuggestion;
+import com.alejrico.moviesystem.movie_service.model.Movie;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sugerencias de autocompletado (títulos, directores y actores) servidas desde un radix trie
+ * en memoria. Cada nodo guarda ya calculadas sus TOP_K mejores sugerencias por popularidad,
+ * así que una consulta solo recorre los caracteres escritos y devuelve una lista existente.
+ * <p>
+ * El trie es inmutable: cada cambio del catálogo o de la popularidad construye uno nuevo y lo
+ * publica con una referencia volátil, de modo que las lecturas nunca bloquean.
+ */
+@Component
+public class MovieSuggestIndex {
+
+    static final int TOP_K = 10;
+
+    private static final Comparator<Entry> BY_SCORE = Comparator.comparingLong(Entry::score).reversed()
+            .thenComparing(entry -> entry.suggestion().getText());
+
+    private final Map<String, Movie> catalog = new ConcurrentHashMap<>();
+    private volatile Map<String, Long> popularity = Map.of();
+    private volatile Node root = new Node("", new Node[0], new Entry[0]);
+
+    public synchronized void rebuild(Collection<Movie> movies) {
+        catalog.clear();
+        for (Movie movie : movies) {
+            if (movie.getId() != null) {
+                catalog.put(movie.getId(), movie);
+            }
+        }
+        root = build();
+    }
+
+    public synchronized void index(Movie movie) {
+        catalog.put(movie.getId(), movie);
+        root = build();
+    }
+
+    public synchronized void delete(String movieId) {
+        if (catalog.remove(movieId) != null) {
+            root = build();
+        }
+    }
+
+    // Popularidad por película (entradas vendidas); reordena las sugerencias precalculadas
+    public synchronized void updatePopularity(Map<String, Long> ticketsByMovie) {
+        popularity = Map.copyOf(ticketsByMovie);
+        root = build();
+    }
+
+    public List<MovieSuggestion> suggest(String query, int limit) {
+        String rest = key(query);
+        if (rest.isEmpty()) {
+            return List.of();
+        }
+
+        Node node = root;
+        while (!rest.isEmpty()) {
+            Node child = node.child(rest.charAt(0));
+            if (child == null) {
+                return List.of();
+            }
+            if (rest.startsWith(child.label)) {
+                rest = rest.substring(child.label.length());
+            } else if (child.label.startsWith(rest)) {
+                rest = "";
+            } else {
+                return List.of();
+            }
+            node = child;
+        }
+
+        int size = Math.min(limit, node.top.length);
+        List<MovieSuggestion> suggestions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            suggestions.add(node.top[i].suggestion());
+        }
+        return suggestions;
+    }
+
+    private Node build() {
+        Map<String, Long> ticketsByMovie = popularity;
+        Builder builder = new Builder();
+
+        // Un director o actor aparece una sola vez, con la popularidad sumada de sus películas
+        Map<String, Entry> people = new HashMap<>();
+        for (Movie movie : catalog.values()) {
+            long score = ticketsByMovie.getOrDefault(movie.getId(), 0L);
+            if (movie.getTitle() != null) {
+                insertWords(builder, movie.getTitle(), new Entry(new MovieSuggestion(movie.getTitle(), "title", movie.getId()), score));
+            }
+            addPerson(people, movie.getDirector(), "director", score);
+            if (movie.getCast() != null) {
+                for (String actor : movie.getCast()) {
+                    addPerson(people, actor, "cast", score);
+                }
+            }
+        }
+        for (Entry person : people.values()) {
+            insertWords(builder, person.suggestion().getText(), person);
+        }
+        return builder.compress("", true);
+    }
+
+    private void addPerson(Map<String, Entry> people, String name, String type, long score) {
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        people.merge(type + ":" + key(name), new Entry(new MovieSuggestion(name, type, null), score),
+                (current, added) -> new Entry(current.suggestion(), current.score() + added.score()));
+    }
+
+    // "Top Gun: Maverick" se encuentra escribiendo "top", "gun" o "maverick"
+    private void insertWords(Builder builder, String text, Entry entry) {
+        String normalized = key(text);
+        int start = 0;
+        while (start < normalized.length()) {
+            builder.insert(normalized.substring(start), entry);
+            int space = normalized.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+    }
+
+    // Minúsculas, sin tildes y con los separadores reducidos a un espacio
+    static String key(String text) {
+        return String.join(" ", MovieSearchIndex.tokenize(text));
+    }
+
+    record Entry(MovieSuggestion suggestion, long score) {
+    }
+
+    // Nodo compacto: etiqueta de arista, hijos ordenados por su primer carácter y el top-k del subárbol
+    private static final class Node {
+        private final String label;
+        private final Node[] children;
+        private final Entry[] top;
+
+        private Node(String label, Node[] children, Entry[] top) {
+            this.label = label;
+            this.children = children;
+            this.top = top;
+        }
+
+        private Node child(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char candidate = children[middle].label.charAt(0);
+                if (candidate < first) {
+                    low = middle + 1;
+                } else if (candidate > first) {
+                    high = middle - 1;
+                } else {
+                    return children[middle];
+                }
+            }
+            return null;
+        }
+    }
+
+    // Trie de un carácter por nivel usado solo durante la construcción
+    private static final class Builder {
+        private final TreeMap<Character, Builder> children = new TreeMap<>();
+        private final List<Entry> entries = new ArrayList<>(1);
+
+        private void insert(String key, Entry entry) {
+            Builder node = this;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Builder());
+            }
+            node.entries.add(entry);
+        }
+
+        // Une las cadenas de nodos con un solo hijo y calcula el top-k de abajo arriba
+        private Node compress(String label, boolean root) {
+            Builder node = this;
+            StringBuilder edge = new StringBuilder(label);
+            while (!root && node.entries.isEmpty() && node.children.size() == 1) {
+                Map.Entry<Character, Builder> only = node.children.firstEntry();
+                edge.append(only.getKey());
+                node = only.getValue();
+            }
+
+            Node[] compressed = new Node[node.children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> child : node.children.entrySet()) {
+                compressed[i++] = child.getValue().compress(String.valueOf(child.getKey()), false);
+            }
+            return new Node(edge.toString(), compressed, topOf(node.entries, compressed));
+        }
+
+        private static Entry[] topOf(List<Entry> own, Node[] children) {
+            List<Entry> candidates = new ArrayList<>(own);
+            for (Node child : children) {
+                candidates.addAll(List.of(child.top));
+            }
+            candidates.sort(BY_SCORE);
+
+            // La misma sugerencia puede llegar por varias palabras; se cuenta una vez
+            Set<MovieSuggestion> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<Entry> top = new ArrayList<>(TOP_K);
+            for (Entry candidate : candidates) {
+                if (top.size() == TOP_K) {
+                    break;
+                }
+                if (seen.add(candidate.suggestion())) {
+                    top.add(candidate);
+                }
+            }
+            return top.toArray(new Entry[0]);
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Caché en disco de los pósters. La primera vez que se pide un póster se descarga del origen,
+ * se guardan el original y sus variantes reducidas, y a partir de ahí se sirven desde disco.
+ * <p>
+ * Los ficheros se nombran por el SHA-256 de su contenido ({hash}-{variante}.{ext}), así que su
+ * contenido nunca cambia y pueden servirse con caché inmutable; un fichero .ref por URL de
+ * origen apunta al hash y guarda el ancho del original. Las variantes no amplían: si el póster
+ * es más estrecho que la variante pedida se sirve el original sin volver al origen. El tamaño
+ * total está acotado y se desalojan los menos usados.
+ * <p>
+ * La URL del póster la escribe quien da de alta la película, así que antes de descargar se
+ * comprueba el origen: solo http/https, solo los hosts de movie.posters.allowed-hosts y nunca
+ * direcciones privadas, de loopback o link-local. Las redirecciones no se siguen.
+ */
+@Component
+public class PosterCache {
+
+    public static final String ORIGINAL = "original";
+
+    private static final Pattern FILE_NAME = Pattern.compile("[0-9a-f]{64}-(original|w\\d{2,4})\\.(jpg|png|gif|webp)");
+    private static final long MAX_DOWNLOAD_BYTES = 10L * 1024 * 1024;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final List<Integer> widths;
+    private final Set<String> allowedHosts;
+    private final boolean allowPrivateAddresses;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+
+    // Fichero -> tamaño, en orden de último acceso (LRU)
+    private final LinkedHashMap<Path, Long> files = new LinkedHashMap<>(256, 0.75f, true);
+    // "{hash}-{variante}" -> fichero, para localizar una variante sin recorrer la caché
+    private final Map<String, Path> byVariant = new HashMap<>();
+    private long totalBytes;
+    private final Map<String, CompletableFuture<String>> downloads = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PosterCache(@Value("${movie.posters.cache-dir:${java.io.tmpdir}/movie-posters}") String directory,
+                       @Value("${movie.posters.max-bytes:524288000}") long maxBytes,
+                       @Value("${movie.posters.widths:185,342}") List<Integer> widths,
+                       @Value("${movie.posters.allowed-hosts:image.tmdb.org}") List<String> allowedHosts) throws IOException {
+        this(directory, maxBytes, widths, allowedHosts, false);
+    }
+
+    PosterCache(String directory, long maxBytes, List<Integer> widths, List<String> allowedHosts,
+                boolean allowPrivateAddresses) throws IOException {
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+        this.widths = List.copyOf(widths);
+        this.allowedHosts = allowedHosts.stream()
+                .map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .filter(host -> !host.isEmpty())
+                .collect(Collectors.toSet());
+        this.allowPrivateAddresses = allowPrivateAddresses;
+        Files.createDirectories(this.directory);
+        loadExistingFiles();
+    }
+
+    public List<Integer> getWidths() {
+        return widths;
+    }
+
+    /**
+     * Devuelve el nombre del fichero en caché para el póster y la variante pedidos ("original"
+     * o "w185", "w342"...), descargándolo si hace falta. Si varias peticiones piden a la vez el
+     * mismo póster solo una lo descarga.
+     */
+    public String resolve(String posterUrl, String variant) throws IOException {
+        Ref ref = readRef(posterUrl);
+        Optional<Path> file = ref != null ? findFile(ref.contentHash(), ref.served(variant)) : Optional.empty();
+        if (file.isEmpty()) {
+            String contentHash = download(posterUrl);
+            file = findFile(contentHash, variant);
+            if (file.isEmpty()) {
+                // Póster más estrecho que la variante pedida: se sirve el original
+                file = findFile(contentHash, ORIGINAL);
+            }
+        }
+        return file.orElseThrow(() -> new IOException("Póster no disponible: " + posterUrl)).getFileName().toString();
+    }
+
+    // Ruta de un fichero de la caché; nombres ajenos al patrón no se aceptan (evita salir del directorio)
+    public Optional<Path> open(String fileName) {
+        if (!FILE_NAME.matcher(fileName).matches()) {
+            return Optional.empty();
+        }
+        Path file = directory.resolve(fileName);
+        synchronized (files) {
+            if (files.get(file) == null) {
+                return Optional.empty();
+            }
+        }
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Solo afecta al orden LRU tras un reinicio
+        }
+        return Optional.of(file);
+    }
+
+    public long getTotalBytes() {
+        synchronized (files) {
+            return totalBytes;
+        }
+    }
+
+    private String download(String posterUrl) throws IOException {
+        CompletableFuture<String> loading = new CompletableFuture<>();
+        CompletableFuture<String> existing = downloads.putIfAbsent(posterUrl, loading);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+            }
+        }
+
+        try {
+            String contentHash = fetchAndStore(posterUrl);
+            loading.complete(contentHash);
+            return contentHash;
+        } catch (IOException | RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            downloads.remove(posterUrl, loading);
+        }
+    }
+
+    private String fetchAndStore(String posterUrl) throws IOException {
+        byte[] body = fetch(posterUrl);
+        String contentHash = sha256(body);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(body));
+        if (image == null) {
+            throw new IOException("El origen no devolvió una imagen válida: " + posterUrl);
+        }
+
+        String extension = extensionOf(body);
+        store(contentHash + "-" + ORIGINAL + "." + extension, body);
+        for (int width : widths) {
+            if (width < image.getWidth()) {
+                store(contentHash + "-w" + width + ".jpg", resize(image, width));
+            }
+        }
+        writeRef(posterUrl, new Ref(contentHash, image.getWidth()));
+        return contentHash;
+    }
+
+    private byte[] fetch(String posterUrl) throws IOException {
+        URI uri = URI.create(posterUrl);
+        checkOrigin(uri);
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(15))
+                .GET()
+                .build();
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream in = response.body()) {
+                if (response.statusCode() != 200) {
+                    throw new IOException("El origen respondió " + response.statusCode() + " para " + posterUrl);
+                }
+                byte[] body = in.readNBytes((int) MAX_DOWNLOAD_BYTES + 1);
+                if (body.length > MAX_DOWNLOAD_BYTES) {
+                    throw new IOException("Póster demasiado grande: " + posterUrl);
+                }
+                return body;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Descarga interrumpida: " + posterUrl, e);
+        }
+    }
+
+    // Evita que la URL de un póster sirva para hacer peticiones a la red interna (SSRF)
+    void checkOrigin(URI uri) throws IOException {
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase(Locale.ROOT) : "";
+        if (!scheme.equals("http") && !scheme.equals("https")) {
+            throw new IOException("Esquema no permitido para pósters: " + uri);
+        }
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase(Locale.ROOT) : "";
+        if (!allowedHosts.contains(host)) {
+            throw new IOException("Host no permitido para pósters: " + host);
+        }
+        if (allowPrivateAddresses) {
+            return;
+        }
+        for (InetAddress address : InetAddress.getAllByName(host)) {
+            if (isInternal(address)) {
+                throw new IOException("El host " + host + " resuelve a una dirección interna: " + address.getHostAddress());
+            }
+        }
+    }
+
+    private static boolean isInternal(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        boolean uniqueLocal = address instanceof Inet6Address && (bytes[0] & 0xfe) == 0xfc; // fc00::/7
+        boolean sharedAddressSpace = bytes.length == 4 && bytes[0] == 100 && (bytes[1] & 0xc0) == 64; // 100.64.0.0/10
+        return address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress() || uniqueLocal || sharedAddressSpace;
+    }
+
+    static byte[] resize(BufferedImage image, int width) throws IOException {
+        int height = Math.max(1, Math.round(image.getHeight() * (width / (float) image.getWidth())));
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        ImageIO.write(resized, "jpg", out);
+        return out.toByteArray();
+    }
+
+    // Escritura atómica (fichero temporal + rename) y alta en el LRU
+    private void store(String fileName, byte[] content) throws IOException {
+        Path target = directory.resolve(fileName);
+        Path temp = Files.createTempFile(directory, "download-", ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        synchronized (files) {
+            Long previous = files.put(target, (long) content.length);
+            byVariant.put(variantKey(target), target);
+            totalBytes += content.length - (previous != null ? previous : 0);
+            evictIfNeeded(target);
+        }
+    }
+
+    private void evictIfNeeded(Path justStored) {
+        Iterator<Map.Entry<Path, Long>> eldest = files.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Path, Long> entry = eldest.next();
+            if (entry.getKey().equals(justStored)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(entry.getKey());
+            } catch (IOException e) {
+                System.err.println("No se pudo desalojar el póster " + entry.getKey() + ": " + e.getMessage());
+                continue;
+            }
+            totalBytes -= entry.getValue();
+            byVariant.remove(variantKey(entry.getKey()), entry.getKey());
+            eldest.remove();
+        }
+    }
+
+    private Optional<Path> findFile(String contentHash, String variant) {
+        synchronized (files) {
+            Path file = byVariant.get(contentHash + "-" + variant);
+            if (file != null) {
+                files.get(file); // cuenta como acceso para el LRU
+            }
+            return Optional.ofNullable(file);
+        }
+    }
+
+    // {hash}-{variante}.{ext} -> {hash}-{variante}
+    private static String variantKey(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.lastIndexOf('.'));
+    }
+
+    // Contenido de un .ref: "{hash} {ancho del original}" (los antiguos, sin ancho, valen 0)
+    private record Ref(String contentHash, int width) {
+
+        // Variante que existe en disco: las que no son más estrechas que el original no se generan
+        String served(String variant) {
+            if (width > 0 && variant.matches("w\\d{2,4}") && Integer.parseInt(variant.substring(1)) >= width) {
+                return ORIGINAL;
+            }
+            return variant;
+        }
+    }
+
+    private Ref readRef(String posterUrl) {
+        Path ref = directory.resolve(sha256(posterUrl.getBytes(StandardCharsets.UTF_8)) + ".ref");
+        try {
+            if (!Files.exists(ref)) {
+                return null;
+            }
+            String[] parts = Files.readString(ref).trim().split(" ");
+            return new Ref(parts[0], parts.length > 1 ? Integer.parseInt(parts[1]) : 0);
+        } catch (IOException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void writeRef(String posterUrl, Ref ref) throws IOException {
+        Path file = directory.resolve(sha256(posterUrl.getBytes(StandardCharsets.UTF_8)) + ".ref");
+        Files.writeString(file, ref.contentHash() + " " + ref.width());
+    }
+
+    // Al arrancar se recupera el contenido de la caché, ordenado por último acceso
+    private void loadExistingFiles() throws IOException {
+        try (Stream<Path> stream = Files.list(directory)) {
+            List<Path> existing = stream
+                    .filter(file -> FILE_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted(Comparator.comparing(PosterCache::lastModified))
+                    .collect(Collectors.toList());
+            synchronized (files) {
+                for (Path file : existing) {
+                    long size = Files.size(file);
+                    files.put(file, size);
+                    byVariant.put(variantKey(file), file);
+                    totalBytes += size;
+                }
+                evictIfNeeded(null);
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static String extensionOf(byte[] body) {
+        if (body.length > 3 && body[0] == (byte) 0x89 && body[1] == 'P' && body[2] == 'N' && body[3] == 'G') {
+            return "png";
+        }
+        if (body.length > 2 && body[0] == 'G' && body[1] == 'I' && body[2] == 'F') {
+            return "gif";
+        }
+        return "jpg";
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
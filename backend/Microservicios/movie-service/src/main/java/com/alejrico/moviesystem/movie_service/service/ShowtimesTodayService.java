@@ -0,0 +1,52 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mantiene la faceta "con funciones hoy" consultando periódicamente a showtime-service
+ * las funciones del día.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShowtimesTodayService {
+    
+    private final MovieFacetIndex movieFacetIndex;
+    private final RestTemplate restTemplate;
+    
+    @Value("${services.showtime-service.url:http://localhost:8083}")
+    private String showtimeServiceUrl;
+    
+    @Scheduled(fixedDelayString = "${movie.facets.showtimes-refresh-interval-ms:300000}")
+    public void refreshShowtimesToday() {
+        try {
+            List<Map<String, Object>> showtimes = restTemplate.exchange(
+                    showtimeServiceUrl + "/api/showtimes/date/" + LocalDate.now(), HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<Map<String, Object>>>() {}).getBody();
+            if (showtimes == null) {
+                return;
+            }
+            
+            Set<String> movieIds = new HashSet<>();
+            for (Map<String, Object> showtime : showtimes) {
+                if (!"cancelled".equals(showtime.get("status")) && showtime.get("movieId") instanceof String movieId) {
+                    movieIds.add(movieId);
+                }
+            }
+            movieFacetIndex.updateShowtimesToday(movieIds);
+        } catch (Exception e) {
+            System.err.println("No se pudieron consultar las funciones de hoy: " + e.getMessage());
+        }
+    }
+}
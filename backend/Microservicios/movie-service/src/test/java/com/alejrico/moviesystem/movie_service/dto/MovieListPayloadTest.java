@@ -0,0 +1,58 @@
+package com.alejrico.moviesystem.movie_service.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Compara el tamaño y el coste de serializar la lista completa frente a la vista resumida
+class MovieListPayloadTest {
+
+    private static final int CATALOG_SIZE = 2000;
+    private static final int ROUNDS = 50;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void summaryViewIsMuchSmallerAndCheaperToSerialize() throws Exception {
+        List<MovieResponse> full = new ArrayList<>();
+        List<MovieSummaryResponse> summaries = new ArrayList<>();
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            MovieResponse movie = new MovieResponse("665f1c2e9b1e8a3d4c5b" + String.format("%04d", i),
+                    "Película número " + i + ": El Regreso",
+                    "Después de más de 30 años de servicio como uno de los mejores aviadores de la Armada, el protagonista "
+                            + "se encuentra donde pertenece, empujando los límites como piloto de pruebas valiente y evitando "
+                            + "el ascenso de rango que lo pondría en tierra. Una historia sobre la familia y el deber.",
+                    "https://image.tmdb.org/t/p/w500/62HCnUTziyWcpDaBO2i1DX17ljH.jpg",
+                    "Acción", 90 + i % 90, "PG-13", "2022-05-27", "Joseph Kosinski",
+                    List.of("Tom Cruise", "Miles Teller", "Jennifer Connelly", "Jon Hamm", "Glen Powell"));
+            full.add(movie);
+            summaries.add(new MovieSummaryResponse(movie.getId(), movie.getTitle(), movie.getPosterImage(),
+                    movie.getGenre(), movie.getRating(), movie.getDuration()));
+        }
+
+        int fullBytes = objectMapper.writeValueAsBytes(full).length;
+        int summaryBytes = objectMapper.writeValueAsBytes(summaries).length;
+        long fullNanos = serializationTime(full);
+        long summaryNanos = serializationTime(summaries);
+
+        System.out.printf("Lista completa: %d bytes, %.2f ms por respuesta%n", fullBytes, fullNanos / 1e6);
+        System.out.printf("Vista resumida: %d bytes, %.2f ms por respuesta%n", summaryBytes, summaryNanos / 1e6);
+
+        assertTrue(summaryBytes * 2 < fullBytes, "la vista resumida debería ocupar menos de la mitad");
+    }
+
+    private long serializationTime(Object payload) throws Exception {
+        for (int i = 0; i < ROUNDS; i++) {
+            objectMapper.writeValueAsBytes(payload); // calentamiento
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            objectMapper.writeValueAsBytes(payload);
+        }
+        return (System.nanoTime() - start) / ROUNDS;
+    }
+}
@@ -0,0 +1,62 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenreCatalogTest {
+
+    // Una película cambia de género mientras la agregación está en curso
+    @Test
+    void loadStartedBeforeAnInvalidationIsNotCached() throws Exception {
+        AtomicReference<Map<String, Long>> database = new AtomicReference<>(Map.of("Drama", 2L));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch aggregating = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        GenreCatalog catalog = new GenreCatalog(() -> {
+            Map<String, Long> snapshot = database.get();
+            if (loads.incrementAndGet() == 1) {
+                aggregating.countDown();
+                await(written);
+            }
+            return snapshot;
+        });
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<String, Long>> stale = pool.submit(catalog::getCounts);
+            assertTrue(aggregating.await(5, TimeUnit.SECONDS));
+            database.set(Map.of("Drama", 1L, "Terror", 1L));
+            catalog.invalidate();
+            written.countDown();
+
+            assertEquals(Map.of("Drama", 2L), stale.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(Map.of("Drama", 1L, "Terror", 1L), catalog.getCounts());
+        assertEquals(2, loads.get());
+        // La segunda carga sí se guarda
+        catalog.getCounts();
+        assertEquals(2, loads.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
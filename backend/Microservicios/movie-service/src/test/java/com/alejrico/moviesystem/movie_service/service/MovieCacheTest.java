@@ -0,0 +1,101 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.dto.MovieResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MovieCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentMissesShareASingleLoad() throws Exception {
+        MovieCache cache = new MovieCache(registry, 100);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Optional<MovieResponse>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> cache.get("1", () -> {
+                loads.incrementAndGet();
+                await(release);
+                return Optional.of(movie("1"));
+            })));
+        }
+        Thread.sleep(100);
+        release.countDown();
+        for (Future<Optional<MovieResponse>> result : results) {
+            assertEquals("1", result.get(5, TimeUnit.SECONDS).orElseThrow().getId());
+        }
+        pool.shutdown();
+
+        assertEquals(1, loads.get());
+        double misses = registry.get("movie.cache.requests").tag("cache", "movie").tag("result", "miss").counter().count();
+        double hits = registry.get("movie.cache.requests").tag("cache", "movie").tag("result", "hit").counter().count();
+        assertEquals(8.0, misses + hits);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntries() {
+        MovieCache cache = new MovieCache(registry, 2);
+        cache.get("1", () -> Optional.of(movie("1")));
+        cache.get("2", () -> Optional.of(movie("2")));
+        cache.get("1", () -> Optional.of(movie("1")));
+        cache.get("3", () -> Optional.of(movie("3")));
+
+        AtomicInteger reloads = new AtomicInteger();
+        cache.get("1", () -> { reloads.incrementAndGet(); return Optional.of(movie("1")); });
+        cache.get("2", () -> { reloads.incrementAndGet(); return Optional.of(movie("2")); });
+
+        assertEquals(1, reloads.get());
+        assertEquals(2, cache.size());
+        assertTrue(registry.get("movie.cache.evictions").counter().count() >= 1.0);
+    }
+
+    @Test
+    void invalidationDuringALoadDiscardsTheStaleValue() {
+        MovieCache cache = new MovieCache(registry, 100);
+        cache.getAll(() -> {
+            cache.invalidate("1"); // escritura concurrente mientras se cargaba la lista
+            return List.of(movie("1"));
+        });
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.getAll(() -> { loads.incrementAndGet(); return List.of(movie("1"), movie("2")); });
+        List<MovieResponse> all = cache.getAll(() -> { loads.incrementAndGet(); return List.of(); });
+
+        assertEquals(1, loads.get());
+        assertEquals(2, all.size());
+        assertEquals(2.0, registry.get("movie.cache.requests").tag("cache", "all").tag("result", "miss").counter().count());
+        assertEquals(1.0, registry.get("movie.cache.requests").tag("cache", "all").tag("result", "hit").counter().count());
+    }
+
+    private static MovieResponse movie(String id) {
+        MovieResponse movie = new MovieResponse();
+        movie.setId(id);
+        movie.setTitle("Película " + id);
+        return movie;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
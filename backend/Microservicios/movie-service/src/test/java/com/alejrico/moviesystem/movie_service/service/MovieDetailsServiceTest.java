@@ -0,0 +1,78 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.dto.MovieDetailsResponse;
+import com.alejrico.moviesystem.movie_service.dto.MovieResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MovieDetailsServiceTest {
+
+    // Un hilo y un hueco en la cola: la película lenta los ocupa y la siguiente petición no cabe
+    @Test
+    void branchesRejectedByASaturatedPoolReturnAPartialResponse() throws Exception {
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MovieService movieService = new MovieService(null, null, null, null, null, null, null) {
+            @Override
+            public Optional<MovieResponse> getMovieById(String id) {
+                if (id.equals("slow")) {
+                    slowStarted.countDown();
+                    await(release);
+                }
+                MovieResponse movie = new MovieResponse();
+                movie.setId(id);
+                return Optional.of(movie);
+            }
+        };
+        MovieDetailsService detailsService = new MovieDetailsService(movieService, "http://127.0.0.1:1",
+                5000, 5000, 5000, 1, 1, new RestTemplateBuilder());
+
+        ExecutorService client = Executors.newSingleThreadExecutor();
+        try {
+            Future<Optional<MovieDetailsResponse>> slow = client.submit(() -> detailsService.getDetails("slow"));
+            assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+
+            long started = System.nanoTime();
+            MovieDetailsResponse degraded = detailsService.getDetails("other").orElseThrow();
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 1000);
+            assertTrue(degraded.isPartial());
+            assertEquals(List.of("movie", "showtimes"), degraded.getUnavailable());
+
+            release.countDown();
+            assertEquals("slow", slow.get(10, TimeUnit.SECONDS).orElseThrow().getMovie().getId());
+        } finally {
+            release.countDown();
+            client.shutdownNow();
+            detailsService.shutdown();
+        }
+
+        // Los parciales no se cachean: con el pool libre la respuesta vuelve a estar completa
+        MovieDetailsService idle = new MovieDetailsService(movieService, "http://127.0.0.1:1",
+                5000, 5000, 5000, 1, 1, new RestTemplateBuilder());
+        try {
+            assertFalse(idle.getDetails("other").orElseThrow().getUnavailable().contains("movie"));
+        } finally {
+            idle.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.model.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MovieFacetIndexTest {
+
+    private MovieFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MovieFacetIndex();
+        index.rebuild(List.of(
+                movie("1", "Acción", "PG-13", 192, "2022-12-16"),
+                movie("2", "Acción", "R", 130, "2022-05-27"),
+                movie("3", "Drama", "PG-13", 95, "2021-10-22"),
+                movie("4", "Comedia", "PG", 85, "2023-01-01")));
+    }
+
+    @Test
+    void combinesValuesWithOrAndFacetsWithAnd() {
+        assertEquals(List.of("1", "2", "3"), ids(index.filter(Map.of(
+                MovieFacetIndex.GENRE, Set.of("accion", "Drama")))));
+        assertEquals(List.of("1", "3"), ids(index.filter(Map.of(
+                MovieFacetIndex.GENRE, Set.of("Acción", "Drama"),
+                MovieFacetIndex.RATING, Set.of("PG-13")))));
+    }
+
+    @Test
+    void countsEachFacetAgainstTheOtherFilters() {
+        MovieFacetIndex.Result result = index.filter(Map.of(
+                MovieFacetIndex.GENRE, Set.of("Acción"),
+                MovieFacetIndex.RELEASE_YEAR, Set.of("2022")));
+
+        // Los géneros se cuentan solo con el filtro de año: Acción 2 y nada más de 2022
+        assertEquals(Map.of("Acción", 2, "Comedia", 0, "Drama", 0), result.facets().get(MovieFacetIndex.GENRE));
+        // Los años se cuentan solo con el filtro de género
+        assertEquals(Map.of("2021", 0, "2022", 2, "2023", 0), result.facets().get(MovieFacetIndex.RELEASE_YEAR));
+        assertEquals(Map.of("120-149", 1, "150+", 1, "0-89", 0, "90-119", 0), result.facets().get(MovieFacetIndex.DURATION));
+    }
+
+    @Test
+    void updatesBitmapsIncrementallyAndReusesOrdinals() {
+        index.delete("2");
+        index.index(movie("5", "Drama", "R", 140, "2024-03-01"));
+        index.index(movie("3", "Comedia", "PG-13", 95, "2021-10-22"));
+        index.updateShowtimesToday(Set.of("5", "1"));
+
+        assertEquals(List.of("5"), ids(index.filter(Map.of(MovieFacetIndex.GENRE, Set.of("Drama")))));
+        assertEquals(List.of("3", "4"), ids(index.filter(Map.of(MovieFacetIndex.GENRE, Set.of("Comedia")))));
+        assertEquals(Map.of("true", 2, "false", 2), index.filter(Map.of()).facets().get(MovieFacetIndex.SHOWTIMES_TODAY));
+        assertEquals(List.of("1", "5"), ids(index.filter(Map.of(MovieFacetIndex.SHOWTIMES_TODAY, Set.of("true")))));
+    }
+
+    private static Movie movie(String id, String genre, String rating, int duration, String releaseDate) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle("Película " + id);
+        movie.setGenre(genre);
+        movie.setRating(rating);
+        movie.setDuration(duration);
+        movie.setReleaseDate(releaseDate);
+        return movie;
+    }
+
+    private static List<String> ids(MovieFacetIndex.Result result) {
+        return result.movies().stream().map(Movie::getId).sorted().toList();
+    }
+}
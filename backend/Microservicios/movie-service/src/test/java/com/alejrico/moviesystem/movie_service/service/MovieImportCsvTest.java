@@ -0,0 +1,60 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MovieImportCsvTest {
+
+    private static final String HEADER = "externalId,title,description,posterImage,genre,duration,rating,releaseDate,director,cast\n";
+
+    @Test
+    void parsesQuotedFieldsMultilineValuesAndCast() throws IOException {
+        MovieImportService.CsvRowSource source = source(HEADER
+                + "d-1,\"Dune, Parte Dos\",\"Primera línea\nsegunda \"\"citada\"\"\",http://p/1.jpg,Ciencia Ficción,166,PG-13,2024-03-01,Denis Villeneuve,Timothée Chalamet|Zendaya\n"
+                + "\n"
+                + "d-2,Wonka,Dulce,http://p/2.jpg,Familiar,116,PG,2023-12-15,Paul King,\n");
+
+        MovieImportService.Row first = source.next();
+        assertEquals(2, first.line());
+        assertEquals("Dune, Parte Dos", first.request().getTitle());
+        assertEquals("Primera línea\nsegunda \"citada\"", first.request().getDescription());
+        assertEquals(166, first.request().getDuration());
+        assertEquals(List.of("Timothée Chalamet", "Zendaya"), first.request().getCast());
+
+        MovieImportService.Row second = source.next();
+        assertEquals(5, second.line());
+        assertEquals("d-2", second.request().getExternalId());
+        assertEquals(List.of(), second.request().getCast());
+        assertNull(source.next());
+    }
+
+    @Test
+    void reportsRowErrorsWithoutStopping() throws IOException {
+        MovieImportService.CsvRowSource source = source(HEADER
+                + "d-1,Dune,Texto,http://p/1.jpg,Drama,larga,PG,2021-10-22,Denis Villeneuve,\n"
+                + "d-2,Solo tres,columnas\n"
+                + "d-3,Wonka,Dulce,http://p/2.jpg,Familiar,116,PG,2023-12-15,Paul King,\n");
+
+        assertEquals("Duración no válida: larga", source.next().error());
+        assertEquals("Se esperaban 10 columnas y hay 3", source.next().error());
+        assertEquals("d-3", source.next().request().getExternalId());
+    }
+
+    @Test
+    void rejectsHeaderWithoutRequiredColumns() {
+        MovieImportService.CsvRowSource source = source("externalId,title\nd-1,Dune\n");
+        assertThrows(IOException.class, source::next);
+    }
+
+    private static MovieImportService.CsvRowSource source(String csv) {
+        return new MovieImportService.CsvRowSource(new BufferedReader(new StringReader(csv)));
+    }
+}
@@ -0,0 +1,75 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.model.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MovieSearchIndexTest {
+
+    private MovieSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MovieSearchIndex();
+        index.rebuild(List.of(
+                movie("1", "Dune", "Denis Villeneuve", List.of("Timothée Chalamet"), "Paul Atreides viaja al planeta más peligroso"),
+                movie("2", "La Acción Final", "Ana Pérez", List.of("Tom Cruise"), "Una película de acción"),
+                movie("3", "Top Gun: Maverick", "Joseph Kosinski", List.of("Tom Cruise", "Miles Teller"), "Un piloto de pruebas")));
+    }
+
+    @Test
+    void foldsAccentsInQueryAndDocuments() {
+        assertEquals(List.of("1"), ids(index.search("timothee")));
+        assertEquals(List.of("1"), ids(index.search("PLANÉTA")));
+    }
+
+    @Test
+    void matchesPrefixesWhileTyping() {
+        assertEquals(List.of("2"), ids(index.search("acc")));
+        assertEquals(List.of("3"), ids(index.search("mav")));
+    }
+
+    @Test
+    void requiresEveryQueryTerm() {
+        assertEquals(List.of("3"), ids(index.search("tom piloto")));
+        assertTrue(index.search("tom dune").isEmpty());
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatches() {
+        index.index(movie("4", "Pilotos", "Otro Director", List.of(), "Drama"));
+
+        assertEquals(List.of("4", "3"), ids(index.search("piloto")));
+    }
+
+    @Test
+    void appliesIncrementalUpdatesAndDeletes() {
+        index.index(movie("1", "Dune: Parte Dos", "Denis Villeneuve", List.of("Zendaya"), "Continúa la historia"));
+        assertEquals(List.of("1"), ids(index.search("zendaya")));
+        assertTrue(index.search("timothee").isEmpty());
+
+        index.delete("1");
+        assertTrue(index.search("dune").isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    private static Movie movie(String id, String title, String director, List<String> cast, String description) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle(title);
+        movie.setDirector(director);
+        movie.setCast(cast);
+        movie.setDescription(description);
+        movie.setGenre("Acción");
+        return movie;
+    }
+
+    private static List<String> ids(List<Movie> movies) {
+        return movies.stream().map(Movie::getId).toList();
+    }
+}
@@ -0,0 +1,44 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.dto.MovieResponse;
+import com.alejrico.moviesystem.movie_service.model.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MovieServiceTest {
+
+    private final MovieSearchIndex searchIndex = new MovieSearchIndex();
+    private final MovieFacetIndex facetIndex = new MovieFacetIndex();
+    private final MovieService movieService = new MovieService(null, searchIndex, new MovieSuggestIndex(), facetIndex,
+            null, null, null);
+
+    // Con o sin texto, el género se compara como valor de faceta (normalizado y exacto), no como subcadena
+    @Test
+    void genreMatchesTheSameWayWithAndWithoutText() {
+        List<Movie> catalog = List.of(
+                movie("1", "Dune", "Ciencia ficción"),
+                movie("2", "Dune: el documental", "Docu-ciencia ficción"),
+                movie("3", "Arrival", "Ciencia ficción"));
+        searchIndex.rebuild(catalog);
+        facetIndex.rebuild(catalog);
+
+        assertEquals(List.of("1", "3"), ids(movieService.searchMovies(null, "Ciencia Ficción")));
+        assertEquals(List.of("1"), ids(movieService.searchMovies("dune", "Ciencia Ficción")));
+        assertEquals(List.of(), ids(movieService.searchMovies("dune", "ficción")));
+    }
+
+    private static Movie movie(String id, String title, String genre) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle(title);
+        movie.setGenre(genre);
+        return movie;
+    }
+
+    private static List<String> ids(List<MovieResponse> movies) {
+        return movies.stream().map(MovieResponse::getId).sorted().toList();
+    }
+}
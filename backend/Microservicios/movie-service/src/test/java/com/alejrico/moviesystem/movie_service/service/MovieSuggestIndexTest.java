@@ -0,0 +1,88 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.alejrico.moviesystem.movie_service.dto.MovieSuggestion;
+import com.alejrico.moviesystem.movie_service.model.Movie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MovieSuggestIndexTest {
+
+    private MovieSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MovieSuggestIndex();
+        index.rebuild(List.of(
+                movie("1", "Top Gun: Maverick", "Joseph Kosinski", List.of("Tom Cruise", "Miles Teller")),
+                movie("2", "Misión Imposible", "Christopher McQuarrie", List.of("Tom Cruise")),
+                movie("3", "Spider-Man: No Way Home", "Jon Watts", List.of("Tom Holland", "Zendaya"))));
+    }
+
+    @Test
+    void suggestsTitlesDirectorsAndCastByPrefix() {
+        assertEquals(List.of("Top Gun: Maverick"), texts(index.suggest("top g", 10)));
+        assertEquals(List.of("Jon Watts", "Joseph Kosinski"), texts(index.suggest("jo", 10)));
+        assertEquals(List.of("Tom Cruise", "Tom Holland", "Top Gun: Maverick"), texts(index.suggest("to", 10)));
+    }
+
+    @Test
+    void matchesInnerWordsAndFoldsAccents() {
+        assertEquals(List.of("Top Gun: Maverick"), texts(index.suggest("maver", 10)));
+        assertEquals(List.of("Misión Imposible"), texts(index.suggest("MISION", 10)));
+        assertTrue(index.suggest("xyz", 10).isEmpty());
+    }
+
+    @Test
+    void listsEachSuggestionOnceWithMergedPopularity() {
+        index.updatePopularity(Map.of("2", 500L, "3", 300L));
+
+        // Tom Cruise suma las entradas de sus dos películas y queda por delante de Tom Holland
+        List<MovieSuggestion> suggestions = index.suggest("tom", 10);
+        assertEquals(List.of("Tom Cruise", "Tom Holland"), texts(suggestions));
+        assertEquals("cast", suggestions.get(0).getType());
+    }
+
+    @Test
+    void keepsOnlyTopKPerNodeAndRespectsLimit() {
+        List<Movie> catalog = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            catalog.add(movie("m" + i, "Saga " + i, null, List.of()));
+        }
+        index.rebuild(catalog);
+        index.updatePopularity(Map.of("m7", 90L, "m3", 50L));
+
+        List<MovieSuggestion> suggestions = index.suggest("saga", 100);
+        assertEquals(MovieSuggestIndex.TOP_K, suggestions.size());
+        assertEquals("m7", suggestions.get(0).getMovieId());
+        assertEquals(List.of("Saga 7", "Saga 3"), texts(index.suggest("sag", 2)));
+    }
+
+    @Test
+    void refreshesOnCatalogWrites() {
+        index.index(movie("4", "Topos", "Otro Director", List.of()));
+        assertTrue(texts(index.suggest("topo", 10)).contains("Topos"));
+
+        index.delete("1");
+        assertTrue(index.suggest("maverick", 10).isEmpty());
+    }
+
+    private static Movie movie(String id, String title, String director, List<String> cast) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle(title);
+        movie.setDirector(director);
+        movie.setCast(cast);
+        return movie;
+    }
+
+    private static List<String> texts(List<MovieSuggestion> suggestions) {
+        return suggestions.stream().map(MovieSuggestion::getText).toList();
+    }
+}
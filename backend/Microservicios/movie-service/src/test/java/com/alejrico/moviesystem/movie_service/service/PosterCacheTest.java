@@ -0,0 +1,156 @@
+package com.alejrico.moviesystem.movie_service.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PosterCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private HttpServer origin;
+    private final AtomicInteger originRequests = new AtomicInteger();
+
+    @BeforeEach
+    void startOrigin() throws IOException {
+        origin = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        origin.createContext("/", exchange -> {
+            originRequests.incrementAndGet();
+            String path = exchange.getRequestURI().getPath();
+            boolean found = path.endsWith(".png");
+            // Cada ruta devuelve una imagen distinta; /copia-de-x.png repite el contenido de /x.png
+            // y las rutas /estrecho-* devuelven un póster de 300 px de ancho
+            int width = path.startsWith("/estrecho-") ? 300 : 500;
+            byte[] poster = found ? png(width, width * 3 / 2, path.replace("/copia-de-", "/").hashCode()) : null;
+            exchange.sendResponseHeaders(found ? 200 : 404, found ? poster.length : -1);
+            try (OutputStream out = exchange.getResponseBody()) {
+                if (found) {
+                    out.write(poster);
+                }
+            }
+        });
+        origin.start();
+    }
+
+    @AfterEach
+    void stopOrigin() {
+        origin.stop(0);
+    }
+
+    @Test
+    void downloadsOnceAndGeneratesVariants() throws IOException {
+        PosterCache cache = cache(directory.toString(), 50_000_000, List.of(185, 342));
+        String url = url("/dune.png");
+
+        String original = cache.resolve(url, PosterCache.ORIGINAL);
+        String small = cache.resolve(url, "w185");
+        String medium = cache.resolve(url, "w342");
+
+        assertEquals(1, originRequests.get());
+        assertTrue(original.endsWith("-original.png"));
+        assertEquals(185, ImageIO.read(cache.open(small).orElseThrow().toFile()).getWidth());
+        assertEquals(513, ImageIO.read(cache.open(medium).orElseThrow().toFile()).getHeight());
+
+        // Tras un reinicio la caché en disco se reutiliza sin volver al origen
+        PosterCache restarted = cache(directory.toString(), 50_000_000, List.of(185, 342));
+        assertEquals(small, restarted.resolve(url, "w185"));
+        assertEquals(1, originRequests.get());
+    }
+
+    // Un póster más estrecho que w342 no tiene esa variante: se sirve el original sin volver al origen
+    @Test
+    void narrowPosterServesTheOriginalWithoutRefetching() throws IOException {
+        PosterCache cache = cache(directory.toString(), 50_000_000, List.of(185, 342));
+        String url = url("/estrecho-whiplash.png");
+
+        String medium = cache.resolve(url, "w342");
+        assertTrue(medium.endsWith("-original.png"));
+        assertEquals(medium, cache.resolve(url, "w342"));
+        assertEquals(medium, cache.resolve(url, "w342"));
+        assertEquals(185, ImageIO.read(cache.open(cache.resolve(url, "w185")).orElseThrow().toFile()).getWidth());
+        assertEquals(1, originRequests.get());
+
+        PosterCache restarted = cache(directory.toString(), 50_000_000, List.of(185, 342));
+        assertEquals(medium, restarted.resolve(url, "w342"));
+        assertEquals(1, originRequests.get());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedFilesOverTheLimit() throws IOException {
+        PosterCache probe = cache(directory.resolve("probe").toString(), Long.MAX_VALUE, List.of());
+        probe.resolve(url("/a.png"), PosterCache.ORIGINAL);
+        long posterBytes = probe.getTotalBytes();
+
+        // Caben dos originales y medio: al guardar el tercero sale el menos usado
+        PosterCache cache = cache(directory.resolve("lru").toString(), posterBytes * 5 / 2, List.of());
+        String a = cache.resolve(url("/a.png"), PosterCache.ORIGINAL);
+        String b = cache.resolve(url("/b.png"), PosterCache.ORIGINAL);
+        assertTrue(cache.open(a).isPresent());
+        String c = cache.resolve(url("/c.png"), PosterCache.ORIGINAL);
+
+        assertTrue(cache.open(a).isPresent());
+        assertTrue(cache.open(b).isEmpty());
+        assertTrue(cache.open(c).isPresent());
+        assertTrue(cache.getTotalBytes() <= posterBytes * 5 / 2);
+
+        // Mismo contenido en otra URL: se reutiliza el fichero existente
+        assertEquals(a, cache.resolve(url("/copia-de-a.png"), PosterCache.ORIGINAL));
+    }
+
+    @Test
+    void rejectsUnknownFilesAndFailedDownloads() throws IOException {
+        PosterCache cache = cache(directory.toString(), 50_000_000, List.of(185));
+        assertTrue(cache.open("../../etc/passwd").isEmpty());
+        assertTrue(cache.open("0".repeat(64) + "-original.jpg").isEmpty());
+        assertThrows(IOException.class, () -> cache.resolve(url("/missing.jpg"), PosterCache.ORIGINAL));
+    }
+
+    // El origen de pruebas escucha en 127.0.0.1: en producción una dirección así se rechaza
+    @Test
+    void rejectsPostersFromOutsideTheAllowedOrigins() throws IOException {
+        PosterCache cache = new PosterCache(directory.toString(), 50_000_000, List.of(185),
+                List.of("image.tmdb.org", "localhost"), false);
+
+        assertThrows(IOException.class, () -> cache.resolve(url("/dune.png"), PosterCache.ORIGINAL));
+        assertThrows(IOException.class, () -> cache.resolve(
+                "http://localhost:" + origin.getAddress().getPort() + "/dune.png", PosterCache.ORIGINAL));
+        assertThrows(IOException.class, () -> cache.resolve("file:///etc/passwd", PosterCache.ORIGINAL));
+        assertThrows(IOException.class, () -> cache.resolve("http://169.254.169.254/latest/meta-data", PosterCache.ORIGINAL));
+        assertEquals(0, originRequests.get());
+    }
+
+    private PosterCache cache(String dir, long maxBytes, List<Integer> widths) throws IOException {
+        return new PosterCache(dir, maxBytes, widths, List.of("127.0.0.1"), true);
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + origin.getAddress().getPort() + path;
+    }
+
+    private static byte[] png(int width, int height, int seed) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            image.setRGB(x, x * height / width, seed & 0xFFFFFF);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -1,13 +1,19 @@
 package com.alejrico.moviesystem.reservation_service;
 
+import com.alejrico.moviesystem.common.security.SecurityConfiguration;
+import com.alejrico.moviesystem.common.tracing.TracingConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 @SpringBootApplication
+@EnableScheduling
+@Import({SecurityConfiguration.class, TracingConfiguration.class})
 public class ReservationServiceApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,44 @@
+package com.alejrico.moviesystem.reservation_service.config;
+
+import com.alejrico.moviesystem.reservation_service.model.Reservation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    // Índices usados por las consultas de exportación y búsqueda de reservas
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        IndexOperations reservations = mongoTemplate.indexOps(Reservation.class);
+        reservations.createIndex(new Index("userId", Sort.Direction.ASC));
+        
+        // La exportación ordena por (createdAt, _id) tras un filtro de igualdad opcional
+        reservations.createIndex(new Index("createdAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+        reservations.createIndex(new Index("showtimeId", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+        reservations.createIndex(new Index("status", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC));
+        
+        // Índice parcial para el barrido de expiración: solo contiene reservas pendientes
+        reservations.createIndex(new Index("paymentDeadline", Sort.Direction.ASC)
+                .named("pending_by_deadline")
+                .partial(PartialIndexFilter.of(Criteria.where("status").is(Reservation.STATUS_PENDING))));
+        
+        // Reintento de liberaciones de asientos: solo contiene las reservas con la marca puesta
+        reservations.createIndex(new Index("seatsReleasePendingSince", Sort.Direction.ASC)
+                .named("pending_seat_release")
+                .partial(PartialIndexFilter.of(Criteria.where("seatsReleasePendingSince").exists(true))));
+    }
+}
@@ -0,0 +1,44 @@
+package com.alejrico.moviesystem.reservation_service.controller;
+
+import com.alejrico.moviesystem.reservation_service.dto.RecommendationJobStatus;
+import com.alejrico.moviesystem.reservation_service.model.MovieRecommendation;
+import com.alejrico.moviesystem.reservation_service.service.MovieRecommendationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reservations/recommendations")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MovieRecommendationController {
+    
+    private final MovieRecommendationService movieRecommendationService;
+    
+    // Tabla completa; movie-service la descarga periódicamente y la sirve desde memoria
+    @GetMapping
+    public ResponseEntity<List<MovieRecommendation>> getAllRecommendations() {
+        return ResponseEntity.ok(movieRecommendationService.getAllRecommendations());
+    }
+    
+    @GetMapping("/{movieId}")
+    public ResponseEntity<MovieRecommendation> getRecommendations(@PathVariable String movieId) {
+        return movieRecommendationService.getRecommendations(movieId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // Recalcula las recomendaciones en segundo plano
+    @PostMapping("/rebuild")
+    public ResponseEntity<RecommendationJobStatus> rebuild() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(movieRecommendationService.start());
+    }
+    
+    @GetMapping("/status")
+    public ResponseEntity<RecommendationJobStatus> getStatus() {
+        return ResponseEntity.ok(movieRecommendationService.getStatus());
+    }
+}
@@ -1,14 +1,27 @@
 package com.alejrico.moviesystem.reservation_service.controller;
 
+import com.alejrico.moviesystem.common.security.AuthenticatedUser;
 import com.alejrico.moviesystem.reservation_service.dto.ReservationRequest;
 import com.alejrico.moviesystem.reservation_service.dto.ReservationResponse;
+import com.alejrico.moviesystem.reservation_service.dto.ShowtimeScheduleRequest;
+import com.alejrico.moviesystem.reservation_service.model.ShowtimeCancellation;
+import com.alejrico.moviesystem.reservation_service.model.ShowtimeReschedule;
+import com.alejrico.moviesystem.reservation_service.service.ReservationExportService;
 import com.alejrico.moviesystem.reservation_service.service.ReservationService;
+import com.alejrico.moviesystem.reservation_service.service.ShowtimeCancellationService;
+import com.alejrico.moviesystem.reservation_service.service.ShowtimeSnapshotCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +32,9 @@ import java.util.Optional;
 public class ReservationController {
     
     private final ReservationService reservationService;
+    private final ReservationExportService reservationExportService;
+    private final ShowtimeSnapshotCache showtimeSnapshotCache;
+    private final ShowtimeCancellationService showtimeCancellationService;
     
     @GetMapping
     public ResponseEntity<List<ReservationResponse>> getAllReservations() {
@@ -26,6 +42,39 @@ public class ReservationController {
         return ResponseEntity.ok(reservations);
     }
     
+    // Exportación en streaming para administración (CSV o NDJSON, opcionalmente comprimida)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportReservations(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String showtimeId,
+            @RequestParam(required = false) String status) {
+        ReservationExportService.Format exportFormat;
+        try {
+            exportFormat = ReservationExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        ReservationExportService.ExportFilter filter = new ReservationExportService.ExportFilter(from, to, showtimeId, status);
+        String extension = exportFormat == ReservationExportService.Format.CSV ? "csv" : "ndjson";
+        MediaType contentType = exportFormat == ReservationExportService.Format.CSV
+                ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                : MediaType.parseMediaType("application/x-ndjson");
+        if (gzip) {
+            extension += ".gz";
+            contentType = MediaType.parseMediaType("application/gzip");
+        }
+        
+        StreamingResponseBody body = out -> reservationExportService.export(filter, exportFormat, gzip, out);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reservations." + extension + "\"")
+                .body(body);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ReservationResponse> getReservationById(@PathVariable String id) {
         Optional<ReservationResponse> reservation = reservationService.getReservationById(id);
@@ -49,6 +98,31 @@ public class ReservationController {
         }
     }
     
+    // Pago completado: pending -> confirmed (409 si ya no está pendiente o venció el plazo).
+    // Solo el dueño de la reserva (su JWT) o otro servicio: sin credenciales 401, con otro usuario 403
+    @PutMapping("/{id}/confirm")
+    public ResponseEntity<ReservationResponse> confirmReservation(@PathVariable String id, HttpServletRequest request) {
+        Optional<AuthenticatedUser> caller = AuthenticatedUser.from(request);
+        if (caller.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Optional<ReservationResponse> reservation = reservationService.getReservationById(id);
+        if (reservation.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!mayConfirm(caller.get(), reservation.get())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return reservationService.confirmReservation(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+    
+    private static boolean mayConfirm(AuthenticatedUser caller, ReservationResponse reservation) {
+        return caller.hasRole(AuthenticatedUser.ROLE_SERVICE)
+                || (caller.userId() != null && String.valueOf(caller.userId()).equals(reservation.getUserId()));
+    }
+    
     @PutMapping("/{id}/cancel")
     public ResponseEntity<Void> cancelReservation(@PathVariable String id) {
         boolean cancelled = reservationService.cancelReservation(id);
@@ -57,7 +131,54 @@ public class ReservationController {
     
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteReservation(@PathVariable String id) {
-        boolean deleted = reservationService.deleteReservation(id);
-        return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+        try {
+            boolean deleted = reservationService.deleteReservation(id);
+            return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+        } catch (IllegalStateException e) {
+            // showtime-service no respondió: la reserva sigue intacta y se puede reintentar
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
+    // Función cancelada o eliminada: cancela todas sus reservas en segundo plano
+    @PostMapping("/showtime/{showtimeId}/cancel-all")
+    public ResponseEntity<ShowtimeCancellation> cancelShowtimeReservations(@PathVariable String showtimeId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(showtimeCancellationService.start(showtimeId));
+    }
+    
+    @GetMapping("/showtime/{showtimeId}/cancel-all")
+    public ResponseEntity<ShowtimeCancellation> getShowtimeCancellationProgress(@PathVariable String showtimeId) {
+        return showtimeCancellationService.getProgress(showtimeId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // Nuevo horario de una función: se copia a sus reservas activas y se avisa a los usuarios
+    @PostMapping("/showtime/{showtimeId}/reschedule")
+    public ResponseEntity<ShowtimeReschedule> rescheduleShowtimeReservations(
+            @PathVariable String showtimeId,
+            @Valid @RequestBody ShowtimeScheduleRequest schedule) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(showtimeCancellationService.reschedule(showtimeId, schedule.getDate(), schedule.getTime()));
+    }
+    
+    @GetMapping("/showtime/{showtimeId}/reschedule")
+    public ResponseEntity<ShowtimeReschedule> getShowtimeRescheduleProgress(@PathVariable String showtimeId) {
+        return showtimeCancellationService.getRescheduleProgress(showtimeId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    // Notificación de cambio de una función: descarta la copia local de sus datos
+    @PostMapping("/snapshots/showtimes/{showtimeId}/invalidate")
+    public ResponseEntity<Void> invalidateShowtimeSnapshot(@PathVariable String showtimeId) {
+        showtimeSnapshotCache.invalidate(showtimeId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @PostMapping("/snapshots/movies/{movieId}/invalidate")
+    public ResponseEntity<Void> invalidateMovieSnapshot(@PathVariable String movieId) {
+        showtimeSnapshotCache.invalidateMovie(movieId);
+        return ResponseEntity.noContent().build();
     }
 } 
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.alejrico.moviesystem.reservation_service.controller;
+
+import com.alejrico.moviesystem.reservation_service.model.ReservationRollup;
+import com.alejrico.moviesystem.reservation_service.service.ReservationStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reservations/stats")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ReservationStatsController {
+    
+    private final ReservationStatsService reservationStatsService;
+    
+    @GetMapping("/summary")
+    public ResponseEntity<ReservationRollup> getSummary() {
+        return ResponseEntity.ok(reservationStatsService.getSummary());
+    }
+    
+    @GetMapping("/showtimes")
+    public ResponseEntity<List<ReservationRollup>> getAllShowtimeStats() {
+        return ResponseEntity.ok(reservationStatsService.getAll(ReservationStatsService.SCOPE_SHOWTIME));
+    }
+    
+    @GetMapping("/showtimes/{showtimeId}")
+    public ResponseEntity<ReservationRollup> getShowtimeStats(@PathVariable String showtimeId) {
+        return ResponseEntity.ok(reservationStatsService.getByShowtime(showtimeId));
+    }
+    
+    @GetMapping("/movies")
+    public ResponseEntity<List<ReservationRollup>> getAllMovieStats() {
+        return ResponseEntity.ok(reservationStatsService.getAll(ReservationStatsService.SCOPE_MOVIE));
+    }
+    
+    @GetMapping("/movies/{movieId}")
+    public ResponseEntity<ReservationRollup> getMovieStats(@PathVariable String movieId) {
+        return ResponseEntity.ok(reservationStatsService.getByMovie(movieId));
+    }
+    
+    @GetMapping("/days/{date}")
+    public ResponseEntity<ReservationRollup> getDayStats(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(reservationStatsService.getByDay(date));
+    }
+    
+    @GetMapping("/days")
+    public ResponseEntity<List<ReservationRollup>> getDayRangeStats(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from) || from.plusDays(366).isBefore(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(reservationStatsService.getByDayRange(from, to));
+    }
+    
+    // Recalcula los contadores desde las reservas (pipeline de agregación en Mongo)
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuild() {
+        int rollups = reservationStatsService.rebuild();
+        return ResponseEntity.ok(Map.of("rollups", rollups));
+    }
+} 
\ No newline at end of file
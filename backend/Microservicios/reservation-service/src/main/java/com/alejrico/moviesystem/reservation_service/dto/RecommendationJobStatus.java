@@ -0,0 +1,23 @@
+package com.alejrico.moviesystem.reservation_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationJobStatus {
+
+    // Estado del último cálculo de recomendaciones "reservadas juntas"
+    private boolean running;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    private long reservations;
+    private int users;
+    private int movies;
+    private long durationMs;
+    private String error;
+}
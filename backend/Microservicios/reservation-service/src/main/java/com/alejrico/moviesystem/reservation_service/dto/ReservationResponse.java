@@ -15,11 +15,15 @@ public class ReservationResponse {
     private String id;
     private String userId;
     private String showtimeId;
+    private String movieId;
     private String movieTitle;
     private String date;
     private String time;
+    private String hallId;
     private List<String> seatIds;
     private Double totalPrice;
     private String status;
     private LocalDateTime createdAt;
+    private LocalDateTime paymentDeadline;
+    private LocalDateTime confirmedAt;
 } 
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.alejrico.moviesystem.reservation_service.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Nueva fecha y hora de una función (mismo formato que ShowtimeSnapshot)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShowtimeScheduleRequest {
+
+    @NotBlank
+    private String date;
+
+    @NotBlank
+    private String time;
+}
@@ -0,0 +1,20 @@
+package com.alejrico.moviesystem.reservation_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShowtimeSnapshot {
+
+    // Copia local de los datos de la función y su película usados para enriquecer reservas
+    private String showtimeId;
+    private String movieId;
+    private String movieTitle;
+    private String date;
+    private String time;
+    private String hallId;
+    private Double price;
+}
@@ -0,0 +1,39 @@
+package com.alejrico.moviesystem.reservation_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "movie_recommendations")
+public class MovieRecommendation {
+
+    // Un documento por película con sus vecinos "reservadas juntas", de mayor a menor similitud
+    @Id
+    private String movieId;
+
+    private List<Neighbour> neighbours;
+
+    private LocalDateTime computedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Neighbour {
+
+        private String movieId;
+
+        // Similitud coseno sobre usuarios (0..1)
+        private double score;
+
+        // Usuarios que reservaron ambas películas
+        private int coBookings;
+    }
+}
@@ -0,0 +1,39 @@
+package com.alejrico.moviesystem.reservation_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "notifications")
+public class Notification {
+    
+    public static final String TYPE_SHOWTIME_CANCELLED = "showtime_cancelled";
+    public static final String TYPE_SHOWTIME_RESCHEDULED = "showtime_rescheduled";
+    
+    // Identificador determinista ("tipo:reserva", y para los cambios de horario "tipo:reserva:fechaThora")
+    // para que reintentar no duplique avisos
+    @Id
+    private String id;
+    
+    private String userId;
+    
+    private String reservationId;
+    
+    private String showtimeId;
+    
+    private String type;
+    
+    private String message;
+    
+    // Importe a reembolsar (0 si la reserva no se había pagado)
+    private Double refundAmount;
+    
+    private LocalDateTime createdAt;
+}
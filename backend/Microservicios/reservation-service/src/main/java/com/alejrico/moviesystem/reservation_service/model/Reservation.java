@@ -18,6 +18,11 @@ import java.util.List;
 @Document(collection = "reservations")
 public class Reservation {
     
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_CONFIRMED = "confirmed";
+    public static final String STATUS_EXPIRED = "expired";
+    public static final String STATUS_CANCELLED = "cancelled";
+    
     @Id
     private String id;
     
@@ -27,6 +32,8 @@ public class Reservation {
     @NotBlank(message = "El ID de la función es obligatorio")
     private String showtimeId;
     
+    private String movieId;
+    
     @NotBlank(message = "El título de la película es obligatorio")
     private String movieTitle;
     
@@ -36,6 +43,8 @@ public class Reservation {
     @NotBlank(message = "La hora es obligatoria")
     private String time;
     
+    private String hallId;
+    
     @NotNull(message = "Los asientos son obligatorios")
     private List<String> seatIds;
     
@@ -44,8 +53,24 @@ public class Reservation {
     private Double totalPrice;
     
     @NotBlank(message = "El estado es obligatorio")
-    private String status; // confirmed, cancelled
+    private String status; // pending -> confirmed | expired | cancelled
     
     @NotNull(message = "La fecha de creación es obligatoria")
     private LocalDateTime createdAt;
+    
+    // Plazo para pagar una reserva pendiente; al vencer se expira y se liberan los asientos
+    private LocalDateTime paymentDeadline;
+    
+    private LocalDateTime confirmedAt;
+    
+    private LocalDateTime expiredAt;
+    
+    private LocalDateTime cancelledAt;
+    
+    // Asientos pendientes de devolver a showtime-service desde esta fecha (reserva expirada o
+    // cancelada); se borra al liberarlos y el barrido de expiración reintenta los que quedan
+    private LocalDateTime seatsReleasePendingSince;
+    
+    // Cancelada por la cancelación de su función y aún sin descontar de los contadores agregados
+    private Boolean rollupPending;
 } 
\ No newline at end of file
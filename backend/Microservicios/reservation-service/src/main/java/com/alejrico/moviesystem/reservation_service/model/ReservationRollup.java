@@ -0,0 +1,34 @@
+package com.alejrico.moviesystem.reservation_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "reservation_rollups")
+public class ReservationRollup {
+
+    // Identificador compuesto "ámbito:clave", por ejemplo "movie:123" o "day:2025-06-25"
+    @Id
+    private String id;
+
+    private String scope; // total, showtime, movie, day
+
+    private String key;
+
+    // Reservas confirmadas vigentes
+    private long reservations;
+
+    // Asientos vendidos vigentes
+    private long tickets;
+
+    // Ingresos de las reservas confirmadas vigentes
+    private double revenue;
+
+    // Reservas confirmadas que se cancelaron después
+    private long cancellations;
+}
@@ -0,0 +1,39 @@
+package com.alejrico.moviesystem.reservation_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "showtime_cancellations")
+public class ShowtimeCancellation {
+    
+    public static final String STATUS_RUNNING = "running";
+    public static final String STATUS_COMPLETED = "completed";
+    
+    // Una cancelación por función: el id es el de la función
+    @Id
+    private String showtimeId;
+    
+    private String status; // running, completed
+    
+    // Reservas canceladas hasta ahora
+    private long cancelledReservations;
+    
+    // Avisos generados (uno por reserva)
+    private long notifications;
+    
+    private double refundTotal;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime updatedAt;
+    
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,42 @@
+package com.alejrico.moviesystem.reservation_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "showtime_reschedules")
+public class ShowtimeReschedule {
+    
+    public static final String STATUS_RUNNING = "running";
+    public static final String STATUS_COMPLETED = "completed";
+    
+    // Un cambio de horario en curso por función: el id es el de la función
+    @Id
+    private String showtimeId;
+    
+    // Nueva fecha y hora; si llega otro cambio antes de terminar, el trabajo sigue con el último
+    private String date;
+    
+    private String time;
+    
+    private String status; // running, completed
+    
+    // Reservas movidas al nuevo horario hasta ahora
+    private long updatedReservations;
+    
+    // Avisos generados (uno por reserva y horario)
+    private long notifications;
+    
+    private LocalDateTime startedAt;
+    
+    private LocalDateTime updatedAt;
+    
+    private LocalDateTime completedAt;
+}
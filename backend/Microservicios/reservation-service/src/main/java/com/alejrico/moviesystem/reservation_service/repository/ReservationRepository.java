@@ -1,9 +1,11 @@
 package com.alejrico.moviesystem.reservation_service.repository;
 
 import com.alejrico.moviesystem.reservation_service.model.Reservation;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -15,6 +17,9 @@ public interface ReservationRepository extends MongoRepository<Reservation, Stri
     // Buscar reservas por función
     List<Reservation> findByShowtimeId(String showtimeId);
     
+    // Lote acotado de reservas de una función en los estados indicados
+    List<Reservation> findByShowtimeIdAndStatusIn(String showtimeId, Collection<String> statuses, Pageable pageable);
+    
     // Buscar reservas por estado
     List<Reservation> findByStatus(String status);
     
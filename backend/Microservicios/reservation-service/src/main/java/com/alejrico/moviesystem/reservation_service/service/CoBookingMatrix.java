@@ -0,0 +1,221 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Matriz dispersa de co-reservas película×película y sus vecinos más parecidos.
+ * <p>
+ * La entrada son pares (usuario, película) codificados en un long. Se ordenan en paralelo, los
+ * usuarios se reparten en particiones y cada partición cuenta por separado los pares de
+ * películas de sus usuarios; luego se suman las particiones. La similitud es el coseno sobre
+ * usuarios: coReservas(a, b) / sqrt(usuarios(a) · usuarios(b)).
+ */
+public final class CoBookingMatrix {
+
+    // Usuarios con más películas distintas que esto (cuentas de empresa, pruebas) se ignoran:
+    // sus pares crecen de forma cuadrática y no aportan señal
+    static final int MAX_MOVIES_PER_USER = 500;
+
+    public record Neighbour(int movie, double score, int coBookings) {}
+
+    private CoBookingMatrix() {
+    }
+
+    public static long pair(int user, int movie) {
+        return ((long) user << 32) | (movie & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Calcula los topN vecinos de cada película (índices 0..movieCount-1). Solo se tienen en
+     * cuenta los pares reservados juntos por al menos minCoBookings usuarios. El array de pares
+     * se reordena en el sitio.
+     */
+    public static Neighbour[][] compute(long[] pairs, int length, int movieCount, int topN, int minCoBookings) {
+        Arrays.parallelSort(pairs, 0, length);
+        int[] userStarts = userRuns(pairs, length);
+        int users = userStarts.length - 1;
+
+        int partitions = Math.max(1, Math.min(users, ForkJoinPool.getCommonPoolParallelism() * 4));
+        Counts counts = IntStream.range(0, partitions).parallel()
+                .mapToObj(p -> count(pairs, userStarts, users * p / partitions, users * (p + 1) / partitions, movieCount))
+                .reduce(Counts::merge)
+                .orElseGet(() -> new Counts(movieCount));
+
+        return topNeighbours(counts, movieCount, topN, minCoBookings);
+    }
+
+    // Índices donde empieza cada usuario (tras quitar pares repetidos); el último es el final
+    private static int[] userRuns(long[] pairs, int length) {
+        int distinct = 0;
+        for (int i = 0; i < length; i++) {
+            if (i == 0 || pairs[i] != pairs[i - 1]) {
+                pairs[distinct++] = pairs[i];
+            }
+        }
+        int[] starts = new int[distinct + 1];
+        int users = 0;
+        for (int i = 0; i < distinct; i++) {
+            if (i == 0 || (pairs[i] >>> 32) != (pairs[i - 1] >>> 32)) {
+                starts[users++] = i;
+            }
+        }
+        starts[users] = distinct;
+        return Arrays.copyOf(starts, users + 1);
+    }
+
+    private static Counts count(long[] pairs, int[] userStarts, int fromUser, int toUser, int movieCount) {
+        Counts counts = new Counts(movieCount);
+        for (int user = fromUser; user < toUser; user++) {
+            int start = userStarts[user];
+            int end = userStarts[user + 1];
+            if (end - start > MAX_MOVIES_PER_USER) {
+                continue;
+            }
+            for (int i = start; i < end; i++) {
+                int a = (int) pairs[i];
+                counts.users[a]++;
+                // Películas ordenadas dentro del usuario: cada par se cuenta una vez con a < b
+                for (int j = i + 1; j < end; j++) {
+                    counts.pairs.increment(((long) a << 32) | (int) pairs[j], 1);
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static Neighbour[][] topNeighbours(Counts counts, int movieCount, int topN, int minCoBookings) {
+        // Primera pasada: cuántos candidatos tiene cada película, para reservar listas exactas
+        int[] degree = new int[movieCount];
+        counts.pairs.forEach((key, value) -> {
+            if (value >= minCoBookings) {
+                degree[(int) (key >>> 32)]++;
+                degree[(int) key]++;
+            }
+        });
+
+        int[][] others = new int[movieCount][];
+        int[][] together = new int[movieCount][];
+        for (int movie = 0; movie < movieCount; movie++) {
+            others[movie] = new int[degree[movie]];
+            together[movie] = new int[degree[movie]];
+        }
+
+        int[] filled = new int[movieCount];
+        counts.pairs.forEach((key, value) -> {
+            if (value >= minCoBookings) {
+                int a = (int) (key >>> 32);
+                int b = (int) key;
+                others[a][filled[a]] = b;
+                together[a][filled[a]++] = value;
+                others[b][filled[b]] = a;
+                together[b][filled[b]++] = value;
+            }
+        });
+
+        Neighbour[][] result = new Neighbour[movieCount][];
+        IntStream.range(0, movieCount).parallel().forEach(movie -> {
+            Neighbour[] neighbours = new Neighbour[others[movie].length];
+            for (int i = 0; i < neighbours.length; i++) {
+                int other = others[movie][i];
+                double score = together[movie][i] / Math.sqrt((double) counts.users[movie] * counts.users[other]);
+                neighbours[i] = new Neighbour(other, score, together[movie][i]);
+            }
+            Arrays.sort(neighbours, (x, y) -> x.score() != y.score()
+                    ? Double.compare(y.score(), x.score())
+                    : Integer.compare(x.movie(), y.movie()));
+            result[movie] = Arrays.copyOf(neighbours, Math.min(topN, neighbours.length));
+        });
+        return result;
+    }
+
+    // Recuento parcial de una partición de usuarios
+    private static final class Counts {
+        final int[] users;
+        final LongIntHashMap pairs = new LongIntHashMap();
+
+        Counts(int movieCount) {
+            this.users = new int[movieCount];
+        }
+
+        Counts merge(Counts other) {
+            Counts target = pairs.size() >= other.pairs.size() ? this : other;
+            Counts source = target == this ? other : this;
+            for (int i = 0; i < users.length; i++) {
+                target.users[i] = users[i] + other.users[i];
+            }
+            source.pairs.forEach(target.pairs::increment);
+            return target;
+        }
+    }
+
+    /**
+     * Mapa long → int de direccionamiento abierto: evita crear un objeto por par de películas.
+     * La clave 0 marca hueco libre; nunca aparece porque en cada par a < b, así que b > 0.
+     */
+    static final class LongIntHashMap {
+        private long[] keys = new long[1024];
+        private int[] values = new int[1024];
+        private int size;
+
+        interface Visitor {
+            void visit(long key, int value);
+        }
+
+        void increment(long key, int delta) {
+            int slot = find(keys, key);
+            if (keys[slot] == key) {
+                values[slot] += delta;
+                return;
+            }
+            keys[slot] = key;
+            values[slot] = delta;
+            if (++size * 2 > keys.length) {
+                resize();
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        void forEach(Visitor visitor) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    visitor.visit(keys[i], values[i]);
+                }
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = find(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int find(long[] keys, long key) {
+            int mask = keys.length - 1;
+            int slot = (int) (mix(key) & mask);
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static long mix(long key) {
+            key ^= key >>> 33;
+            key *= 0xff51afd7ed558ccdL;
+            key ^= key >>> 33;
+            return key;
+        }
+    }
+}
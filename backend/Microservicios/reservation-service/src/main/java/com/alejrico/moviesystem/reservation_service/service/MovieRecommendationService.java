@@ -0,0 +1,188 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import com.alejrico.moviesystem.reservation_service.dto.RecommendationJobStatus;
+import com.alejrico.moviesystem.reservation_service.dto.ShowtimeSnapshot;
+import com.alejrico.moviesystem.reservation_service.model.MovieRecommendation;
+import com.alejrico.moviesystem.reservation_service.model.Reservation;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Calcula las recomendaciones "reservadas juntas": recorre en streaming las reservas
+ * confirmadas, obtiene la película de cada una (de la reserva o, en las antiguas, de su
+ * función), construye la matriz de co-reservas por usuario en paralelo (ver
+ * {@link CoBookingMatrix}) y guarda los topN vecinos de cada película en movie_recommendations.
+ * Se ejecuta cada noche y a demanda; movie-service sirve el resultado desde memoria.
+ */
+@Service
+@RequiredArgsConstructor
+public class MovieRecommendationService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ShowtimeSnapshotCache showtimeSnapshotCache;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "movie-recommendations");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile RecommendationJobStatus lastStatus = new RecommendationJobStatus();
+
+    @Value("${reservation.recommendations.top-n:20}")
+    private int topN;
+
+    @Value("${reservation.recommendations.min-co-bookings:2}")
+    private int minCoBookings;
+
+    @Value("${reservation.recommendations.write-batch-size:1000}")
+    private int writeBatchSize;
+
+    @Scheduled(cron = "${reservation.recommendations.cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        start();
+    }
+
+    // Lanza el cálculo en segundo plano; si ya hay uno en curso no se lanza otro
+    public RecommendationJobStatus start() {
+        if (running.compareAndSet(false, true)) {
+            RecommendationJobStatus status = new RecommendationJobStatus();
+            status.setRunning(true);
+            status.setStartedAt(LocalDateTime.now());
+            lastStatus = status;
+            executor.submit(() -> {
+                try {
+                    rebuild(status);
+                } catch (Exception e) {
+                    status.setError(e.getMessage());
+                    System.err.println("Error calculando las recomendaciones: " + e.getMessage());
+                } finally {
+                    status.setRunning(false);
+                    running.set(false);
+                }
+            });
+        }
+        return lastStatus;
+    }
+
+    public RecommendationJobStatus getStatus() {
+        return lastStatus;
+    }
+
+    public Optional<MovieRecommendation> getRecommendations(String movieId) {
+        return Optional.ofNullable(mongoTemplate.findById(movieId, MovieRecommendation.class));
+    }
+
+    public List<MovieRecommendation> getAllRecommendations() {
+        return mongoTemplate.findAll(MovieRecommendation.class);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void rebuild(RecommendationJobStatus status) {
+        long start = System.currentTimeMillis();
+        Map<String, Integer> users = new HashMap<>();
+        Map<String, Integer> movies = new HashMap<>();
+        List<String> movieIds = new ArrayList<>();
+        Map<String, String> movieByShowtime = new HashMap<>();
+        long[] pairs = new long[1 << 16];
+        int length = 0;
+
+        Query query = Query.query(Criteria.where("status").is(Reservation.STATUS_CONFIRMED));
+        query.fields().include("userId", "movieId", "showtimeId");
+        query.cursorBatchSize(5000);
+        try (Stream<Reservation> reservations = mongoTemplate.stream(query, Reservation.class)) {
+            for (Reservation reservation : (Iterable<Reservation>) reservations::iterator) {
+                String movieId = reservation.getMovieId() != null
+                        ? reservation.getMovieId()
+                        : movieByShowtime.computeIfAbsent(reservation.getShowtimeId(), this::resolveMovie);
+                if (movieId.isEmpty() || reservation.getUserId() == null) {
+                    continue;
+                }
+                int user = users.computeIfAbsent(reservation.getUserId(), id -> users.size());
+                int movie = movies.computeIfAbsent(movieId, id -> {
+                    movieIds.add(id);
+                    return movieIds.size() - 1;
+                });
+                if (length == pairs.length) {
+                    pairs = Arrays.copyOf(pairs, length * 2);
+                }
+                pairs[length++] = CoBookingMatrix.pair(user, movie);
+            }
+        }
+
+        CoBookingMatrix.Neighbour[][] neighbours =
+                CoBookingMatrix.compute(pairs, length, movieIds.size(), topN, minCoBookings);
+        LocalDateTime computedAt = LocalDateTime.now();
+        save(movieIds, neighbours, computedAt);
+
+        status.setReservations(length);
+        status.setUsers(users.size());
+        status.setMovies(movieIds.size());
+        status.setCompletedAt(computedAt);
+        status.setDurationMs(System.currentTimeMillis() - start);
+        System.out.println("Recomendaciones calculadas: " + length + " reservas, " + users.size()
+                + " usuarios, " + movieIds.size() + " películas en " + status.getDurationMs() + " ms");
+    }
+
+    // Un documento por película (reemplazo con upsert) y fuera los de películas que ya no aparecen
+    private void save(List<String> movieIds, CoBookingMatrix.Neighbour[][] neighbours, LocalDateTime computedAt) {
+        BulkOperations bulk = null;
+        int pending = 0;
+        for (int movie = 0; movie < movieIds.size(); movie++) {
+            List<MovieRecommendation.Neighbour> list = new ArrayList<>(neighbours[movie].length);
+            for (CoBookingMatrix.Neighbour neighbour : neighbours[movie]) {
+                list.add(new MovieRecommendation.Neighbour(movieIds.get(neighbour.movie()),
+                        neighbour.score(), neighbour.coBookings()));
+            }
+            if (bulk == null) {
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MovieRecommendation.class);
+            }
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(movieIds.get(movie))),
+                    new MovieRecommendation(movieIds.get(movie), list, computedAt),
+                    FindAndReplaceOptions.options().upsert());
+            if (++pending == writeBatchSize) {
+                bulk.execute();
+                bulk = null;
+                pending = 0;
+            }
+        }
+        if (bulk != null) {
+            bulk.execute();
+        }
+        mongoTemplate.remove(Query.query(Criteria.where("computedAt").lt(computedAt)), MovieRecommendation.class);
+    }
+
+    // Reservas antiguas sin movieId: se toma la película de la función ("" si ya no existe)
+    private String resolveMovie(String showtimeId) {
+        try {
+            ShowtimeSnapshot snapshot = showtimeSnapshotCache.get(showtimeId);
+            return snapshot.getMovieId() != null ? snapshot.getMovieId() : "";
+        } catch (RuntimeException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import com.alejrico.moviesystem.reservation_service.model.Reservation;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expira las reservas pendientes cuyo plazo de pago venció y libera sus asientos.
+ * Trabaja por lotes acotados ordenados por plazo, apoyándose en el índice parcial
+ * {paymentDeadline} restringido a status = pending, así que nunca recorre el historial
+ * de reservas confirmadas.
+ * <p>
+ * La expiración marca cada reserva con seatsReleasePendingSince en la misma escritura y la
+ * marca se borra cuando showtime-service confirma la liberación. Si la llamada falla (o el
+ * proceso se detiene entre medias) la marca queda y el barrido vuelve a intentarlo pasado
+ * release-retry-delay-ms; lo mismo con las cancelaciones de ReservationService.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservationExpiryService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ShowtimeClient showtimeClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${reservation.pending.sweep-batch-size:500}")
+    private int batchSize;
+
+    @Value("${reservation.pending.sweep-max-batches:100}")
+    private int maxBatchesPerRun;
+
+    @Value("${reservation.pending.release-retry-delay-ms:60000}")
+    private long releaseRetryDelayMs;
+
+    @Scheduled(fixedDelayString = "${reservation.pending.sweep-interval-ms:10000}")
+    public void sweepExpiredReservations() {
+        int expired = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int count = expireBatch(LocalDateTime.now());
+            expired += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        if (expired > 0) {
+            System.out.println("Reservas pendientes expiradas: " + expired);
+        }
+        int retried = retryPendingReleases(LocalDateTime.now());
+        if (retried > 0) {
+            System.out.println("Liberaciones de asientos reintentadas: " + retried);
+        }
+    }
+
+    int expireBatch(LocalDateTime now) {
+        Query overdue = Query.query(Criteria.where("status").is(Reservation.STATUS_PENDING)
+                        .and("paymentDeadline").lt(now))
+                .with(Sort.by(Sort.Direction.ASC, "paymentDeadline"))
+                .limit(batchSize);
+        overdue.fields().include("_id");
+        List<Object> ids = mongoTemplate.find(overdue, Reservation.class).stream()
+                .map(reservation -> (Object) reservation.getId())
+                .toList();
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        // Una sola escritura para todo el lote; la marca expiredAt identifica las filas de este barrido
+        LocalDateTime sweepMark = LocalDateTime.now();
+        Query stillPending = Query.query(Criteria.where("_id").in(ids).and("status").is(Reservation.STATUS_PENDING));
+        mongoTemplate.updateMulti(stillPending, new Update()
+                .set("status", Reservation.STATUS_EXPIRED)
+                .set("expiredAt", sweepMark)
+                .set("seatsReleasePendingSince", sweepMark), Reservation.class);
+
+        Query expiredNow = Query.query(Criteria.where("_id").in(ids)
+                .and("status").is(Reservation.STATUS_EXPIRED)
+                .and("expiredAt").is(sweepMark));
+        expiredNow.fields().include("showtimeId").include("seatIds");
+        List<Reservation> expired = mongoTemplate.find(expiredNow, Reservation.class);
+        meterRegistry.counter("reservation.holds.expired").increment(expired.size());
+
+        releaseByShowtime(expired, sweepMark);
+        return ids.size();
+    }
+
+    /**
+     * Reintenta las liberaciones marcadas hace más de release-retry-delay-ms. Cada reserva se
+     * reclama moviendo su marca a "ahora" con una escritura condicionada, así que otra instancia
+     * (o una liberación aún en curso) no la procesa a la vez.
+     */
+    int retryPendingReleases(LocalDateTime now) {
+        Query overdue = Query.query(Criteria.where("seatsReleasePendingSince").lt(now.minusNanos(releaseRetryDelayMs * 1_000_000)))
+                .with(Sort.by(Sort.Direction.ASC, "seatsReleasePendingSince"))
+                .limit(batchSize);
+        overdue.fields().include("showtimeId").include("seatIds").include("seatsReleasePendingSince");
+        List<Reservation> claimed = new ArrayList<>();
+        for (Reservation reservation : mongoTemplate.find(overdue, Reservation.class)) {
+            Query unclaimed = Query.query(Criteria.where("_id").is(reservation.getId())
+                    .and("seatsReleasePendingSince").is(reservation.getSeatsReleasePendingSince()));
+            if (mongoTemplate.updateFirst(unclaimed, new Update().set("seatsReleasePendingSince", now), Reservation.class)
+                    .getModifiedCount() > 0) {
+                claimed.add(reservation);
+            }
+        }
+        releaseByShowtime(claimed, now);
+        return claimed.size();
+    }
+
+    // Liberación agrupada: una llamada por función con el total de asientos; si va bien se borra la marca
+    private void releaseByShowtime(List<Reservation> reservations, LocalDateTime mark) {
+        Map<String, List<Reservation>> byShowtime = new HashMap<>();
+        for (Reservation reservation : reservations) {
+            byShowtime.computeIfAbsent(reservation.getShowtimeId(), id -> new ArrayList<>()).add(reservation);
+        }
+        byShowtime.forEach((showtimeId, group) -> {
+            int seats = group.stream()
+                    .mapToInt(reservation -> reservation.getSeatIds() != null ? reservation.getSeatIds().size() : 0)
+                    .sum();
+            try {
+                showtimeClient.releaseSeats(showtimeId, seats);
+            } catch (Exception e) {
+                System.err.println("No se pudieron liberar " + seats + " asientos de la función " + showtimeId
+                        + "; se reintentará: " + e.getMessage());
+                return;
+            }
+            List<Object> ids = group.stream().map(reservation -> (Object) reservation.getId()).toList();
+            mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids).and("seatsReleasePendingSince").is(mark)),
+                    new Update().unset("seatsReleasePendingSince"), Reservation.class);
+        });
+    }
+}
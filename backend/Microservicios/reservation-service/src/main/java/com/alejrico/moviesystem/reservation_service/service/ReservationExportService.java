@@ -0,0 +1,143 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import com.alejrico.moviesystem.reservation_service.model.Reservation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportación de reservas para administración. Recorre un cursor de Mongo con un tamaño de
+ * lote acotado y escribe cada fila directamente en la salida, de modo que la memoria usada
+ * no depende del número de reservas exportadas.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservationExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String CSV_HEADER =
+            "id,userId,showtimeId,movieId,movieTitle,date,time,hallId,seatIds,totalPrice,status,createdAt";
+
+    private final MongoTemplate mongoTemplate;
+    private final ReservationService reservationService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${reservation.export.batch-size:500}")
+    private int batchSize;
+
+    public void export(ExportFilter filter, Format format, boolean gzip, OutputStream out) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<Reservation> reservations = mongoTemplate.stream(buildQuery(filter), Reservation.class)) {
+            Iterator<Reservation> iterator = reservations.iterator();
+            while (iterator.hasNext()) {
+                Reservation reservation = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, reservation);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(reservationService.mapToReservationResponse(reservation)));
+                    writer.write('\n');
+                }
+            }
+        }
+
+        writer.flush();
+        if (gzip) {
+            ((GZIPOutputStream) target).finish();
+        }
+        out.flush();
+    }
+
+    private Query buildQuery(ExportFilter filter) {
+        Query query = new Query();
+        if (filter.from() != null || filter.to() != null) {
+            Criteria createdAt = Criteria.where("createdAt");
+            if (filter.from() != null) {
+                createdAt.gte(filter.from().atStartOfDay());
+            }
+            if (filter.to() != null) {
+                createdAt.lt(filter.to().plusDays(1).atStartOfDay());
+            }
+            query.addCriteria(createdAt);
+        }
+        if (filter.showtimeId() != null && !filter.showtimeId().isBlank()) {
+            query.addCriteria(Criteria.where("showtimeId").is(filter.showtimeId()));
+        }
+        if (filter.status() != null && !filter.status().isBlank()) {
+            query.addCriteria(Criteria.where("status").is(filter.status()));
+        }
+        // Orden por fecha de creación: lo resuelve el índice compuesto que corresponde al filtro
+        // de igualdad (función, estado o ninguno) sin ordenar en memoria
+        query.with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"));
+        query.cursorBatchSize(batchSize);
+        return query;
+    }
+
+    private void writeCsvRow(Writer writer, Reservation reservation) throws IOException {
+        writeCsvValue(writer, reservation.getId());
+        writer.write(',');
+        writeCsvValue(writer, reservation.getUserId());
+        writer.write(',');
+        writeCsvValue(writer, reservation.getShowtimeId());
+        writer.write(',');
+        writeCsvValue(writer, reservation.getMovieId());
+        writer.write(',');
+        writeCsvValue(writer, reservation.getMovieTitle());
+        writer.write(',');
+        writeCsvValue(writer, reservation.getDate());
+        writer.write(',');
+        writeCsvValue(writer, reservation.getTime());
+        writer.write(',');
+        writeCsvValue(writer, reservation.getHallId());
+        writer.write(',');
+        writeCsvValue(writer, reservation.getSeatIds() != null ? String.join(";", reservation.getSeatIds()) : null);
+        writer.write(',');
+        writeCsvValue(writer, reservation.getTotalPrice() != null ? reservation.getTotalPrice().toString() : null);
+        writer.write(',');
+        writeCsvValue(writer, reservation.getStatus());
+        writer.write(',');
+        writeCsvValue(writer, reservation.getCreatedAt() != null ? reservation.getCreatedAt().toString() : null);
+        writer.write('\n');
+    }
+
+    private void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    public record ExportFilter(LocalDate from, LocalDate to, String showtimeId, String status) {
+    }
+}
@@ -2,11 +2,20 @@ package com.alejrico.moviesystem.reservation_service.service;
 
 import com.alejrico.moviesystem.reservation_service.dto.ReservationRequest;
 import com.alejrico.moviesystem.reservation_service.dto.ReservationResponse;
+import com.alejrico.moviesystem.reservation_service.dto.ShowtimeSnapshot;
 import com.alejrico.moviesystem.reservation_service.model.Reservation;
 import com.alejrico.moviesystem.reservation_service.repository.ReservationRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,8 +26,17 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ReservationService {
     
+    private static final double DEFAULT_SEAT_PRICE = 30000.0;
+    
     private final ReservationRepository reservationRepository;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final ShowtimeSnapshotCache showtimeSnapshotCache;
+    private final ReservationStatsService reservationStatsService;
+    private final ShowtimeClient showtimeClient;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${reservation.pending.payment-hold-minutes:15}")
+    private long paymentHoldMinutes;
     
     public List<ReservationResponse> getAllReservations() {
         return reservationRepository.findAll()
@@ -39,35 +57,45 @@ public class ReservationService {
                 .collect(Collectors.toList());
     }
     
+    @Timed(value = "reservation.create", histogram = true)
     public ReservationResponse createReservation(ReservationRequest reservationRequest) {
         try {
-            // Obtener información de la función desde showtime-service
-            String showtimeUrl = "http://localhost:8083/api/showtimes/" + reservationRequest.getShowtimeId();
-            var showtimeResponse = restTemplate.getForObject(showtimeUrl, Object.class);
+            // Datos de la función y la película desde la caché local (sin llamadas síncronas si está caliente)
+            ShowtimeSnapshot showtime = showtimeSnapshotCache.get(reservationRequest.getShowtimeId());
             
             // Calcular precio total (precio por asiento * número de asientos)
-            double pricePerSeat = 30000.0; // Precio fijo por simplicity
+            double pricePerSeat = showtime.getPrice() != null && showtime.getPrice() > 0
+                    ? showtime.getPrice()
+                    : DEFAULT_SEAT_PRICE;
             double totalPrice = pricePerSeat * reservationRequest.getSeatIds().size();
             
-            // Crear la reserva
+            // Crear la reserva pendiente de pago; los asientos quedan retenidos hasta el plazo de pago
+            LocalDateTime now = LocalDateTime.now();
             Reservation reservation = new Reservation();
             reservation.setUserId(reservationRequest.getUserId());
             reservation.setShowtimeId(reservationRequest.getShowtimeId());
-            reservation.setMovieTitle("Película"); // Por ahora un valor por defecto
-            reservation.setDate("2025-06-25"); // Por ahora fecha fija
-            reservation.setTime("20:00"); // Por ahora hora fija
+            reservation.setMovieId(showtime.getMovieId());
+            reservation.setMovieTitle(showtime.getMovieTitle());
+            reservation.setDate(showtime.getDate());
+            reservation.setTime(showtime.getTime());
+            reservation.setHallId(showtime.getHallId());
             reservation.setSeatIds(reservationRequest.getSeatIds());
             reservation.setTotalPrice(totalPrice);
-            reservation.setStatus("confirmed");
-            reservation.setCreatedAt(LocalDateTime.now());
+            reservation.setStatus(Reservation.STATUS_PENDING);
+            reservation.setCreatedAt(now);
+            reservation.setPaymentDeadline(now.plusMinutes(paymentHoldMinutes));
             
             // Intentar reservar asientos en showtime-service
             try {
-                String reserveUrl = "http://localhost:8083/api/showtimes/" + reservationRequest.getShowtimeId() + "/reserve-seats?seats=" + reservationRequest.getSeatIds().size();
-                restTemplate.put(reserveUrl, null);
+                showtimeClient.reserveSeats(reservationRequest.getShowtimeId(), reservationRequest.getSeatIds().size());
+            } catch (HttpClientErrorException.BadRequest e) {
+                // Sin asientos suficientes (o función cancelada): otra reserva se los llevó antes
+                meterRegistry.counter("reservation.seats.conflicts").increment();
+                throw new RuntimeException("No se pudieron reservar los asientos");
             } catch (Exception e) {
                 throw new RuntimeException("No se pudieron reservar los asientos");
             }
+            meterRegistry.counter("reservation.seats.claimed").increment(reservationRequest.getSeatIds().size());
             
             Reservation savedReservation = reservationRepository.save(reservation);
             return mapToReservationResponse(savedReservation);
@@ -77,42 +105,97 @@ public class ReservationService {
         }
     }
     
+    // Pago recibido: solo se confirma si la reserva sigue pendiente y dentro del plazo
+    public Optional<ReservationResponse> confirmReservation(String id) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("_id").is(id)
+                .and("status").is(Reservation.STATUS_PENDING)
+                .and("paymentDeadline").gt(now));
+        Update update = new Update()
+                .set("status", Reservation.STATUS_CONFIRMED)
+                .set("confirmedAt", now);
+        Reservation confirmed = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Reservation.class);
+        if (confirmed == null) {
+            return Optional.empty();
+        }
+        
+        reservationStatsService.recordConfirmed(confirmed);
+        return Optional.of(mapToReservationResponse(confirmed));
+    }
+    
     public boolean cancelReservation(String id) {
+        // Transición atómica pending/confirmed -> cancelled; se recibe el estado anterior
+        Query query = Query.query(Criteria.where("_id").is(id)
+                .and("status").in(Reservation.STATUS_PENDING, Reservation.STATUS_CONFIRMED));
+        // La marca de liberación pendiente va en la misma escritura: si showtime-service no responde, el barrido reintenta
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", Reservation.STATUS_CANCELLED)
+                .set("cancelledAt", now)
+                .set("seatsReleasePendingSince", now);
+        Reservation previous = mongoTemplate.findAndModify(query, update, Reservation.class);
+        if (previous == null) {
+            return false;
+        }
+        
+        if (Reservation.STATUS_CONFIRMED.equals(previous.getStatus())) {
+            reservationStatsService.recordCancelled(previous);
+        }
+        if (releaseSeats(previous)) {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id).and("seatsReleasePendingSince").is(now)),
+                    new Update().unset("seatsReleasePendingSince"), Reservation.class);
+        }
+        return true;
+    }
+    
+    public boolean deleteReservation(String id) {
         Optional<Reservation> reservationOpt = reservationRepository.findById(id);
         if (reservationOpt.isPresent()) {
             Reservation reservation = reservationOpt.get();
-            if ("confirmed".equals(reservation.getStatus())) {
-                reservation.setStatus("cancelled");
-                reservationRepository.save(reservation);
-                
-                // Liberar asientos en showtime-service (implementar si es necesario)
-                
-                return true;
+            // Sin la fila no quedaría nada que reintentar: si los asientos no se pueden devolver, no se borra
+            boolean holdsSeats = Reservation.STATUS_PENDING.equals(reservation.getStatus())
+                    || Reservation.STATUS_CONFIRMED.equals(reservation.getStatus())
+                    || reservation.getSeatsReleasePendingSince() != null;
+            if (holdsSeats && !releaseSeats(reservation)) {
+                throw new IllegalStateException("No se pudieron liberar los asientos de la reserva " + id);
             }
+            reservationRepository.deleteById(id);
+            if (Reservation.STATUS_CONFIRMED.equals(reservation.getStatus())) {
+                reservationStatsService.recordRemoved(reservation);
+            }
+            return true;
         }
         return false;
     }
     
-    public boolean deleteReservation(String id) {
-        if (reservationRepository.existsById(id)) {
-            reservationRepository.deleteById(id);
+    private boolean releaseSeats(Reservation reservation) {
+        try {
+            showtimeClient.releaseSeats(reservation.getShowtimeId(),
+                    reservation.getSeatIds() != null ? reservation.getSeatIds().size() : 0);
             return true;
+        } catch (Exception e) {
+            System.err.println("No se pudieron liberar los asientos de la reserva " + reservation.getId() + ": " + e.getMessage());
+            return false;
         }
-        return false;
     }
     
-    private ReservationResponse mapToReservationResponse(Reservation reservation) {
+    ReservationResponse mapToReservationResponse(Reservation reservation) {
         ReservationResponse response = new ReservationResponse();
         response.setId(reservation.getId());
         response.setUserId(reservation.getUserId());
         response.setShowtimeId(reservation.getShowtimeId());
+        response.setMovieId(reservation.getMovieId());
         response.setMovieTitle(reservation.getMovieTitle());
         response.setDate(reservation.getDate());
         response.setTime(reservation.getTime());
+        response.setHallId(reservation.getHallId());
         response.setSeatIds(reservation.getSeatIds());
         response.setTotalPrice(reservation.getTotalPrice());
         response.setStatus(reservation.getStatus());
         response.setCreatedAt(reservation.getCreatedAt());
+        response.setPaymentDeadline(reservation.getPaymentDeadline());
+        response.setConfirmedAt(reservation.getConfirmedAt());
         return response;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,312 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import com.alejrico.moviesystem.reservation_service.model.Reservation;
+import com.alejrico.moviesystem.reservation_service.model.ReservationRollup;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.BooleanOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.GroupOperation;
+import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Contadores agregados de ventas (reservas, asientos, ingresos y cancelaciones) por función,
+ * película y día. Se actualizan de forma incremental cuando una reserva se confirma o se
+ * cancela, se guardan en la colección reservation_rollups y se sirven desde memoria, así que
+ * las consultas del panel de administración no recorren las reservas.
+ * <p>
+ * Los incrementos no se serializan entre sí: cada uno es un $inc en Mongo y un merge en el
+ * ConcurrentHashMap. Solo esperan un instante al principio y al final de un recálculo.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservationStatsService {
+
+    public static final String SCOPE_TOTAL = "total";
+    public static final String SCOPE_SHOWTIME = "showtime";
+    public static final String SCOPE_MOVIE = "movie";
+    public static final String SCOPE_DAY = "day";
+
+    private static final String REBUILD_SUFFIX = "_rebuild";
+
+    private final MongoTemplate mongoTemplate;
+
+    // Se sustituye entero al recargar o recalcular; los incrementos hacen merge sobre el vigente
+    private volatile Map<String, ReservationRollup> rollups = new ConcurrentHashMap<>();
+
+    // Lectura: cada incremento (compartida, no se bloquean entre sí). Escritura: el inicio y el
+    // cambio de colección de un recálculo, para que ningún incremento quede a medias entre ambas
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    // Incrementos llegados durante un recálculo (null si no hay ninguno en curso)
+    private Queue<ReservationRollup> rebuildBuffer;
+
+    public void recordConfirmed(Reservation reservation) {
+        applyDeltas(List.of(reservation), 1, 0);
+    }
+
+    public void recordCancelled(Reservation reservation) {
+        recordCancelled(List.of(reservation));
+    }
+
+    // Cancelación en lote: un único bulk write para todas las reservas
+    public void recordCancelled(Collection<Reservation> reservations) {
+        applyDeltas(reservations, -1, 1);
+    }
+
+    // Una reserva confirmada eliminada deja de contar, pero no es una cancelación
+    public void recordRemoved(Reservation reservation) {
+        applyDeltas(List.of(reservation), -1, 0);
+    }
+
+    public ReservationRollup getSummary() {
+        return get(SCOPE_TOTAL, "all");
+    }
+
+    public ReservationRollup getByShowtime(String showtimeId) {
+        return get(SCOPE_SHOWTIME, showtimeId);
+    }
+
+    public ReservationRollup getByMovie(String movieId) {
+        return get(SCOPE_MOVIE, movieId);
+    }
+
+    public ReservationRollup getByDay(LocalDate day) {
+        return get(SCOPE_DAY, day.toString());
+    }
+
+    public List<ReservationRollup> getByDayRange(LocalDate from, LocalDate to) {
+        List<ReservationRollup> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            days.add(getByDay(day));
+        }
+        return days;
+    }
+
+    public List<ReservationRollup> getAll(String scope) {
+        return rollups.values().stream()
+                .filter(rollup -> scope.equals(rollup.getScope()))
+                .toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${reservation.stats.reload-interval-ms:300000}", initialDelayString = "${reservation.stats.reload-interval-ms:300000}")
+    public synchronized void reload() {
+        // Sincroniza la copia en memoria con la colección (incluye cambios hechos por otras instancias)
+        rollups = load(mongoTemplate.findAll(ReservationRollup.class));
+    }
+
+    /**
+     * Recalcula todos los contadores a partir de las reservas con un pipeline de agregación.
+     * El resultado se escribe en una colección temporal que después se renombra sobre
+     * reservation_rollups, así los lectores nunca ven la colección vacía o a medias.
+     * <p>
+     * La agregación no bloquea las confirmaciones: mientras dura, los incrementos se siguen
+     * aplicando a la copia en memoria vigente y se guardan aparte; al cambiar de colección se
+     * aplican sobre la nueva y la copia en memoria se sustituye por la recalculada con ellos.
+     * Un cambio que la agregación ya haya leído puede contarse dos veces hasta el siguiente
+     * recálculo (ventana de milisegundos entre el cambio de estado y su incremento).
+     */
+    public synchronized int rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            rebuildBuffer = new ConcurrentLinkedQueue<>();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+
+        List<ReservationRollup> rebuilt = new ArrayList<>();
+        String liveCollection = mongoTemplate.getCollectionName(ReservationRollup.class);
+        String rebuildCollection = liveCollection + REBUILD_SUFFIX;
+        try {
+            rebuilt.addAll(aggregate(SCOPE_TOTAL, null));
+            rebuilt.addAll(aggregate(SCOPE_SHOWTIME, "showtimeId"));
+            rebuilt.addAll(aggregate(SCOPE_MOVIE, "movieId"));
+            rebuilt.addAll(aggregate(SCOPE_DAY, "day"));
+
+            mongoTemplate.dropCollection(rebuildCollection);
+            mongoTemplate.createCollection(rebuildCollection);
+            if (!rebuilt.isEmpty()) {
+                mongoTemplate.insert(rebuilt, rebuildCollection);
+            }
+        } catch (RuntimeException e) {
+            // Sin recálculo: los incrementos guardados se aplican a la colección de siempre
+            swap(null, null, List.of());
+            throw e;
+        }
+        swap(rebuildCollection, liveCollection, rebuilt);
+        return rebuilt.size();
+    }
+
+    // Cambia de colección (si se recalculó) y de copia en memoria, con los incrementos llegados entretanto
+    private void swap(String rebuildCollection, String liveCollection, List<ReservationRollup> rebuilt) {
+        rebuildLock.writeLock().lock();
+        try {
+            List<ReservationRollup> buffered = new ArrayList<>(rebuildBuffer);
+            rebuildBuffer = null;
+            if (rebuildCollection != null) {
+                mongoTemplate.getCollection(rebuildCollection).renameCollection(
+                        new MongoNamespace(mongoTemplate.getDb().getName(), liveCollection),
+                        new RenameCollectionOptions().dropTarget(true));
+            }
+            write(buffered);
+            if (rebuildCollection != null) {
+                Map<String, ReservationRollup> fresh = load(rebuilt);
+                buffered.forEach(delta -> merge(fresh, delta));
+                rollups = fresh;
+            }
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private static Map<String, ReservationRollup> load(List<ReservationRollup> source) {
+        Map<String, ReservationRollup> loaded = new ConcurrentHashMap<>();
+        for (ReservationRollup rollup : source) {
+            loaded.put(rollup.getId(), rollup);
+        }
+        return loaded;
+    }
+
+    private List<ReservationRollup> aggregate(String scope, String groupField) {
+        Criteria confirmed = Criteria.where("status").is(Reservation.STATUS_CONFIRMED);
+
+        ProjectionOperation project = Aggregation.project("showtimeId", "movieId", "status", "totalPrice", "confirmedAt")
+                .and(DateOperators.dateOf("createdAt")
+                        .withTimezone(DateOperators.Timezone.valueOf(ZoneId.systemDefault().getId()))
+                        .toString("%Y-%m-%d")).as("day")
+                .and(ArrayOperators.Size.lengthOfArray(ConditionalOperators.ifNull("seatIds").then(List.of()))).as("seats");
+
+        // Solo cuentan como cancelaciones las reservas que llegaron a confirmarse
+        AggregationExpression cancelledAfterConfirmation = BooleanOperators.And.and(
+                ComparisonOperators.valueOf("status").equalToValue(Reservation.STATUS_CANCELLED),
+                ConditionalOperators.ifNull("confirmedAt").then(false));
+        
+        GroupOperation group = (groupField == null ? Aggregation.group() : Aggregation.group(groupField))
+                .sum(ConditionalOperators.when(confirmed).then(1).otherwise(0)).as("reservations")
+                .sum(ConditionalOperators.when(confirmed).thenValueOf("seats").otherwise(0)).as("tickets")
+                .sum(ConditionalOperators.when(confirmed).thenValueOf("totalPrice").otherwise(0)).as("revenue")
+                .sum(ConditionalOperators.when(cancelledAfterConfirmation).then(1).otherwise(0)).as("cancellations");
+
+        List<ReservationRollup> result = new ArrayList<>();
+        for (Document row : mongoTemplate.aggregate(Aggregation.newAggregation(project, group), Reservation.class, Document.class)) {
+            String key = groupField == null ? "all" : row.get("_id", String.class);
+            if (key == null) {
+                continue; // reservas antiguas sin película asociada
+            }
+            result.add(new ReservationRollup(scope + ":" + key, scope, key,
+                    ((Number) row.get("reservations")).longValue(),
+                    ((Number) row.get("tickets")).longValue(),
+                    ((Number) row.get("revenue")).doubleValue(),
+                    ((Number) row.get("cancellations")).longValue()));
+        }
+        return result;
+    }
+
+    private void applyDeltas(Collection<Reservation> reservations, int sign, int cancellations) {
+        Map<String, ReservationRollup> deltas = new LinkedHashMap<>();
+        for (Reservation reservation : reservations) {
+            long tickets = reservation.getSeatIds() != null ? reservation.getSeatIds().size() : 0;
+            double revenue = reservation.getTotalPrice() != null ? reservation.getTotalPrice() : 0.0;
+            for (String[] scopeAndKey : keysOf(reservation)) {
+                ReservationRollup delta = deltas.computeIfAbsent(scopeAndKey[0] + ":" + scopeAndKey[1],
+                        id -> new ReservationRollup(id, scopeAndKey[0], scopeAndKey[1], 0, 0, 0.0, 0));
+                delta.setReservations(delta.getReservations() + sign);
+                delta.setTickets(delta.getTickets() + sign * tickets);
+                delta.setRevenue(delta.getRevenue() + sign * revenue);
+                delta.setCancellations(delta.getCancellations() + cancellations);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        rebuildLock.readLock().lock();
+        try {
+            Queue<ReservationRollup> buffer = rebuildBuffer;
+            if (buffer != null) {
+                buffer.addAll(deltas.values());
+            } else {
+                write(deltas.values());
+            }
+            Map<String, ReservationRollup> current = rollups;
+            deltas.values().forEach(delta -> merge(current, delta));
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    // Un único bulk write con un $inc por contador
+    private void write(Collection<ReservationRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReservationRollup.class);
+        for (ReservationRollup delta : deltas) {
+            Update update = new Update()
+                    .inc("reservations", delta.getReservations())
+                    .inc("tickets", delta.getTickets())
+                    .inc("revenue", delta.getRevenue())
+                    .inc("cancellations", delta.getCancellations())
+                    .setOnInsert("scope", delta.getScope())
+                    .setOnInsert("key", delta.getKey());
+            bulk.upsert(Query.query(Criteria.where("_id").is(delta.getId())), update);
+        }
+        bulk.execute();
+    }
+
+    private static void merge(Map<String, ReservationRollup> target, ReservationRollup delta) {
+        target.merge(delta.getId(), delta, (current, change) -> new ReservationRollup(
+                current.getId(), current.getScope(), current.getKey(),
+                current.getReservations() + change.getReservations(),
+                current.getTickets() + change.getTickets(),
+                current.getRevenue() + change.getRevenue(),
+                current.getCancellations() + change.getCancellations()));
+    }
+
+    private List<String[]> keysOf(Reservation reservation) {
+        List<String[]> keys = new ArrayList<>(4);
+        keys.add(new String[]{SCOPE_TOTAL, "all"});
+        keys.add(new String[]{SCOPE_SHOWTIME, reservation.getShowtimeId()});
+        if (reservation.getMovieId() != null) {
+            keys.add(new String[]{SCOPE_MOVIE, reservation.getMovieId()});
+        }
+        if (reservation.getCreatedAt() != null) {
+            keys.add(new String[]{SCOPE_DAY, reservation.getCreatedAt().toLocalDate().toString()});
+        }
+        return keys;
+    }
+
+    private ReservationRollup get(String scope, String key) {
+        ReservationRollup rollup = rollups.get(scope + ":" + key);
+        return rollup != null ? rollup : new ReservationRollup(scope + ":" + key, scope, key, 0, 0, 0.0, 0);
+    }
+}
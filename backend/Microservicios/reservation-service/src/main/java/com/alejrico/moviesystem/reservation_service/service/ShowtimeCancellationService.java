@@ -0,0 +1,312 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import com.alejrico.moviesystem.reservation_service.model.Notification;
+import com.alejrico.moviesystem.reservation_service.model.Reservation;
+import com.alejrico.moviesystem.reservation_service.model.ShowtimeCancellation;
+import com.alejrico.moviesystem.reservation_service.model.ShowtimeReschedule;
+import com.alejrico.moviesystem.reservation_service.repository.ReservationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Cancela todas las reservas de una función cancelada o eliminada. Recorre las reservas
+ * activas por lotes acotados y, por cada lote, genera los avisos a los usuarios, cambia el
+ * estado con una sola escritura y ajusta los contadores. El progreso queda en
+ * showtime_cancellations y los trabajos sin terminar se reanudan al arrancar el servicio.
+ * <p>
+ * Los cambios de fecha u hora de una función siguen el mismo camino: por lotes se avisa a cada
+ * usuario y se copia el nuevo horario a sus reservas, con el progreso en showtime_reschedules.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShowtimeCancellationService {
+
+    private static final List<String> ACTIVE_STATUSES = List.of(Reservation.STATUS_PENDING, Reservation.STATUS_CONFIRMED);
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationStatsService reservationStatsService;
+    private final MongoTemplate mongoTemplate;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "showtime-cancellation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+
+    @Value("${reservation.showtime-cancellation.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Registra (o reabre) la cancelación de la función y la procesa en segundo plano.
+     * Es idempotente: repetir la solicitud solo recoge reservas que aún sigan activas.
+     */
+    public ShowtimeCancellation start(String showtimeId) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("status", ShowtimeCancellation.STATUS_RUNNING)
+                .set("updatedAt", now)
+                .unset("completedAt")
+                .setOnInsert("startedAt", now)
+                .setOnInsert("cancelledReservations", 0L)
+                .setOnInsert("notifications", 0L)
+                .setOnInsert("refundTotal", 0.0);
+        ShowtimeCancellation job = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(showtimeId)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), ShowtimeCancellation.class);
+        submit(showtimeId);
+        return job;
+    }
+
+    public Optional<ShowtimeCancellation> getProgress(String showtimeId) {
+        return Optional.ofNullable(mongoTemplate.findById(showtimeId, ShowtimeCancellation.class));
+    }
+
+    /**
+     * Registra el nuevo horario de la función y lo propaga en segundo plano a sus reservas
+     * activas. Es idempotente: repetir la solicitud solo recoge reservas con otro horario.
+     */
+    public ShowtimeReschedule reschedule(String showtimeId, String date, String time) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .set("date", date)
+                .set("time", time)
+                .set("status", ShowtimeReschedule.STATUS_RUNNING)
+                .set("updatedAt", now)
+                .unset("completedAt")
+                .setOnInsert("startedAt", now)
+                .setOnInsert("updatedReservations", 0L)
+                .setOnInsert("notifications", 0L);
+        ShowtimeReschedule job = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(showtimeId)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), ShowtimeReschedule.class);
+        submitReschedule(showtimeId);
+        return job;
+    }
+
+    public Optional<ShowtimeReschedule> getRescheduleProgress(String showtimeId) {
+        return Optional.ofNullable(mongoTemplate.findById(showtimeId, ShowtimeReschedule.class));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePending() {
+        Query running = Query.query(Criteria.where("status").is(ShowtimeCancellation.STATUS_RUNNING));
+        for (ShowtimeCancellation job : mongoTemplate.find(running, ShowtimeCancellation.class)) {
+            System.out.println("Reanudando la cancelación de la función " + job.getShowtimeId());
+            submit(job.getShowtimeId());
+        }
+        Query runningReschedules = Query.query(Criteria.where("status").is(ShowtimeReschedule.STATUS_RUNNING));
+        for (ShowtimeReschedule job : mongoTemplate.find(runningReschedules, ShowtimeReschedule.class)) {
+            System.out.println("Reanudando el cambio de horario de la función " + job.getShowtimeId());
+            submitReschedule(job.getShowtimeId());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submit(String showtimeId) {
+        if (!inProgress.add(showtimeId)) {
+            return; // ya hay un trabajo en curso para esta función
+        }
+        executor.submit(() -> {
+            try {
+                run(showtimeId);
+            } catch (Exception e) {
+                // El trabajo queda en "running" y se reanuda en el próximo arranque o solicitud
+                System.err.println("Error cancelando las reservas de la función " + showtimeId + ": " + e.getMessage());
+            } finally {
+                inProgress.remove(showtimeId);
+            }
+        });
+    }
+
+    private void submitReschedule(String showtimeId) {
+        if (!inProgress.add("reschedule:" + showtimeId)) {
+            return; // el trabajo en curso relee el horario en cada lote y recoge el nuevo
+        }
+        executor.submit(() -> {
+            try {
+                runReschedule(showtimeId);
+            } catch (Exception e) {
+                // El trabajo queda en "running" y se reanuda en el próximo arranque o solicitud
+                System.err.println("Error propagando el cambio de horario de la función " + showtimeId + ": " + e.getMessage());
+            } finally {
+                inProgress.remove("reschedule:" + showtimeId);
+            }
+        });
+    }
+
+    void run(String showtimeId) {
+        PageRequest firstBatch = PageRequest.of(0, batchSize, Sort.by(Sort.Direction.ASC, "id"));
+        List<Reservation> batch;
+        // Las reservas procesadas dejan de estar activas, así que siempre se pide la primera página
+        while (!(batch = reservationRepository.findByShowtimeIdAndStatusIn(showtimeId, ACTIVE_STATUSES, firstBatch)).isEmpty()) {
+            cancelBatch(showtimeId, batch);
+        }
+        // Descuentos que quedaron sin aplicar si el proceso se detuvo tras el último lote
+        applyPendingRollups(showtimeId);
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(showtimeId)), new Update()
+                .set("status", ShowtimeCancellation.STATUS_COMPLETED)
+                .set("updatedAt", LocalDateTime.now())
+                .set("completedAt", LocalDateTime.now()), ShowtimeCancellation.class);
+    }
+
+    private void cancelBatch(String showtimeId, List<Reservation> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object> pendingIds = new ArrayList<>();
+        List<Object> confirmedIds = new ArrayList<>();
+
+        // Los avisos se escriben antes del cambio de estado: tras un fallo se regeneran (upsert) y no se pierden
+        BulkOperations notifications = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        for (Reservation reservation : batch) {
+            boolean paid = Reservation.STATUS_CONFIRMED.equals(reservation.getStatus());
+            (paid ? confirmedIds : pendingIds).add(reservation.getId());
+            double refund = paid && reservation.getTotalPrice() != null ? reservation.getTotalPrice() : 0.0;
+            Update notification = new Update()
+                    .setOnInsert("userId", reservation.getUserId())
+                    .setOnInsert("reservationId", reservation.getId())
+                    .setOnInsert("showtimeId", showtimeId)
+                    .setOnInsert("type", Notification.TYPE_SHOWTIME_CANCELLED)
+                    .setOnInsert("message", "La función de " + reservation.getMovieTitle() + " del " + reservation.getDate()
+                            + " a las " + reservation.getTime() + " fue cancelada"
+                            + (paid ? "; se reembolsarán " + refund : ""))
+                    .setOnInsert("refundAmount", refund)
+                    .setOnInsert("createdAt", now);
+            notifications.upsert(Query.query(Criteria.where("_id")
+                    .is(Notification.TYPE_SHOWTIME_CANCELLED + ":" + reservation.getId())), notification);
+        }
+        // Solo cuentan los avisos creados ahora: al reanudar un lote los ya existentes no se insertan de nuevo
+        int createdNotifications = notifications.execute().getUpserts().size();
+
+        // Una escritura por estado de origen; las reservas que cambiaron entretanto vuelven en el siguiente lote.
+        // Las confirmadas quedan marcadas con rollupPending en la misma escritura que cambia su estado
+        Update cancel = new Update()
+                .set("status", Reservation.STATUS_CANCELLED)
+                .set("cancelledAt", now);
+        Update cancelConfirmed = new Update()
+                .set("status", Reservation.STATUS_CANCELLED)
+                .set("cancelledAt", now)
+                .set("rollupPending", true);
+        long cancelledPending = pendingIds.isEmpty() ? 0 : mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(pendingIds)
+                .and("status").is(Reservation.STATUS_PENDING)), cancel, Reservation.class).getModifiedCount();
+        long cancelledConfirmed = confirmedIds.isEmpty() ? 0 : mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(confirmedIds)
+                .and("status").is(Reservation.STATUS_CONFIRMED)), cancelConfirmed, Reservation.class).getModifiedCount();
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(showtimeId)), new Update()
+                .inc("cancelledReservations", cancelledPending + cancelledConfirmed)
+                .inc("notifications", createdNotifications)
+                .set("updatedAt", LocalDateTime.now()), ShowtimeCancellation.class);
+        applyPendingRollups(showtimeId);
+    }
+
+    void runReschedule(String showtimeId) {
+        while (true) {
+            ShowtimeReschedule job = mongoTemplate.findById(showtimeId, ShowtimeReschedule.class);
+            if (job == null) {
+                return;
+            }
+            // Reservas activas con otro horario; las actualizadas dejan de cumplirlo
+            Query stale = Query.query(Criteria.where("showtimeId").is(showtimeId).and("status").in(ACTIVE_STATUSES)
+                            .norOperator(Criteria.where("date").is(job.getDate()).and("time").is(job.getTime())))
+                    .with(Sort.by(Sort.Direction.ASC, "id"))
+                    .limit(batchSize);
+            List<Reservation> batch = mongoTemplate.find(stale, Reservation.class);
+            if (!batch.isEmpty()) {
+                rescheduleBatch(job, batch);
+                continue;
+            }
+            // Solo se da por terminado si entretanto no llegó otro horario
+            long completed = mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(showtimeId)
+                    .and("date").is(job.getDate()).and("time").is(job.getTime())), new Update()
+                    .set("status", ShowtimeReschedule.STATUS_COMPLETED)
+                    .set("updatedAt", LocalDateTime.now())
+                    .set("completedAt", LocalDateTime.now()), ShowtimeReschedule.class).getModifiedCount();
+            if (completed > 0) {
+                return;
+            }
+        }
+    }
+
+    private void rescheduleBatch(ShowtimeReschedule job, List<Reservation> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        String slot = job.getDate() + "T" + job.getTime();
+
+        // Como en la cancelación, los avisos van antes del cambio y se regeneran (upsert) tras un fallo
+        BulkOperations notifications = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class);
+        for (Reservation reservation : batch) {
+            Update notification = new Update()
+                    .setOnInsert("userId", reservation.getUserId())
+                    .setOnInsert("reservationId", reservation.getId())
+                    .setOnInsert("showtimeId", job.getShowtimeId())
+                    .setOnInsert("type", Notification.TYPE_SHOWTIME_RESCHEDULED)
+                    .setOnInsert("message", "La función de " + reservation.getMovieTitle() + " del " + reservation.getDate()
+                            + " a las " + reservation.getTime() + " pasa al " + job.getDate() + " a las " + job.getTime())
+                    .setOnInsert("refundAmount", 0.0)
+                    .setOnInsert("createdAt", now);
+            notifications.upsert(Query.query(Criteria.where("_id")
+                    .is(Notification.TYPE_SHOWTIME_RESCHEDULED + ":" + reservation.getId() + ":" + slot)), notification);
+        }
+        int createdNotifications = notifications.execute().getUpserts().size();
+
+        List<Object> ids = batch.stream().map(reservation -> (Object) reservation.getId()).toList();
+        long updated = mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids).and("status").in(ACTIVE_STATUSES)),
+                new Update().set("date", job.getDate()).set("time", job.getTime()), Reservation.class).getModifiedCount();
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(job.getShowtimeId())), new Update()
+                .inc("updatedReservations", updated)
+                .inc("notifications", createdNotifications)
+                .set("updatedAt", LocalDateTime.now()), ShowtimeReschedule.class);
+    }
+
+    /**
+     * Descuenta de los contadores las reservas marcadas con rollupPending y quita la marca.
+     * Los descuentos salen de las filas marcadas, no del lote en memoria, así que si el proceso
+     * se detiene después del cambio de estado se aplican al reanudar. Solo queda sin cubrir el
+     * instante entre el descuento y el borrado de la marca; el recálculo completo lo corrige.
+     */
+    private void applyPendingRollups(String showtimeId) {
+        Query marked = Query.query(Criteria.where("showtimeId").is(showtimeId)
+                .and("status").is(Reservation.STATUS_CANCELLED)
+                .and("rollupPending").is(true));
+        List<Reservation> refunded = mongoTemplate.find(marked, Reservation.class);
+        if (refunded.isEmpty()) {
+            return;
+        }
+        reservationStatsService.recordCancelled(refunded);
+
+        List<Object> ids = refunded.stream().map(reservation -> (Object) reservation.getId()).toList();
+        mongoTemplate.updateMulti(Query.query(Criteria.where("_id").in(ids).and("rollupPending").is(true)),
+                new Update().unset("rollupPending"), Reservation.class);
+        double refundTotal = refunded.stream()
+                .mapToDouble(reservation -> reservation.getTotalPrice() != null ? reservation.getTotalPrice() : 0.0)
+                .sum();
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(showtimeId)), new Update()
+                .inc("refundTotal", refundTotal)
+                .set("updatedAt", LocalDateTime.now()), ShowtimeCancellation.class);
+    }
+}
@@ -0,0 +1,33 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Llamadas a showtime-service para ocupar y liberar asientos de una función.
+ */
+@Component
+public class ShowtimeClient {
+
+    private final RestTemplate restTemplate;
+    private final String showtimeServiceUrl;
+
+    public ShowtimeClient(RestTemplate restTemplate,
+                          @Value("${services.showtime-service.url:http://localhost:8083}") String showtimeServiceUrl) {
+        this.restTemplate = restTemplate;
+        this.showtimeServiceUrl = showtimeServiceUrl;
+    }
+
+    public void reserveSeats(String showtimeId, int seats) {
+        restTemplate.put(showtimeServiceUrl + "/api/showtimes/" + showtimeId + "/reserve-seats?seats=" + seats, null);
+    }
+
+    // Libera varios asientos de la misma función en una sola llamada
+    public void releaseSeats(String showtimeId, int seats) {
+        if (seats <= 0) {
+            return;
+        }
+        restTemplate.put(showtimeServiceUrl + "/api/showtimes/" + showtimeId + "/release-seats?seats=" + seats, null);
+    }
+}
@@ -0,0 +1,198 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import com.alejrico.moviesystem.reservation_service.dto.ShowtimeSnapshot;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache local (read-through) de los datos de funciones y películas que necesita una reserva.
+ * Está acotada por número de entradas (LRU), cada entrada caduca según el TTL configurado y
+ * una tarea periódica refresca en segundo plano las entradas usadas recientemente, de modo que
+ * la ruta de reserva normalmente no llama a showtime-service ni a movie-service.
+ * Si un servicio de metadatos falla, se sigue sirviendo la última copia conocida.
+ */
+@Component
+public class ShowtimeSnapshotCache {
+
+    private final RestTemplate restTemplate;
+    private final String showtimeServiceUrl;
+    private final String movieServiceUrl;
+    private final long ttlMillis;
+
+    private final Map<String, CachedEntry<ShowtimeSnapshot>> showtimes;
+    private final Map<String, CachedEntry<String>> movieTitles;
+
+    public ShowtimeSnapshotCache(RestTemplate restTemplate,
+                                 @Value("${services.showtime-service.url:http://localhost:8083}") String showtimeServiceUrl,
+                                 @Value("${services.movie-service.url:http://localhost:8082}") String movieServiceUrl,
+                                 @Value("${reservation.snapshot-cache.max-entries:10000}") int maxEntries,
+                                 @Value("${reservation.snapshot-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.restTemplate = restTemplate;
+        this.showtimeServiceUrl = showtimeServiceUrl;
+        this.movieServiceUrl = movieServiceUrl;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.showtimes = boundedMap(maxEntries);
+        this.movieTitles = boundedMap(maxEntries);
+    }
+
+    public ShowtimeSnapshot get(String showtimeId) {
+        long now = System.currentTimeMillis();
+        CachedEntry<ShowtimeSnapshot> cached;
+        synchronized (showtimes) {
+            cached = showtimes.get(showtimeId);
+        }
+        if (cached != null) {
+            cached.lastAccess = now;
+            if (!cached.isExpired(now, ttlMillis)) {
+                return cached.value;
+            }
+        }
+
+        try {
+            return refresh(showtimeId);
+        } catch (HttpClientErrorException.NotFound e) {
+            invalidate(showtimeId);
+            throw new RuntimeException("La función " + showtimeId + " no existe");
+        } catch (RestClientException e) {
+            if (cached != null) {
+                System.err.println("Usando datos en caché para la función " + showtimeId + ": " + e.getMessage());
+                return cached.value;
+            }
+            throw new RuntimeException("No se pudo obtener la información de la función " + showtimeId);
+        }
+    }
+
+    // Notificación de cambio: la próxima lectura vuelve a cargar la función
+    public void invalidate(String showtimeId) {
+        synchronized (showtimes) {
+            showtimes.remove(showtimeId);
+        }
+    }
+
+    // Cambio de una película: también se descartan las funciones que copian su título
+    public void invalidateMovie(String movieId) {
+        synchronized (movieTitles) {
+            movieTitles.remove(movieId);
+        }
+        synchronized (showtimes) {
+            showtimes.values().removeIf(entry -> movieId.equals(entry.value.getMovieId()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.snapshot-cache.refresh-interval-ms:60000}")
+    public void refreshRecentlyUsed() {
+        long now = System.currentTimeMillis();
+        List<String> toRefresh = new ArrayList<>();
+        synchronized (showtimes) {
+            showtimes.entrySet().removeIf(e -> now - e.getValue().lastAccess > ttlMillis
+                    && e.getValue().isExpired(now, ttlMillis));
+            showtimes.forEach((id, entry) -> {
+                // Solo se refrescan las entradas usadas recientemente que están a mitad de su vida útil
+                if (now - entry.lastAccess <= ttlMillis && now - entry.loadedAt > ttlMillis / 2) {
+                    toRefresh.add(id);
+                }
+            });
+        }
+
+        for (String showtimeId : toRefresh) {
+            try {
+                refresh(showtimeId);
+            } catch (HttpClientErrorException.NotFound e) {
+                invalidate(showtimeId);
+            } catch (RestClientException e) {
+                // Se conserva la copia anterior hasta el siguiente intento
+                System.err.println("No se pudo refrescar la función " + showtimeId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private ShowtimeSnapshot refresh(String showtimeId) {
+        JsonNode showtime = restTemplate.getForObject(showtimeServiceUrl + "/api/showtimes/" + showtimeId, JsonNode.class);
+        if (showtime == null) {
+            throw new RuntimeException("La función " + showtimeId + " no existe");
+        }
+
+        String movieId = showtime.path("movieId").asText();
+        ShowtimeSnapshot snapshot = new ShowtimeSnapshot(
+                showtimeId,
+                movieId,
+                getMovieTitle(movieId),
+                showtime.path("date").asText(),
+                formatTime(showtime.path("time").asText()),
+                showtime.path("hallId").asText(),
+                showtime.path("price").asDouble());
+
+        synchronized (showtimes) {
+            CachedEntry<ShowtimeSnapshot> previous = showtimes.get(showtimeId);
+            CachedEntry<ShowtimeSnapshot> entry = new CachedEntry<>(snapshot);
+            if (previous != null) {
+                entry.lastAccess = previous.lastAccess;
+            }
+            showtimes.put(showtimeId, entry);
+        }
+        return snapshot;
+    }
+
+    private String getMovieTitle(String movieId) {
+        long now = System.currentTimeMillis();
+        CachedEntry<String> cached;
+        synchronized (movieTitles) {
+            cached = movieTitles.get(movieId);
+        }
+        if (cached != null && !cached.isExpired(now, ttlMillis)) {
+            return cached.value;
+        }
+
+        try {
+            JsonNode movie = restTemplate.getForObject(movieServiceUrl + "/api/movies/" + movieId, JsonNode.class);
+            String title = movie != null ? movie.path("title").asText("Película") : "Película";
+            synchronized (movieTitles) {
+                movieTitles.put(movieId, new CachedEntry<>(title));
+            }
+            return title;
+        } catch (RestClientException e) {
+            // El título no es crítico para reservar: se usa la copia anterior o un valor por defecto
+            return cached != null ? cached.value : "Película";
+        }
+    }
+
+    private String formatTime(String time) {
+        // LocalTime se serializa como HH:mm:ss; las reservas guardan HH:mm
+        return time.length() > 5 ? time.substring(0, 5) : time;
+    }
+
+    private static <V> Map<String, V> boundedMap(int maxEntries) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private static class CachedEntry<T> {
+        private final T value;
+        private final long loadedAt;
+        private volatile long lastAccess;
+
+        private CachedEntry(T value) {
+            this.value = value;
+            this.loadedAt = System.currentTimeMillis();
+            this.lastAccess = loadedAt;
+        }
+
+        private boolean isExpired(long now, long ttlMillis) {
+            return now - loadedAt > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.alejrico.moviesystem.reservation_service.tracing;
+
+import com.alejrico.moviesystem.common.tracing.TracingConfiguration;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+/**
+ * Trazas distribuidas con Brave (Micrometer Tracing). Spring Boot ya crea spans para las
+ * peticiones recibidas y las llamadas del RestTemplate, y propaga el contexto en la cabecera
+ * traceparent hasta showtime-service; aquí se añaden los comandos de Mongo (el muestreo de
+ * cola y el destino de las trazas llegan de {@link TracingConfiguration}).
+ */
+@Configuration
+public class TracingConfig {
+
+    // Un span por comando de Mongo, hijo del span de la petición en curso
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoTracingCustomizer(ObservationRegistry observationRegistry) {
+        return settings -> settings
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+}
@@ -0,0 +1,67 @@
+package com.alejrico.moviesystem.reservation_service.controller;
+
+import com.alejrico.moviesystem.common.security.AuthenticatedUser;
+import com.alejrico.moviesystem.reservation_service.dto.ReservationResponse;
+import com.alejrico.moviesystem.reservation_service.service.ReservationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationControllerTest {
+
+    private final List<String> confirmed = new ArrayList<>();
+
+    private final ReservationService reservationService = new ReservationService(null, null, null, null, null, null) {
+        @Override
+        public Optional<ReservationResponse> getReservationById(String id) {
+            if (!"r1".equals(id)) {
+                return Optional.empty();
+            }
+            ReservationResponse reservation = new ReservationResponse();
+            reservation.setId(id);
+            reservation.setUserId("7");
+            return Optional.of(reservation);
+        }
+
+        @Override
+        public Optional<ReservationResponse> confirmReservation(String id) {
+            confirmed.add(id);
+            return getReservationById(id);
+        }
+    };
+
+    private final ReservationController controller = new ReservationController(reservationService, null, null, null);
+
+    // Confirmar es lo que convierte la reserva en pagada: sin credenciales o con otro usuario no se toca
+    @Test
+    void onlyTheOwnerOrAnotherServiceCanConfirm() {
+        assertEquals(401, confirm(null).getStatusCode().value());
+        assertEquals(403, confirm(user(8, "ROLE_USER")).getStatusCode().value());
+        assertEquals(403, confirm(user(8, "ROLE_USER", "ROLE_ADMIN")).getStatusCode().value());
+        assertTrue(confirmed.isEmpty());
+
+        assertEquals(200, confirm(user(7, "ROLE_USER")).getStatusCode().value());
+        assertEquals(200, confirm(AuthenticatedUser.service()).getStatusCode().value());
+        assertEquals(List.of("r1", "r1"), confirmed);
+    }
+
+    private ResponseEntity<ReservationResponse> confirm(AuthenticatedUser caller) {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/reservations/r1/confirm");
+        if (caller != null) {
+            request.setAttribute(AuthenticatedUser.REQUEST_ATTRIBUTE, caller);
+        }
+        return controller.confirmReservation("r1", request);
+    }
+
+    private static AuthenticatedUser user(long id, String... roles) {
+        return new AuthenticatedUser(id, "u" + id, List.of(roles), "jti-" + id, Instant.now(), Instant.now().plusSeconds(900));
+    }
+}
@@ -0,0 +1,73 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoBookingMatrixTest {
+
+    @Test
+    void ranksNeighboursByCosineSimilarity() {
+        // Usuarios 0-2 ven 0 y 1; usuarios 2-3 ven 1 y 2; el usuario 2 reserva la película 0 dos veces
+        long[] pairs = {
+                CoBookingMatrix.pair(0, 0), CoBookingMatrix.pair(0, 1),
+                CoBookingMatrix.pair(1, 1), CoBookingMatrix.pair(1, 0),
+                CoBookingMatrix.pair(2, 0), CoBookingMatrix.pair(2, 1), CoBookingMatrix.pair(2, 2), CoBookingMatrix.pair(2, 0),
+                CoBookingMatrix.pair(3, 2), CoBookingMatrix.pair(3, 1),
+        };
+
+        CoBookingMatrix.Neighbour[][] result = CoBookingMatrix.compute(pairs, pairs.length, 3, 10, 1);
+
+        // película 1: 4 usuarios; 0: 3 usuarios, 3 en común; 2: 2 usuarios, 2 en común
+        assertEquals(2, result[1].length);
+        assertEquals(0, result[1][0].movie());
+        assertEquals(3, result[1][0].coBookings());
+        assertEquals(3 / Math.sqrt(12), result[1][0].score(), 1e-9);
+        assertEquals(2, result[1][1].movie());
+        assertEquals(2 / Math.sqrt(8), result[1][1].score(), 1e-9);
+        assertEquals(1, result[0][0].movie());
+    }
+
+    @Test
+    void appliesMinimumCoBookingsAndTopN() {
+        long[] pairs = {
+                CoBookingMatrix.pair(0, 0), CoBookingMatrix.pair(0, 1), CoBookingMatrix.pair(0, 2), CoBookingMatrix.pair(0, 3),
+                CoBookingMatrix.pair(1, 0), CoBookingMatrix.pair(1, 1), CoBookingMatrix.pair(1, 2),
+        };
+
+        CoBookingMatrix.Neighbour[][] result = CoBookingMatrix.compute(pairs, pairs.length, 4, 1, 2);
+
+        assertEquals(1, result[0].length);
+        assertEquals(0, result[3].length);
+    }
+
+    @Test
+    void handlesLargeHistories() {
+        int users = 200_000;
+        int movies = 300;
+        Random random = new Random(42);
+        long[] pairs = new long[users * 5];
+        int length = 0;
+        for (int user = 0; user < users; user++) {
+            // Cada usuario se mueve en una "zona" de películas parecidas
+            int zone = random.nextInt(movies / 10) * 10;
+            for (int i = 0; i < 5; i++) {
+                pairs[length++] = CoBookingMatrix.pair(user, zone + random.nextInt(10));
+            }
+        }
+
+        long start = System.nanoTime();
+        CoBookingMatrix.Neighbour[][] result = CoBookingMatrix.compute(pairs, length, movies, 20, 2);
+        System.out.printf("%d reservas procesadas en %.1f ms%n", length, (System.nanoTime() - start) / 1e6);
+
+        for (int movie = 0; movie < movies; movie++) {
+            for (CoBookingMatrix.Neighbour neighbour : result[movie]) {
+                assertEquals(movie / 10, neighbour.movie() / 10);
+            }
+            assertTrue(result[movie].length <= 9);
+        }
+    }
+}
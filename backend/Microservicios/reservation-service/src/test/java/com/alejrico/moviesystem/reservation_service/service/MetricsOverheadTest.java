@@ -0,0 +1,69 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Coste por llamada de @Timed con histograma (proxy AOP + registro) y de un contador de dominio,
+// con el mismo registro Prometheus que en producción. Fuera de "gradle test": gradle loadTest
+@Tag("load")
+class MetricsOverheadTest {
+
+    private static final int CALLS = 200_000;
+
+    static class SeatCounter {
+        private long seats;
+
+        @Timed(value = "reservation.create", histogram = true)
+        public long claim(int count) {
+            seats += count;
+            return seats;
+        }
+    }
+
+    @Test
+    void timedServiceMethodAddsOnlyMicrosecondsPerCall() {
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        SeatCounter plain = new SeatCounter();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new SeatCounter());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new TimedAspect(meterRegistry));
+        SeatCounter timed = proxyFactory.getProxy();
+
+        // Calentamiento para que el JIT compile ambos caminos
+        run(plain, null);
+        run(timed, meterRegistry);
+
+        long plainNanos = run(plain, null);
+        long timedNanos = run(timed, meterRegistry);
+        double overheadMicros = (timedNanos - plainNanos) / 1000.0 / CALLS;
+
+        System.out.printf("Por llamada: sin métricas %.3f µs, con @Timed y contador %.3f µs (+%.3f µs)%n",
+                plainNanos / 1000.0 / CALLS, timedNanos / 1000.0 / CALLS, overheadMicros);
+        Timer timer = meterRegistry.get("reservation.create").timer();
+        assertEquals(2L * CALLS, timer.count());
+        assertTrue(meterRegistry.scrape().contains("reservation_create_seconds_bucket"));
+        // Frente a los milisegundos de una reserva (Mongo + llamada a showtime-service) es despreciable
+        assertTrue(overheadMicros < 20, "sobrecoste por llamada: " + overheadMicros + " µs");
+    }
+
+    private long run(SeatCounter target, MeterRegistry meterRegistry) {
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            target.claim(2);
+            if (meterRegistry != null) {
+                meterRegistry.counter("reservation.seats.claimed").increment(2);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,139 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import com.alejrico.moviesystem.reservation_service.model.Reservation;
+import com.alejrico.moviesystem.reservation_service.repository.ReservationRepository;
+import com.alejrico.moviesystem.reservation_service.support.InMemoryMongo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationExpiryServiceTest {
+
+    private final InMemoryMongo mongo = new InMemoryMongo();
+    private final MongoTemplate mongoTemplate = mongo.template();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> releases = new ArrayList<>();
+    private boolean showtimeServiceDown;
+
+    private final ShowtimeClient showtimeClient = new ShowtimeClient(null, "") {
+        @Override
+        public void releaseSeats(String showtimeId, int seats) {
+            if (showtimeServiceDown) {
+                throw new ResourceAccessException("Connection refused");
+            }
+            releases.add(showtimeId + ":" + seats);
+        }
+    };
+
+    private final ReservationStatsService statsService = new ReservationStatsService(mongoTemplate);
+    private final ReservationExpiryService expiryService = new ReservationExpiryService(mongoTemplate, showtimeClient, meterRegistry);
+    private final ReservationService reservationService = new ReservationService(
+            new MongoRepositoryFactory(mongoTemplate).getRepository(ReservationRepository.class),
+            null, statsService, showtimeClient, mongoTemplate, meterRegistry);
+
+    {
+        ReflectionTestUtils.setField(expiryService, "batchSize", 100);
+        ReflectionTestUtils.setField(expiryService, "maxBatchesPerRun", 10);
+        ReflectionTestUtils.setField(expiryService, "releaseRetryDelayMs", 60_000L);
+    }
+
+    @AfterEach
+    void close() {
+        mongo.close();
+    }
+
+    @Test
+    void sweeperExpiresOverdueHoldsAndReleasesTheirSeatsPerShowtime() {
+        LocalDateTime now = LocalDateTime.now();
+        pending("r1", "s1", 2, now.minusMinutes(1));
+        pending("r2", "s1", 1, now.minusMinutes(2));
+        pending("r3", "s2", 4, now.plusMinutes(10));
+
+        assertEquals(2, expiryService.expireBatch(now));
+
+        assertEquals(List.of("s1:3"), releases);
+        assertEquals(Reservation.STATUS_EXPIRED, find("r1").getStatus());
+        assertNull(find("r1").getSeatsReleasePendingSince());
+        assertEquals(Reservation.STATUS_PENDING, find("r3").getStatus());
+        assertEquals(2.0, meterRegistry.get("reservation.holds.expired").counter().count());
+        assertEquals(0, expiryService.expireBatch(now));
+    }
+
+    // El pago llega tarde: la confirmación se rechaza y la reserva sigue su camino hacia la expiración
+    @Test
+    void confirmAfterDeadlineIsRejected() {
+        LocalDateTime now = LocalDateTime.now();
+        pending("late", "s1", 2, now.minusSeconds(1));
+        pending("on-time", "s1", 1, now.plusMinutes(10));
+
+        assertTrue(reservationService.confirmReservation("late").isEmpty());
+        assertEquals(Reservation.STATUS_PENDING, find("late").getStatus());
+        assertTrue(reservationService.confirmReservation("on-time").isPresent());
+        assertEquals(1, statsService.getByShowtime("s1").getReservations());
+
+        expiryService.expireBatch(now);
+        assertEquals(Reservation.STATUS_EXPIRED, find("late").getStatus());
+        assertTrue(reservationService.confirmReservation("late").isEmpty());
+        assertEquals(Reservation.STATUS_CONFIRMED, find("on-time").getStatus());
+        assertEquals(List.of("s1:2"), releases);
+    }
+
+    @Test
+    void failedReleasesStayMarkedAndAreRetriedBySweeper() {
+        LocalDateTime now = LocalDateTime.now();
+        pending("r1", "s1", 2, now.minusMinutes(1));
+        pending("r2", "s2", 3, now.plusMinutes(10));
+
+        showtimeServiceDown = true;
+        expiryService.expireBatch(now);
+        assertTrue(reservationService.cancelReservation("r2"));
+        assertTrue(releases.isEmpty());
+        assertNotNull(find("r1").getSeatsReleasePendingSince());
+        assertNotNull(find("r2").getSeatsReleasePendingSince());
+
+        // Antes del plazo de reintento no se toca: la liberación original podría seguir en curso
+        showtimeServiceDown = false;
+        assertEquals(0, expiryService.retryPendingReleases(LocalDateTime.now()));
+
+        assertEquals(2, expiryService.retryPendingReleases(LocalDateTime.now().plusMinutes(2)));
+        assertEquals(List.of("s1:2", "s2:3"), releases.stream().sorted().toList());
+        assertNull(find("r1").getSeatsReleasePendingSince());
+        assertNull(find("r2").getSeatsReleasePendingSince());
+        assertEquals(0, expiryService.retryPendingReleases(LocalDateTime.now().plusMinutes(4)));
+    }
+
+    private void pending(String id, String showtimeId, int seats, LocalDateTime deadline) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setUserId("u1");
+        reservation.setShowtimeId(showtimeId);
+        reservation.setMovieId("m1");
+        reservation.setMovieTitle("Película");
+        reservation.setDate("2026-10-20");
+        reservation.setTime("20:00");
+        reservation.setSeatIds(IntStream.range(0, seats).mapToObj(i -> "A" + i).toList());
+        reservation.setTotalPrice(8.5 * seats);
+        reservation.setStatus(Reservation.STATUS_PENDING);
+        reservation.setCreatedAt(deadline.minusMinutes(15));
+        reservation.setPaymentDeadline(deadline);
+        mongoTemplate.save(reservation);
+    }
+
+    private Reservation find(String id) {
+        return mongoTemplate.findById(id, Reservation.class);
+    }
+}
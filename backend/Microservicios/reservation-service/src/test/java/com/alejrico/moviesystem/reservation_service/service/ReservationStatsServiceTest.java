@@ -0,0 +1,152 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import com.alejrico.moviesystem.reservation_service.model.Reservation;
+import com.alejrico.moviesystem.reservation_service.model.ReservationRollup;
+import com.alejrico.moviesystem.reservation_service.support.InMemoryMongo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReservationStatsServiceTest {
+
+    private final InMemoryMongo mongo = new InMemoryMongo();
+    private final MongoTemplate mongoTemplate = mongo.template();
+    private final ReservationStatsService stats = new ReservationStatsService(mongoTemplate);
+
+    @AfterEach
+    void close() {
+        mongo.close();
+    }
+
+    // Los incrementos aplicados al confirmar y cancelar coinciden con el recálculo desde las reservas
+    @Test
+    void incrementalDeltasMatchRebuild() {
+        LocalDateTime created = LocalDateTime.of(2026, 10, 19, 18, 0);
+        Reservation kept = save("r1", "s1", "m1", 2, 16.0, Reservation.STATUS_CONFIRMED, created);
+        Reservation cancelled = save("r2", "s1", "m1", 3, 24.0, Reservation.STATUS_CONFIRMED, created);
+        Reservation other = save("r3", "s2", "m2", 1, 9.0, Reservation.STATUS_CONFIRMED, created.plusDays(1));
+        save("r4", "s1", "m1", 4, 32.0, Reservation.STATUS_PENDING, created);
+
+        stats.recordConfirmed(kept);
+        stats.recordConfirmed(cancelled);
+        stats.recordConfirmed(other);
+        cancelled.setStatus(Reservation.STATUS_CANCELLED);
+        mongoTemplate.save(cancelled);
+        stats.recordCancelled(cancelled);
+
+        List<ReservationRollup> incremental = List.of(stats.getSummary(), stats.getByShowtime("s1"),
+                stats.getByShowtime("s2"), stats.getByMovie("m1"), stats.getByDay(created.toLocalDate()));
+        assertEquals(new ReservationRollup("showtime:s1", "showtime", "s1", 1, 2, 16.0, 1), incremental.get(1));
+
+        stats.rebuild();
+
+        assertEquals(incremental, List.of(stats.getSummary(), stats.getByShowtime("s1"),
+                stats.getByShowtime("s2"), stats.getByMovie("m1"), stats.getByDay(created.toLocalDate())));
+    }
+
+    // El recálculo sustituye la colección entera: desaparecen las claves sin reservas y no queda la temporal
+    @Test
+    void rebuildReplacesTheLiveCollection() {
+        mongoTemplate.save(new ReservationRollup("showtime:old", "showtime", "old", 5, 10, 50.0, 0));
+        save("r1", "s1", "m1", 2, 16.0, Reservation.STATUS_CONFIRMED, LocalDateTime.of(2026, 10, 19, 18, 0));
+        stats.reload();
+        assertEquals(5, stats.getByShowtime("old").getReservations());
+
+        int rows = stats.rebuild();
+
+        assertEquals(4, rows);
+        assertNull(mongoTemplate.findById("showtime:old", ReservationRollup.class));
+        assertEquals(1, mongoTemplate.findById("showtime:s1", ReservationRollup.class).getReservations());
+        assertEquals(0, stats.getByShowtime("old").getReservations());
+        assertFalse(mongoTemplate.collectionExists("reservation_rollups_rebuild"));
+    }
+
+    // Una confirmación durante el recálculo no espera a la agregación y no se pierde al cambiar de colección
+    @Test
+    void deltasDuringRebuildAreNotBlockedAndSurviveTheSwap() throws Exception {
+        CountDownLatch scanned = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger aggregations = new AtomicInteger();
+        MongoTemplate slowAggregation = new MongoTemplate(mongoTemplate.getMongoDatabaseFactory(), mongoTemplate.getConverter()) {
+            @Override
+            public <O> AggregationResults<O> aggregate(Aggregation aggregation, Class<?> inputType, Class<O> outputType) {
+                AggregationResults<O> results = super.aggregate(aggregation, inputType, outputType);
+                if (aggregations.incrementAndGet() == 4) {
+                    scanned.countDown();
+                    await(release);
+                }
+                return results;
+            }
+        };
+        ReservationStatsService slowStats = new ReservationStatsService(slowAggregation);
+        LocalDateTime created = LocalDateTime.of(2026, 10, 19, 18, 0);
+        slowStats.recordConfirmed(save("r1", "s1", "m1", 2, 16.0, Reservation.STATUS_CONFIRMED, created));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> rebuild = executor.submit(slowStats::rebuild);
+            assertTrue(scanned.await(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            slowStats.recordConfirmed(save("r2", "s1", "m1", 1, 8.0, Reservation.STATUS_CONFIRMED, created));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "la confirmación esperó al recálculo");
+            assertEquals(2, slowStats.getByShowtime("s1").getReservations());
+
+            release.countDown();
+            rebuild.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+
+        ReservationRollup expected = new ReservationRollup("showtime:s1", "showtime", "s1", 2, 3, 24.0, 0);
+        assertEquals(expected, slowStats.getByShowtime("s1"));
+        assertEquals(expected, mongoTemplate.findById("showtime:s1", ReservationRollup.class));
+        stats.rebuild();
+        assertEquals(expected, stats.getByShowtime("s1"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Reservation save(String id, String showtimeId, String movieId, int seats, double price,
+                             String status, LocalDateTime createdAt) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setUserId("u1");
+        reservation.setShowtimeId(showtimeId);
+        reservation.setMovieId(movieId);
+        reservation.setMovieTitle("Película");
+        reservation.setDate("2026-10-20");
+        reservation.setTime("20:00");
+        reservation.setSeatIds(java.util.stream.IntStream.range(0, seats).mapToObj(i -> "A" + i).toList());
+        reservation.setTotalPrice(price);
+        reservation.setStatus(status);
+        reservation.setCreatedAt(createdAt);
+        if (!Reservation.STATUS_PENDING.equals(status)) {
+            reservation.setConfirmedAt(createdAt.plusMinutes(5));
+        }
+        return mongoTemplate.save(reservation);
+    }
+}
@@ -0,0 +1,145 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import com.alejrico.moviesystem.reservation_service.model.Notification;
+import com.alejrico.moviesystem.reservation_service.model.Reservation;
+import com.alejrico.moviesystem.reservation_service.model.ReservationRollup;
+import com.alejrico.moviesystem.reservation_service.model.ShowtimeCancellation;
+import com.alejrico.moviesystem.reservation_service.model.ShowtimeReschedule;
+import com.alejrico.moviesystem.reservation_service.repository.ReservationRepository;
+import com.alejrico.moviesystem.reservation_service.support.InMemoryMongo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ShowtimeCancellationServiceTest {
+
+    private final InMemoryMongo mongo = new InMemoryMongo();
+    private final MongoTemplate mongoTemplate = mongo.template();
+    private final ReservationStatsService statsService = new ReservationStatsService(mongoTemplate);
+    private final ShowtimeCancellationService cancellationService = new ShowtimeCancellationService(
+            new MongoRepositoryFactory(mongoTemplate).getRepository(ReservationRepository.class),
+            statsService, mongoTemplate);
+
+    {
+        ReflectionTestUtils.setField(cancellationService, "batchSize", 2);
+    }
+
+    @AfterEach
+    void close() {
+        cancellationService.shutdown();
+        mongo.close();
+    }
+
+    // El proceso se detuvo tras cambiar el estado del primer lote y antes de descontar los contadores
+    @Test
+    void resumedCancellationAppliesEachRollupAndNotificationOnce() {
+        Reservation first = save("r1", 2, 16.0, Reservation.STATUS_CONFIRMED);
+        Reservation second = save("r2", 1, 8.0, Reservation.STATUS_CONFIRMED);
+        Reservation third = save("r3", 3, 24.0, Reservation.STATUS_CONFIRMED);
+        save("r4", 1, 8.0, Reservation.STATUS_PENDING);
+        statsService.recordConfirmed(first);
+        statsService.recordConfirmed(second);
+        statsService.recordConfirmed(third);
+
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is("s1")), new Update()
+                .set("status", ShowtimeCancellation.STATUS_RUNNING)
+                .set("cancelledReservations", 1L)
+                .set("notifications", 1L)
+                .set("refundTotal", 0.0), ShowtimeCancellation.class);
+        mongoTemplate.save(new Notification(Notification.TYPE_SHOWTIME_CANCELLED + ":r1", "u1", "r1", "s1",
+                Notification.TYPE_SHOWTIME_CANCELLED, "La función fue cancelada", 16.0, LocalDateTime.now()));
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is("r1")), new Update()
+                .set("status", Reservation.STATUS_CANCELLED)
+                .set("cancelledAt", LocalDateTime.now())
+                .set("rollupPending", true), Reservation.class);
+
+        cancellationService.run("s1");
+
+        ShowtimeCancellation job = cancellationService.getProgress("s1").orElseThrow();
+        assertEquals(ShowtimeCancellation.STATUS_COMPLETED, job.getStatus());
+        assertEquals(4, job.getCancelledReservations());
+        assertEquals(4, job.getNotifications());
+        assertEquals(48.0, job.getRefundTotal());
+        assertEquals(new ReservationRollup("showtime:s1", "showtime", "s1", 0, 0, 0.0, 3), statsService.getByShowtime("s1"));
+        assertEquals(0, mongoTemplate.count(Query.query(Criteria.where("rollupPending").exists(true)), Reservation.class));
+
+        // Repetir la cancelación no vuelve a descontar ni a contar avisos
+        cancellationService.run("s1");
+        assertEquals(4, cancellationService.getProgress("s1").orElseThrow().getNotifications());
+        assertEquals(3, statsService.getByShowtime("s1").getCancellations());
+        assertEquals(new ReservationRollup("showtime:s1", "showtime", "s1", 0, 0, 0.0, 3),
+                mongoTemplate.findById("showtime:s1", ReservationRollup.class));
+    }
+
+    // Cambio de horario: las reservas activas toman la nueva fecha y hora y cada usuario recibe un aviso
+    @Test
+    void rescheduleMovesActiveReservationsAndNotifiesOncePerSlot() {
+        save("r1", 2, 16.0, Reservation.STATUS_CONFIRMED);
+        save("r2", 1, 8.0, Reservation.STATUS_PENDING);
+        save("r3", 1, 8.0, Reservation.STATUS_CONFIRMED);
+        save("r4", 1, 8.0, Reservation.STATUS_CANCELLED);
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is("s1")), new Update()
+                .set("date", "2026-10-21")
+                .set("time", "22:30:00")
+                .set("status", ShowtimeReschedule.STATUS_RUNNING)
+                .set("updatedReservations", 0L)
+                .set("notifications", 0L), ShowtimeReschedule.class);
+
+        cancellationService.runReschedule("s1");
+
+        ShowtimeReschedule job = cancellationService.getRescheduleProgress("s1").orElseThrow();
+        assertEquals(ShowtimeReschedule.STATUS_COMPLETED, job.getStatus());
+        assertEquals(3, job.getUpdatedReservations());
+        assertEquals(3, job.getNotifications());
+        for (String id : new String[]{"r1", "r2", "r3"}) {
+            Reservation moved = mongoTemplate.findById(id, Reservation.class);
+            assertEquals("2026-10-21", moved.getDate());
+            assertEquals("22:30:00", moved.getTime());
+        }
+        assertEquals("2026-10-20", mongoTemplate.findById("r4", Reservation.class).getDate());
+        Notification notice = mongoTemplate.findById(Notification.TYPE_SHOWTIME_RESCHEDULED + ":r1:2026-10-21T22:30:00",
+                Notification.class);
+        assertEquals("La función de Película del 2026-10-20 a las 20:00 pasa al 2026-10-21 a las 22:30:00", notice.getMessage());
+
+        // Repetir el encargo con el mismo horario no toca nada; otro horario genera avisos nuevos
+        cancellationService.runReschedule("s1");
+        assertEquals(3, cancellationService.getRescheduleProgress("s1").orElseThrow().getNotifications());
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is("s1")), new Update()
+                .set("time", "23:00:00")
+                .set("status", ShowtimeReschedule.STATUS_RUNNING), ShowtimeReschedule.class);
+        cancellationService.runReschedule("s1");
+        assertEquals(6, cancellationService.getRescheduleProgress("s1").orElseThrow().getNotifications());
+        assertEquals(6, mongoTemplate.count(Query.query(Criteria.where("type").is(Notification.TYPE_SHOWTIME_RESCHEDULED)),
+                Notification.class));
+        assertEquals("23:00:00", mongoTemplate.findById("r2", Reservation.class).getTime());
+    }
+
+    private Reservation save(String id, int seats, double price, String status) {
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setUserId("u1");
+        reservation.setShowtimeId("s1");
+        reservation.setMovieId("m1");
+        reservation.setMovieTitle("Película");
+        reservation.setDate("2026-10-20");
+        reservation.setTime("20:00");
+        reservation.setSeatIds(IntStream.range(0, seats).mapToObj(i -> "A" + i).toList());
+        reservation.setTotalPrice(price);
+        reservation.setStatus(status);
+        reservation.setCreatedAt(LocalDateTime.of(2026, 10, 19, 18, 0));
+        if (Reservation.STATUS_CONFIRMED.equals(status)) {
+            reservation.setConfirmedAt(reservation.getCreatedAt().plusMinutes(5));
+        }
+        return mongoTemplate.save(reservation);
+    }
+}
@@ -0,0 +1,57 @@
+package com.alejrico.moviesystem.reservation_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ShowtimeSnapshotCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> responses = new HashMap<>();
+    private final Map<String, Integer> calls = new HashMap<>();
+
+    private final RestTemplate restTemplate = new RestTemplate() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getForObject(String url, Class<T> responseType, Object... uriVariables) {
+            calls.merge(url, 1, Integer::sum);
+            try {
+                return (T) objectMapper.readTree(responses.get(url));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    };
+
+    private final ShowtimeSnapshotCache cache = new ShowtimeSnapshotCache(
+            restTemplate, "http://showtimes", "http://movies", 100, 300);
+
+    @Test
+    void movieChangeEvictsShowtimesThatCopiedItsTitle() {
+        responses.put("http://showtimes/api/showtimes/s1",
+                "{\"movieId\":\"m1\",\"date\":\"2026-10-20\",\"time\":\"20:30:00\",\"hallId\":\"h1\",\"price\":8.5}");
+        responses.put("http://showtimes/api/showtimes/s2",
+                "{\"movieId\":\"m2\",\"date\":\"2026-10-20\",\"time\":\"18:00:00\",\"hallId\":\"h1\",\"price\":8.5}");
+        responses.put("http://movies/api/movies/m1", "{\"title\":\"Dune\"}");
+        responses.put("http://movies/api/movies/m2", "{\"title\":\"Alien\"}");
+
+        assertEquals("Dune", cache.get("s1").getMovieTitle());
+        assertEquals("20:30", cache.get("s1").getTime());
+        cache.get("s2");
+
+        responses.put("http://movies/api/movies/m1", "{\"title\":\"Dune: Parte uno\"}");
+        cache.invalidateMovie("m1");
+
+        assertEquals("Dune: Parte uno", cache.get("s1").getMovieTitle());
+        assertEquals(2, calls.get("http://showtimes/api/showtimes/s1"));
+        // La función de otra película sigue en caché
+        assertEquals("Alien", cache.get("s2").getMovieTitle());
+        assertEquals(1, calls.get("http://showtimes/api/showtimes/s2"));
+    }
+}
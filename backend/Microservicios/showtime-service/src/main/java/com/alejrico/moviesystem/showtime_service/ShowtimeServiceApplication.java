@@ -1,9 +1,15 @@
 package com.alejrico.moviesystem.showtime_service;
 
+import com.alejrico.moviesystem.common.security.SecurityConfiguration;
+import com.alejrico.moviesystem.common.tracing.TracingConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@Import({SecurityConfiguration.class, TracingConfiguration.class})
 public class ShowtimeServiceApplication {
 
 	public static void main(String[] args) {
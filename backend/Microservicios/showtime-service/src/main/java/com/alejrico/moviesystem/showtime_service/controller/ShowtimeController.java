@@ -2,9 +2,11 @@ package com.alejrico.moviesystem.showtime_service.controller;
 
 import com.alejrico.moviesystem.showtime_service.dto.ShowtimeRequest;
 import com.alejrico.moviesystem.showtime_service.dto.ShowtimeResponse;
+import com.alejrico.moviesystem.showtime_service.service.ReservationCleanupPendingException;
 import com.alejrico.moviesystem.showtime_service.service.ShowtimeService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -62,19 +64,48 @@ public class ShowtimeController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdShowtime);
     }
     
+    // 202 si la función se actualizó pero el cambio de horario de sus reservas está pendiente
     @PutMapping("/{id}")
     public ResponseEntity<ShowtimeResponse> updateShowtime(
             @PathVariable String id, 
             @Valid @RequestBody ShowtimeRequest showtimeRequest) {
-        Optional<ShowtimeResponse> updatedShowtime = showtimeService.updateShowtime(id, showtimeRequest);
-        return updatedShowtime.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        try {
+            Optional<ShowtimeResponse> updatedShowtime = showtimeService.updateShowtime(id, showtimeRequest);
+            return updatedShowtime.map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (ReservationCleanupPendingException e) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(e.getShowtime());
+        }
     }
     
+    // 503 si reservation-service no aceptó la cancelación: la función queda cancelada pero no se elimina
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteShowtime(@PathVariable String id) {
-        boolean deleted = showtimeService.deleteShowtime(id);
-        return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    public ResponseEntity<ShowtimeResponse> deleteShowtime(@PathVariable String id) {
+        try {
+            boolean deleted = showtimeService.deleteShowtime(id);
+            return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+        } catch (ReservationCleanupPendingException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(e.getShowtime());
+        }
+    }
+    
+    // Cancela la función y todas sus reservas (con reembolso y aviso a cada usuario).
+    // 202 si la función quedó cancelada pero la cancelación de sus reservas está pendiente
+    @PutMapping("/{id}/cancel")
+    public ResponseEntity<ShowtimeResponse> cancelShowtime(@PathVariable String id) {
+        try {
+            Optional<ShowtimeResponse> cancelledShowtime = showtimeService.cancelShowtime(id);
+            return cancelledShowtime.map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (ReservationCleanupPendingException e) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(e.getShowtime());
+        }
     }
     
     @PutMapping("/{id}/reserve-seats")
@@ -84,4 +115,12 @@ public class ShowtimeController {
         boolean reserved = showtimeService.updateAvailableSeats(id, seats);
         return reserved ? ResponseEntity.ok().build() : ResponseEntity.badRequest().build();
     }
-} 
\ No newline at end of file
+    
+    @PutMapping("/{id}/release-seats")
+    public ResponseEntity<Void> releaseSeats(
+            @PathVariable String id, 
+            @RequestParam int seats) {
+        boolean released = showtimeService.releaseSeats(id, seats);
+        return released ? ResponseEntity.ok().build() : ResponseEntity.badRequest().build();
+    }
+}
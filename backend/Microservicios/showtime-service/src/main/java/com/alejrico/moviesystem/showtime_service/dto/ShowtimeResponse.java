@@ -20,4 +20,5 @@ public class ShowtimeResponse {
     private Double price;
     private Integer availableSeats;
     private Integer totalSeats;
+    private String status;
 } 
\ No newline at end of file
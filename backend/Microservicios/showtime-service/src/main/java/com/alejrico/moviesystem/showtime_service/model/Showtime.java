@@ -18,6 +18,9 @@ import java.time.LocalTime;
 @Document(collection = "showtimes")
 public class Showtime {
     
+    public static final String STATUS_ACTIVE = "active";
+    public static final String STATUS_CANCELLED = "cancelled";
+    
     @Id
     private String id;
     
@@ -42,4 +45,16 @@ public class Showtime {
     
     @NotNull(message = "El total de asientos es obligatorio")
     private Integer totalSeats;
-} 
\ No newline at end of file
+    
+    // Funciones antiguas sin estado se consideran activas
+    private String status; // active, cancelled
+    
+    public Showtime(String id, String movieId, LocalDate date, LocalTime time, String hallId,
+                    Double price, Integer availableSeats, Integer totalSeats) {
+        this(id, movieId, date, time, hallId, price, availableSeats, totalSeats, STATUS_ACTIVE);
+    }
+    
+    public boolean isCancelled() {
+        return STATUS_CANCELLED.equals(status);
+    }
+}
@@ -0,0 +1,23 @@
+package com.alejrico.moviesystem.showtime_service.service;
+
+import com.alejrico.moviesystem.showtime_service.dto.ShowtimeResponse;
+
+// La función quedó cancelada (o actualizada) pero reservation-service no aceptó el encargo sobre sus
+// reservas; repetir la operación
+public class ReservationCleanupPendingException extends RuntimeException {
+
+    private final ShowtimeResponse showtime;
+
+    public ReservationCleanupPendingException(ShowtimeResponse showtime) {
+        this(showtime, "La función " + showtime.getId() + " está cancelada pero la cancelación de sus reservas quedó pendiente");
+    }
+
+    public ReservationCleanupPendingException(ShowtimeResponse showtime, String message) {
+        super(message);
+        this.showtime = showtime;
+    }
+
+    public ShowtimeResponse getShowtime() {
+        return showtime;
+    }
+}
@@ -5,11 +5,23 @@ import com.alejrico.moviesystem.showtime_service.dto.ShowtimeResponse;
 import com.alejrico.moviesystem.showtime_service.model.Showtime;
 import com.alejrico.moviesystem.showtime_service.repository.ShowtimeRepository;
 import com.alejrico.moviesystem.showtime_service.repository.HallRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -19,6 +31,12 @@ public class ShowtimeService {
     
     private final ShowtimeRepository showtimeRepository;
     private final HallRepository hallRepository;
+    private final MongoTemplate mongoTemplate;
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${services.reservation-service.url:http://localhost:8084}")
+    private String reservationServiceUrl;
     
     public List<ShowtimeResponse> getAllShowtimes() {
         return showtimeRepository.findAll()
@@ -55,6 +73,7 @@ public class ShowtimeService {
     
     public ShowtimeResponse createShowtime(ShowtimeRequest showtimeRequest) {
         Showtime showtime = mapToShowtime(showtimeRequest);
+        showtime.setStatus(Showtime.STATUS_ACTIVE);
         showtime.setTotalSeats(100); // Default
         showtime.setAvailableSeats(100);
         
@@ -62,34 +81,143 @@ public class ShowtimeService {
         return mapToShowtimeResponse(savedShowtime);
     }
     
+    /**
+     * Actualiza la función y encarga a reservation-service que copie la fecha y la hora a sus
+     * reservas y avise a los usuarios si cambiaron. El encargo se repite en cada actualización
+     * (reservation-service solo toca las reservas con otro horario), así que si falla basta con
+     * repetir la operación: se lanza {@link ReservationCleanupPendingException}.
+     */
     public Optional<ShowtimeResponse> updateShowtime(String id, ShowtimeRequest showtimeRequest) {
         return showtimeRepository.findById(id)
                 .map(existingShowtime -> {
                     updateShowtimeFromRequest(existingShowtime, showtimeRequest);
                     Showtime savedShowtime = showtimeRepository.save(existingShowtime);
+                    notifyShowtimeChanged(id);
+                    if (!savedShowtime.isCancelled()) {
+                        rescheduleReservations(savedShowtime);
+                    }
                     return mapToShowtimeResponse(savedShowtime);
                 });
     }
     
+    // Fecha y hora como texto, en el formato del JSON de ShowtimeResponse que reservation-service copia a las reservas
+    private void rescheduleReservations(Showtime showtime) {
+        try {
+            restTemplate.postForLocation(reservationServiceUrl + "/api/reservations/showtime/" + showtime.getId() + "/reschedule",
+                    Map.of("date", showtime.getDate().format(DateTimeFormatter.ISO_LOCAL_DATE),
+                            "time", showtime.getTime().format(DateTimeFormatter.ISO_LOCAL_TIME)));
+        } catch (Exception e) {
+            System.err.println("No se pudo propagar el horario de la función " + showtime.getId() + ": " + e.getMessage());
+            throw new ReservationCleanupPendingException(mapToShowtimeResponse(showtime),
+                    "La función " + showtime.getId() + " está actualizada pero el cambio de horario de sus reservas quedó pendiente");
+        }
+    }
+    
     public boolean deleteShowtime(String id) {
         if (showtimeRepository.existsById(id)) {
+            // Primero se cancela para que sus reservas no queden apuntando a una función inexistente;
+            // si reservation-service no acepta la cancelación, la función no se elimina
+            cancelShowtime(id);
             showtimeRepository.deleteById(id);
             return true;
         }
         return false;
     }
     
-    public boolean updateAvailableSeats(String id, int seatsToReserve) {
+    /**
+     * Marca la función como cancelada y encarga a reservation-service la cancelación de sus
+     * reservas. Si la solicitud falla la función queda cancelada, se lanza
+     * {@link ReservationCleanupPendingException} y la operación puede repetirse.
+     */
+    public Optional<ShowtimeResponse> cancelShowtime(String id) {
         Optional<Showtime> showtimeOpt = showtimeRepository.findById(id);
-        if (showtimeOpt.isPresent()) {
-            Showtime showtime = showtimeOpt.get();
-            if (showtime.getAvailableSeats() >= seatsToReserve) {
-                showtime.setAvailableSeats(showtime.getAvailableSeats() - seatsToReserve);
-                showtimeRepository.save(showtime);
+        if (showtimeOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        Showtime showtime = showtimeOpt.get();
+        if (!showtime.isCancelled()) {
+            showtime.setStatus(Showtime.STATUS_CANCELLED);
+            showtime = showtimeRepository.save(showtime);
+            notifyShowtimeChanged(id);
+        }
+        
+        try {
+            restTemplate.postForLocation(reservationServiceUrl + "/api/reservations/showtime/" + id + "/cancel-all", null);
+        } catch (Exception e) {
+            System.err.println("No se pudo solicitar la cancelación de las reservas de la función " + id + ": " + e.getMessage());
+            throw new ReservationCleanupPendingException(mapToShowtimeResponse(showtime));
+        }
+        return Optional.of(mapToShowtimeResponse(showtime));
+    }
+    
+    // Descuento atómico: solo si la función sigue activa y quedan asientos suficientes
+    @Timed(value = "showtime.seats.reserve", histogram = true)
+    public boolean updateAvailableSeats(String id, int seatsToReserve) {
+        if (seatsToReserve < 0) {
+            return false;
+        }
+        Query query = Query.query(Criteria.where("_id").is(id)
+                .and("status").ne(Showtime.STATUS_CANCELLED)
+                .and("availableSeats").gte(seatsToReserve));
+        if (mongoTemplate.updateFirst(query, new Update().inc("availableSeats", -seatsToReserve), Showtime.class)
+                .getMatchedCount() > 0) {
+            return true;
+        }
+        if (showtimeRepository.existsById(id)) {
+            // Función cancelada o sin asientos suficientes
+            meterRegistry.counter("showtime.seats.rejected").increment();
+        }
+        return false;
+    }
+    
+    /**
+     * Devuelve asientos de reservas canceladas o expiradas sin superar la capacidad de la sala.
+     * Normalmente es un único $inc condicionado a que la suma no pase de totalSeats; si la pasa,
+     * se fija el disponible al total con otra escritura condicionada. Sin lectura previa y sin
+     * guardar el documento completo, así que no pisa los descuentos concurrentes.
+     */
+    public boolean releaseSeats(String id, int seatsToRelease) {
+        if (seatsToRelease <= 0) {
+            return false;
+        }
+        Query fits = Query.query(Criteria.where("_id").is(id)).addCriteria(Criteria.expr(
+                ComparisonOperators.valueOf(ArithmeticOperators.Add.valueOf("availableSeats").add(seatsToRelease))
+                        .lessThanEqualTo("totalSeats")));
+        while (true) {
+            if (mongoTemplate.updateFirst(fits, new Update().inc("availableSeats", seatsToRelease), Showtime.class)
+                    .getMatchedCount() > 0) {
                 return true;
             }
+            Optional<Showtime> showtimeOpt = showtimeRepository.findById(id);
+            if (showtimeOpt.isEmpty()) {
+                return false;
+            }
+            Integer totalSeats = showtimeOpt.get().getTotalSeats();
+            if (totalSeats == null) {
+                // Funciones antiguas sin capacidad registrada: sin tope
+                mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)),
+                        new Update().inc("availableSeats", seatsToRelease), Showtime.class);
+                return true;
+            }
+            Query overflows = Query.query(Criteria.where("_id").is(id)
+                    .and("availableSeats").gt(totalSeats - seatsToRelease));
+            if (mongoTemplate.updateFirst(overflows, new Update().set("availableSeats", totalSeats), Showtime.class)
+                    .getMatchedCount() > 0) {
+                return true;
+            }
+            // Entretanto se ocuparon asientos y la suma ya cabe: se repite el $inc
+        }
+    }
+    
+    // Avisa a reservation-service para que descarte su copia local de la función
+    private void notifyShowtimeChanged(String id) {
+        try {
+            restTemplate.postForLocation(reservationServiceUrl + "/api/reservations/snapshots/showtimes/" + id + "/invalidate", null);
+        } catch (Exception e) {
+            // La copia local caduca igualmente por TTL
+            System.err.println("No se pudo notificar el cambio de la función " + id + ": " + e.getMessage());
         }
-        return false;
     }
     
     private Showtime mapToShowtime(ShowtimeRequest showtimeRequest) {
@@ -120,6 +248,7 @@ public class ShowtimeService {
         response.setPrice(showtime.getPrice());
         response.setAvailableSeats(showtime.getAvailableSeats());
         response.setTotalSeats(showtime.getTotalSeats());
+        response.setStatus(showtime.getStatus() != null ? showtime.getStatus() : Showtime.STATUS_ACTIVE);
         return response;
     }
 } 
\ No newline at end of file
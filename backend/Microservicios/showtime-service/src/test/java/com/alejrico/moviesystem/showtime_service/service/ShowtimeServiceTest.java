@@ -0,0 +1,143 @@
+package com.alejrico.moviesystem.showtime_service.service;
+
+import com.alejrico.moviesystem.showtime_service.dto.ShowtimeRequest;
+import com.alejrico.moviesystem.showtime_service.model.Showtime;
+import com.alejrico.moviesystem.showtime_service.repository.HallRepository;
+import com.alejrico.moviesystem.showtime_service.repository.ShowtimeRepository;
+import com.alejrico.moviesystem.showtime_service.support.InMemoryMongo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+
+class ShowtimeServiceTest {
+
+    private final InMemoryMongo mongo = new InMemoryMongo();
+    private final MongoTemplate mongoTemplate = mongo.template();
+    private final MongoRepositoryFactory repositoryFactory = new MongoRepositoryFactory(mongoTemplate);
+    private final ShowtimeRepository showtimeRepository = repositoryFactory.getRepository(ShowtimeRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ShowtimeService showtimeService = new ShowtimeService(showtimeRepository,
+            repositoryFactory.getRepository(HallRepository.class), mongoTemplate, new RestTemplate(), meterRegistry);
+
+    @AfterEach
+    void close() {
+        mongo.close();
+    }
+
+    @Test
+    void releaseIsCappedAtTotalSeats() {
+        save("s1", 98, 100);
+
+        assertTrue(showtimeService.releaseSeats("s1", 5));
+        assertEquals(100, available("s1"));
+
+        assertTrue(showtimeService.releaseSeats("s1", 1));
+        assertEquals(100, available("s1"));
+        assertFalse(showtimeService.releaseSeats("missing", 1));
+    }
+
+    @Test
+    void reserveRejectsCancelledShowtimesAndMissingSeats() {
+        save("s1", 2, 100);
+        Showtime cancelled = save("s2", 50, 100);
+        cancelled.setStatus(Showtime.STATUS_CANCELLED);
+        showtimeRepository.save(cancelled);
+
+        assertFalse(showtimeService.updateAvailableSeats("s1", 3));
+        assertTrue(showtimeService.updateAvailableSeats("s1", 2));
+        assertEquals(0, available("s1"));
+        assertFalse(showtimeService.updateAvailableSeats("s2", 1));
+        assertEquals(2.0, meterRegistry.get("showtime.seats.rejected").counter().count());
+    }
+
+    // Con lectura-modificación-guardado las escrituras concurrentes se pisaban y el contador derivaba
+    @Test
+    void concurrentReservesAndReleasesDoNotLoseUpdates() throws Exception {
+        save("s1", 50, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(executor.submit(() -> {
+                    int reserved = 0;
+                    for (int i = 0; i < 100; i++) {
+                        if (showtimeService.updateAvailableSeats("s1", 1)) {
+                            reserved++;
+                            showtimeService.releaseSeats("s1", 1);
+                        }
+                    }
+                    return reserved;
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(100, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(50, available("s1"));
+    }
+
+    // Un cambio de horario se encarga a reservation-service, que lo copia a las reservas y avisa a los usuarios
+    @Test
+    void rescheduleIsPropagatedToReservations() {
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer reservationService = MockRestServiceServer.bindTo(restTemplate).build();
+        ShowtimeService service = new ShowtimeService(showtimeRepository,
+                repositoryFactory.getRepository(HallRepository.class), mongoTemplate, restTemplate, meterRegistry);
+        ReflectionTestUtils.setField(service, "reservationServiceUrl", "http://reservas");
+        save("s1", 100, 100);
+
+        reservationService.expect(requestTo("http://reservas/api/reservations/snapshots/showtimes/s1/invalidate"))
+                .andRespond(withStatus(HttpStatus.NO_CONTENT));
+        reservationService.expect(requestTo("http://reservas/api/reservations/showtime/s1/reschedule"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(content().json("{\"date\": \"2026-10-21\", \"time\": \"22:30:00\"}"))
+                .andRespond(withStatus(HttpStatus.ACCEPTED));
+        ShowtimeRequest moved = new ShowtimeRequest("m1", LocalDate.of(2026, 10, 21), LocalTime.of(22, 30), "h1", 8.5);
+        assertEquals(LocalTime.of(22, 30), service.updateShowtime("s1", moved).orElseThrow().getTime());
+        reservationService.verify();
+
+        // Si reservation-service no acepta el encargo la actualización queda hecha y se pide repetirla
+        reservationService.reset();
+        reservationService.expect(requestTo("http://reservas/api/reservations/snapshots/showtimes/s1/invalidate"))
+                .andRespond(withStatus(HttpStatus.NO_CONTENT));
+        reservationService.expect(requestTo("http://reservas/api/reservations/showtime/s1/reschedule"))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThrows(ReservationCleanupPendingException.class, () -> service.updateShowtime("s1", moved));
+        assertEquals(LocalTime.of(22, 30), showtimeRepository.findById("s1").orElseThrow().getTime());
+    }
+
+    private Showtime save(String id, int available, int total) {
+        return showtimeRepository.save(new Showtime(id, "m1", LocalDate.of(2026, 10, 20), LocalTime.of(20, 0),
+                "h1", 8.5, available, total));
+    }
+
+    private int available(String id) {
+        return showtimeRepository.findById(id).orElseThrow().getAvailableSeats();
+    }
+}
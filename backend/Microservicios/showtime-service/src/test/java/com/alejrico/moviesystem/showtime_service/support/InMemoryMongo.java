@@ -0,0 +1,30 @@
+package com.alejrico.moviesystem.showtime_service.support;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+// Servidor Mongo en memoria con su MongoTemplate; uno por clase de prueba
+public class InMemoryMongo implements AutoCloseable {
+
+    private final MongoServer server = new MongoServer(new MemoryBackend());
+    private final MongoClient client;
+    private final MongoTemplate mongoTemplate;
+
+    public InMemoryMongo() {
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        mongoTemplate = new MongoTemplate(client, "showtime_service_test");
+    }
+
+    public MongoTemplate template() {
+        return mongoTemplate;
+    }
+
+    @Override
+    public void close() {
+        client.close();
+        server.shutdown();
+    }
+}
@@ -0,0 +1,178 @@
+package com.alejrico.moviesystem.user_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt ejecutado en un pool propio de tamaño fijo con una cola acotada. Los hilos de Tomcat
+ * solo esperan el resultado: en una avalancha de logins el coste de BCrypt queda limitado a
+ * este pool y el resto de endpoints sigue atendiéndose. Si la cola está llena se rechaza al
+ * momento con {@link PasswordHashingBusyException} (503) en lugar de acumular peticiones.
+ * <p>
+ * Métricas: password.hashing (operation=encode|matches), password.hashing.wait (tiempo en
+ * cola), password.hashing.rejected y password.hashing.queue.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private static final long REJECTED_RETRY_MS = 20;
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final long timeoutMs;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, long timeoutMs, MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("password.hashing").tag("operation", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing").tag("operation", "matches").register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait").register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected").register(meterRegistry);
+        Gauge.builder("password.hashing.queue", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Hay que volver a calcular el hash si se generó con otro factor de trabajo (mayor o menor)
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    /**
+     * Hashes de un lote (altas masivas) en paralelo sobre el mismo pool. Como mucho hay
+     * maxInFlight hashes del lote en el pool a la vez, así los logins solo esperan detrás de esos
+     * pocos; si la cola está llena por los logins, el lote espera en lugar de fallar.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords, int maxInFlight) {
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        Semaphore inFlight = new Semaphore(Math.max(1, maxInFlight));
+        try {
+            for (CharSequence rawPassword : rawPasswords) {
+                inFlight.acquire();
+                futures.add(submitWhenAccepted(() -> {
+                    try {
+                        return encodeTimer.recordCallable(() -> delegate.encode(rawPassword));
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            List<String> hashes = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+            return hashes;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException();
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public int getThreads() {
+        return executor.getCorePoolSize();
+    }
+
+    private <T> Future<T> submitWhenAccepted(Callable<T> work) throws InterruptedException {
+        while (true) {
+            try {
+                return executor.submit(work);
+            } catch (RejectedExecutionException e) {
+                if (executor.isShutdown()) {
+                    throw new PasswordHashingBusyException();
+                }
+                Thread.sleep(REJECTED_RETRY_MS);
+            }
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Timer timer, Callable<T> work) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(work);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException();
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingBusyException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package com.alejrico.moviesystem.user_service.config;
 
-import org.springframework.boot.context.properties.ConfigurationProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -13,31 +20,83 @@ import java.util.Properties;
 @Configuration
 public class DatabaseConfig {
 
+    @Value("${user.cache.enabled:true}")
+    private boolean cacheEnabled;
+
+    @Value("${user.jpa.ddl-auto:update}")
+    private String ddlAuto;
+
+    // Todo el SQL formateado por consola: solo en desarrollo (perfil dev)
+    @Value("${user.jpa.log-all-sql:false}")
+    private boolean logAllSql;
+
+    // UserSequenceInitializer como parámetro: user_seq queda alineada antes de crear el EntityManagerFactory
     @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource, SlowQueryLog slowQueryLog,
+                                                                       UserSequenceInitializer userSequenceInitializer) {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
-        em.setDataSource(dataSource);
+        em.setDataSource(slowQueryLog.wrap(dataSource));
         em.setPackagesToScan("com.alejrico.moviesystem.user_service.model");
 
         HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
         em.setJpaVendorAdapter(vendorAdapter);
 
-        Properties properties = new Properties();
-        properties.setProperty("hibernate.dialect", "org.hibernate.dialect.MySQLDialect");
-        properties.setProperty("hibernate.hbm2ddl.auto", "update");
-        properties.setProperty("hibernate.show_sql", "true");
-        properties.setProperty("hibernate.format_sql", "true");
-        properties.setProperty("hibernate.use_sql_comments", "true");
-        
+        Properties properties = jpaProperties("org.hibernate.dialect.MySQLDialect", cacheEnabled);
+        properties.setProperty("hibernate.hbm2ddl.auto", ddlAuto);
+        if (logAllSql) {
+            properties.setProperty("hibernate.show_sql", "true");
+            properties.setProperty("hibernate.format_sql", "true");
+            properties.setProperty("hibernate.use_sql_comments", "true");
+        }
+
         em.setJpaProperties(properties);
 
         return em;
     }
 
+    /**
+     * Propiedades de Hibernate comunes. Con la caché activada: caché de segundo nivel (Ehcache
+     * vía JCache, regiones en ehcache.xml) para Role (solo lectura) y User (lectura/escritura),
+     * ids naturales para el nombre de usuario, caché de consultas para los roles por nombre y
+     * estadísticas para las métricas. Los INSERT y UPDATE se envían en lotes JDBC.
+     */
+    public static Properties jpaProperties(String dialect, boolean cacheEnabled) {
+        Properties properties = new Properties();
+        properties.setProperty("hibernate.dialect", dialect);
+        properties.setProperty("hibernate.generate_statistics", "true");
+        // Las estadísticas son para las métricas: sin el resumen "Session Metrics" en el log de cada sesión
+        properties.setProperty("hibernate.session.events.log", "false");
+        // INSERT/UPDATE agrupados en lotes (altas masivas, rotación de refresh tokens); con MySQL
+        // requiere rewriteBatchedStatements en la URL
+        properties.setProperty("hibernate.jdbc.batch_size", "50");
+        properties.setProperty("hibernate.order_inserts", "true");
+        properties.setProperty("hibernate.order_updates", "true");
+        properties.setProperty("hibernate.jdbc.batch_versioned_data", "true");
+        properties.setProperty("hibernate.cache.use_second_level_cache", String.valueOf(cacheEnabled));
+        properties.setProperty("hibernate.cache.use_query_cache", String.valueOf(cacheEnabled));
+        if (cacheEnabled) {
+            properties.setProperty("hibernate.cache.region.factory_class", "jcache");
+            properties.setProperty("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+            // URI ya resuelta: el prefijo classpath: depende del class loader que use Hibernate
+            properties.setProperty("hibernate.javax.cache.uri", DatabaseConfig.class.getResource("/ehcache.xml").toString());
+            properties.setProperty("hibernate.javax.cache.missing_cache_strategy", "fail");
+        }
+        return properties;
+    }
+
     @Bean
     public JpaTransactionManager transactionManager(LocalContainerEntityManagerFactoryBean entityManagerFactory) {
         JpaTransactionManager transactionManager = new JpaTransactionManager();
         transactionManager.setEntityManagerFactory(entityManagerFactory.getObject());
         return transactionManager;
     }
-} 
\ No newline at end of file
+
+    // Estadísticas de Hibernate (aciertos/fallos de caché, sentencias...) en /actuator/metrics
+    @EventListener(ApplicationReadyEvent.class)
+    public void bindHibernateMetrics(ApplicationReadyEvent event) {
+        EntityManagerFactory entityManagerFactory = event.getApplicationContext().getBean(EntityManagerFactory.class);
+        MeterRegistry meterRegistry = event.getApplicationContext().getBean(MeterRegistry.class);
+        new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class), "userService", Tags.empty())
+                .bindTo(meterRegistry);
+    }
+}
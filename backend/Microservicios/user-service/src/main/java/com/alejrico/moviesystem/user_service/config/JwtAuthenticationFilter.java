@@ -0,0 +1,79 @@
+package com.alejrico.moviesystem.user_service.config;
+
+import com.alejrico.moviesystem.common.security.ServiceTokenInterceptor;
+import com.alejrico.moviesystem.user_service.service.JwtService;
+import com.alejrico.moviesystem.user_service.service.TokenRevocationService;
+import com.alejrico.moviesystem.user_service.service.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+// Autentica la petición a partir del token de acceso (cabecera Authorization: Bearer ...) o de la
+// credencial de servicio (X-Service-Token), que da ROLE_SERVICE para las rutas internas
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final List<GrantedAuthority> SERVICE_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_SERVICE"));
+
+    private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
+    private final byte[] serviceToken;
+
+    public JwtAuthenticationFilter(JwtService jwtService, TokenRevocationService tokenRevocationService,
+                                   String serviceToken) {
+        this.jwtService = jwtService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.serviceToken = ServiceTokenInterceptor.requireToken(serviceToken).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String credential = request.getHeader(ServiceTokenInterceptor.HEADER);
+        if (credential != null) {
+            // Comparación en tiempo constante; una credencial errónea deja la petición como anónima
+            if (MessageDigest.isEqual(serviceToken, credential.getBytes(StandardCharsets.UTF_8))) {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken("service", null, SERVICE_AUTHORITIES));
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwtService.parseAccessToken(header.substring(7));
+                Long userId = Long.valueOf(claims.getSubject());
+                if (tokenRevocationService.isRevoked(claims.getId(), userId, claims.getIssuedAt().toInstant())) {
+                    // Token revocado (logout o cierre de sesión forzado): como uno inválido
+                    throw new JwtException("Token revocado");
+                }
+                List<?> roles = claims.get("roles", List.class);
+                List<GrantedAuthority> authorities = roles.stream()
+                        .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(role)))
+                        .toList();
+                UserPrincipal principal = new UserPrincipal(userId,
+                        claims.get("username", String.class), null, null, authorities);
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(principal, null, authorities));
+            } catch (JwtException | IllegalArgumentException e) {
+                // Token inválido o caducado: la petición sigue como anónima
+                SecurityContextHolder.clearContext();
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
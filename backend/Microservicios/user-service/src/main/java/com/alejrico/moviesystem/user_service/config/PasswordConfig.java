@@ -1,15 +1,21 @@
 package com.alejrico.moviesystem.user_service.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class PasswordConfig {
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    // Pool del tamaño de los núcleos por defecto (0 = availableProcessors)
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                                  @Value("${auth.password.bcrypt-strength:10}") int strength,
+                                                  @Value("${auth.password.hashing-threads:0}") int threads,
+                                                  @Value("${auth.password.hashing-queue-capacity:64}") int queueCapacity,
+                                                  @Value("${auth.password.hashing-timeout-ms:5000}") long timeoutMs) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(strength, poolSize, queueCapacity, timeoutMs, meterRegistry);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,9 @@
+package com.alejrico.moviesystem.user_service.config;
+
+// El pool de BCrypt está saturado; el cliente debe reintentar más tarde (503)
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException() {
+        super("Servicio de autenticación saturado, inténtalo de nuevo en unos segundos");
+    }
+}
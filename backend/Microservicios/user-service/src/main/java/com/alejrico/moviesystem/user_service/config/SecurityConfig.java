@@ -1,7 +1,12 @@
 package com.alejrico.moviesystem.user_service.config;
 
+import com.alejrico.moviesystem.user_service.service.JwtService;
+import com.alejrico.moviesystem.user_service.service.TokenRevocationService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -10,6 +15,8 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -40,15 +47,25 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtService jwtService,
+                                           TokenRevocationService tokenRevocationService,
+                                           @Value("${auth.service-token}") String serviceToken) throws Exception {
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> 
-                    auth.requestMatchers("/api/auth/**").permitAll()
+                    // Rutas internas (tokens revocados para los demás servicios): solo con la credencial de servicio
+                    auth.requestMatchers("/api/internal/**").hasRole("SERVICE")
+                        .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/actuator/**").permitAll()
-                        .anyRequest().permitAll() // Temporalmente permitir todo para testing
-                );
+                        .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // El resto exige token; los permisos concretos van en @PreAuthorize
+                        .anyRequest().authenticated()
+                )
+                // Sin token o con uno no válido se responde 401 (no hay formulario de login al que redirigir)
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(new JwtAuthenticationFilter(jwtService, tokenRevocationService, serviceToken), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
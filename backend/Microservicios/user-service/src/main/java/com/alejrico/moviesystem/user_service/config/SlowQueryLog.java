@@ -0,0 +1,160 @@
+package com.alejrico.moviesystem.user_service.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Registro de consultas lentas en lugar de volcar todo el SQL. Envuelve el DataSource de JPA y
+ * mide cada ejecución; si supera el umbral se cuenta en db.slow-queries y, para una fracción
+ * configurable de ellas, se escribe una línea en el logger "slow-sql" (appender asíncrono en
+ * logback-spring.xml, así que el hilo de la petición no espera a la consola).
+ * <p>
+ * La línea incluye el tiempo de ejecución, el tiempo desde el primer parámetro enlazado hasta
+ * la ejecución, el número de parámetros y filas del lote, y el SQL. Los valores de los
+ * parámetros no se escriben: entre ellos hay hashes de contraseñas y tokens.
+ */
+@Component
+public class SlowQueryLog {
+
+    private static final Logger LOG = LoggerFactory.getLogger("slow-sql");
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final Counter slowQueries;
+    private final Consumer<String> sink;
+
+    @Autowired
+    public SlowQueryLog(@Value("${user.sql.slow-query-threshold-ms:200}") long thresholdMs,
+                        @Value("${user.sql.slow-query-sample-rate:1.0}") double sampleRate,
+                        MeterRegistry meterRegistry) {
+        this(thresholdMs, sampleRate, meterRegistry, LOG::warn);
+    }
+
+    SlowQueryLog(long thresholdMs, double sampleRate, MeterRegistry meterRegistry, Consumer<String> sink) {
+        this.thresholdNanos = thresholdMs * 1_000_000;
+        this.sampleRate = sampleRate;
+        this.slowQueries = Counter.builder("db.slow-queries").register(meterRegistry);
+        this.sink = sink;
+    }
+
+    // Con umbral 0 o negativo no se envuelve nada
+    public DataSource wrap(DataSource dataSource) {
+        if (thresholdNanos <= 0) {
+            return dataSource;
+        }
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection connection ? wrapConnection(connection) : result;
+        });
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, statement, new StatementTimer(sql));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, statement, new StatementTimer(sql));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, statement, new StatementTimer(null));
+            }
+            return result;
+        });
+    }
+
+    void record(String sql, long executeNanos, long bindNanos, int parameters, int batchRows) {
+        if (executeNanos < thresholdNanos) {
+            return;
+        }
+        slowQueries.increment();
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        sink.accept(String.format("Consulta lenta: %d ms (parámetros enlazados %d ms antes, %d parámetros, %d filas en lote) %s",
+                executeNanos / 1_000_000, bindNanos / 1_000_000, parameters, batchRows, sql));
+    }
+
+    // Estado de una sentencia: parámetros enlazados desde la última ejecución y filas del lote
+    private class StatementTimer implements Handler<Statement> {
+        private final String preparedSql;
+        private long firstBind;
+        private int parameters;
+        private int batchRows;
+
+        StatementTimer(String preparedSql) {
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object handle(Statement target, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                if (parameters == 0) {
+                    firstBind = System.nanoTime();
+                }
+                parameters = Math.max(parameters, index);
+                return invoke(target, method, args);
+            }
+            if (name.equals("addBatch")) {
+                batchRows++;
+                return invoke(target, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(target, method, args);
+            } finally {
+                long end = System.nanoTime();
+                String sql = preparedSql != null ? preparedSql
+                        : args != null && args.length > 0 && args[0] instanceof String s ? s : "(lote)";
+                record(sql, end - start, parameters > 0 ? start - firstBind : 0, parameters, batchRows);
+                parameters = 0;
+                batchRows = 0;
+            }
+        }
+    }
+
+    private interface Handler<T> {
+        Object handle(T target, Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler<? super T> handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> handler.handle(target, method, args);
+        };
+        return (T) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
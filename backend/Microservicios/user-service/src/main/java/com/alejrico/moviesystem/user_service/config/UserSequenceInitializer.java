@@ -0,0 +1,63 @@
+package com.alejrico.moviesystem.user_service.config;
+
+import com.alejrico.moviesystem.user_service.model.User;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Alinea la secuencia de ids de usuario (tabla user_seq en MySQL) con los ids ya existentes
+ * antes de que arranque el EntityManagerFactory: {@link DatabaseConfig} la recibe como
+ * dependencia, así que ningún INSERT puede usar un bloque de ids desalineado.
+ * <p>
+ * Los usuarios creados con el antiguo AUTO_INCREMENT tienen ids que la secuencia desconoce. Si
+ * user_seq aún no existe (primer arranque tras el cambio) se crea ya alineada; si existe, se
+ * adelanta. Con el optimizador pooled el valor leído es el final del bloque, de ahí el
+ * + tamaño de bloque. En una base de datos vacía no hace nada: Hibernate crea ambas tablas.
+ */
+@Component
+public class UserSequenceInitializer implements InitializingBean {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserSequenceInitializer(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        try {
+            align();
+        } catch (DataAccessException e) {
+            System.err.println("No se pudo alinear user_seq: " + e.getMessage());
+        }
+    }
+
+    // Número de filas tocadas en user_seq (0 si ya estaba alineada o no hay usuarios)
+    int align() {
+        Long maxId;
+        try {
+            maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from users", Long.class);
+        } catch (BadSqlGrammarException e) {
+            return 0; // Esquema nuevo
+        }
+        if (maxId == null || maxId == 0) {
+            return 0;
+        }
+
+        jdbcTemplate.execute("create table if not exists user_seq (next_val bigint)");
+        Integer rows = jdbcTemplate.queryForObject("select count(*) from user_seq", Integer.class);
+        int updated = rows == null || rows == 0
+                ? jdbcTemplate.update("insert into user_seq (next_val) values (?)", maxId + User.ID_ALLOCATION_SIZE + 1)
+                : jdbcTemplate.update("update user_seq set next_val = ? where next_val <= ?",
+                        maxId + User.ID_ALLOCATION_SIZE + 1, maxId + User.ID_ALLOCATION_SIZE);
+        if (updated > 0) {
+            System.out.println("user_seq aligned with existing user ids");
+        }
+        return updated;
+    }
+}
@@ -1,15 +1,24 @@
 package com.alejrico.moviesystem.user_service.controller;
 
+import com.alejrico.moviesystem.user_service.config.PasswordHashingBusyException;
 import com.alejrico.moviesystem.user_service.dto.AuthResponse;
 import com.alejrico.moviesystem.user_service.dto.LoginRequest;
+import com.alejrico.moviesystem.user_service.dto.RefreshRequest;
 import com.alejrico.moviesystem.user_service.dto.RegisterRequest;
 import com.alejrico.moviesystem.user_service.dto.UserResponse;
 import com.alejrico.moviesystem.user_service.service.AuthService;
+import com.alejrico.moviesystem.user_service.service.JwtService;
+import com.alejrico.moviesystem.user_service.service.LoginThrottledException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -17,30 +26,64 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final JwtService jwtService;
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest loginRequest,
+                                              HttpServletRequest request) {
         try {
-            AuthResponse authResponse = authService.login(loginRequest);
+            // Con server.forward-headers-strategy=native, la IP del cliente real detrás de Traefik
+            AuthResponse authResponse = authService.login(loginRequest, request.getRemoteAddr());
             return ResponseEntity.ok(authResponse);
+        } catch (LoginThrottledException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        } catch (PasswordHashingBusyException e) {
+            return serviceBusy();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    // Nuevo token de acceso a partir del refresh token (que se renueva en cada uso)
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest refreshRequest) {
+        try {
+            return ResponseEntity.ok(authService.refresh(refreshRequest.getRefreshToken()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    // Clave pública con la que los demás servicios validan los tokens sin llamar a user-service
+    @GetMapping("/public-key")
+    public ResponseEntity<Map<String, String>> publicKey() {
+        return ResponseEntity.ok(jwtService.getPublicKeyInfo());
+    }
+
     @PostMapping("/register")
     public ResponseEntity<UserResponse> register(@Valid @RequestBody RegisterRequest registerRequest) {
         try {
             UserResponse userResponse = authService.register(registerRequest);
             return ResponseEntity.ok(userResponse);
+        } catch (PasswordHashingBusyException e) {
+            return serviceBusy();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    // Revoca el refresh token del cuerpo y el token de acceso de la cabecera Authorization
     @PostMapping("/logout")
-    public ResponseEntity<String> logout() {
-        authService.logout();
+    public ResponseEntity<String> logout(@RequestBody(required = false) RefreshRequest refreshRequest,
+                                         @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        authService.logout(refreshRequest != null ? refreshRequest.getRefreshToken() : null, accessToken);
         return ResponseEntity.ok("Logout successful");
     }
-} 
\ No newline at end of file
+
+    private static <T> ResponseEntity<T> serviceBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.alejrico.moviesystem.user_service.controller;
+
+import com.alejrico.moviesystem.user_service.dto.RevocationDelta;
+import com.alejrico.moviesystem.user_service.dto.RevocationEntry;
+import com.alejrico.moviesystem.user_service.service.TokenRevocationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Tokens revocados para RevocationList de los demás servicios; solo con la credencial de servicio
+// (SecurityConfig) y fuera de las rutas que publica Traefik
+@RestController
+@RequestMapping("/api/internal/revocations")
+@RequiredArgsConstructor
+public class RevocationController {
+
+    private final TokenRevocationService tokenRevocationService;
+
+    // Sincronización incremental del filtro de tokens revocados de los demás servicios
+    @GetMapping
+    public ResponseEntity<RevocationDelta> revocations(@RequestParam(defaultValue = "0") long after,
+                                                       @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(tokenRevocationService.changesSince(after, limit));
+    }
+
+    // Comprobación exacta cuando el filtro de Bloom de un servicio da positivo
+    @GetMapping("/{key}")
+    public ResponseEntity<RevocationEntry> revocation(@PathVariable String key) {
+        return tokenRevocationService.find(key)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -1,15 +1,28 @@
 package com.alejrico.moviesystem.user_service.controller;
 
+import com.alejrico.moviesystem.user_service.dto.ProvisioningResult;
 import com.alejrico.moviesystem.user_service.dto.RegisterRequest;
+import com.alejrico.moviesystem.user_service.dto.UserPageResponse;
 import com.alejrico.moviesystem.user_service.dto.UserResponse;
+import com.alejrico.moviesystem.user_service.service.AuthService;
+import com.alejrico.moviesystem.user_service.service.UserProvisioningService;
 import com.alejrico.moviesystem.user_service.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/users")
@@ -18,12 +31,44 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final AuthService authService;
+    private final UserProvisioningService userProvisioningService;
+    private final ObjectMapper objectMapper;
 
+    // Listado paginado: ?page=0&size=20&sort=username,asc&search=ana (prefijo de usuario o email)
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<UserResponse> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<UserPageResponse> getAllUsers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String search) {
+        try {
+            return ResponseEntity.ok(userService.getUsersPage(search, page, size, sort));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Alta masiva: un RegisterRequest por línea (NDJSON); responde un resultado por línea a medida que avanza
+    @PostMapping(value = "/bulk", consumes = {"application/x-ndjson", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public void provisionUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        BufferedReader input = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+        Writer output = response.getWriter();
+        userProvisioningService.provision(input, results -> {
+            try {
+                for (ProvisioningResult result : results) {
+                    output.write(objectMapper.writeValueAsString(result));
+                    output.write('\n');
+                }
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 
     @GetMapping("/{id}")
@@ -57,6 +102,17 @@ public class UserController {
         }
     }
 
+    // Cierre de sesión forzado: los tokens ya emitidos dejan de aceptarse en todos los servicios
+    @PostMapping("/{id}/sign-out")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> signOutEverywhere(@PathVariable Long id) {
+        if (userService.getUserById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        authService.signOutEverywhere(id);
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/{id}/promote")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<UserResponse> promoteToAdmin(@PathVariable Long id) {
@@ -13,8 +13,21 @@ public class AuthResponse {
     private String type = "Bearer";
     private UserResponse user;
     
+    // Token de larga duración para pedir nuevos tokens de acceso en /api/auth/refresh
+    private String refreshToken;
+    
+    // Segundos de validez del token de acceso
+    private long expiresIn;
+    
     public AuthResponse(String token, UserResponse user) {
         this.token = token;
         this.user = user;
     }
-} 
\ No newline at end of file
+    
+    public AuthResponse(String token, String refreshToken, long expiresIn, UserResponse user) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+        this.expiresIn = expiresIn;
+        this.user = user;
+    }
+}
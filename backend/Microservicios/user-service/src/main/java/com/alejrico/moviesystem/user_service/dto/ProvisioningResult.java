@@ -0,0 +1,18 @@
+package com.alejrico.moviesystem.user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Resultado de una fila del alta masiva; status = created | duplicate | invalid | failed
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProvisioningResult {
+    
+    private long line;
+    private String username;
+    private String status;
+    private Long id;
+    private String message;
+}
@@ -0,0 +1,18 @@
+package com.alejrico.moviesystem.user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Revocaciones posteriores a un cursor; cursor es el id de la última entrada devuelta
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevocationDelta {
+    
+    private List<RevocationEntry> entries;
+    private long cursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,17 @@
+package com.alejrico.moviesystem.user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Revocación publicada a los demás servicios; instantes en milisegundos desde epoch
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevocationEntry {
+    
+    private long id;
+    private String key;
+    private long revokedAt;
+    private long expiresAt;
+}
@@ -0,0 +1,19 @@
+package com.alejrico.moviesystem.user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageResponse {
+    
+    private List<UserSummaryResponse> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
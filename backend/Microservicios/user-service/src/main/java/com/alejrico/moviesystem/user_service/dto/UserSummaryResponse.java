@@ -0,0 +1,32 @@
+package com.alejrico.moviesystem.user_service.dto;
+
+import com.alejrico.moviesystem.user_service.model.ERole;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Fila del listado de administración: solo las columnas que se muestran, sin contraseña ni entidad
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryResponse {
+    
+    private Long id;
+    private String username;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private List<ERole> roles = new ArrayList<>();
+    
+    // Usado por la expresión constructora de UserRepository.findSummaries; los roles se añaden después
+    public UserSummaryResponse(Long id, String username, String email, String firstName, String lastName) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+}
@@ -0,0 +1,40 @@
+package com.alejrico.moviesystem.user_service.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "refresh_tokens",
+        uniqueConstraints = @UniqueConstraint(columnNames = "tokenHash"),
+        indexes = @Index(name = "idx_refresh_tokens_user", columnList = "userId"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Solo se guarda el SHA-256 del token; el valor en claro lo tiene únicamente el cliente
+    @Column(length = 64, nullable = false)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    private boolean revoked;
+
+    public RefreshToken(String tokenHash, Long userId, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+}
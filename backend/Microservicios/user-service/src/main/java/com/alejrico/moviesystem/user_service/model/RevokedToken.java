@@ -0,0 +1,45 @@
+package com.alejrico.moviesystem.user_service.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Token de acceso revocado. tokenKey es el jti del token (logout) o "user:{id}" para invalidar
+ * todos los tokens de un usuario emitidos hasta revokedAt (cierre de sesión forzado). La fila
+ * sobra a partir de expiresAt, cuando los tokens afectados ya han caducado por sí mismos.
+ */
+@Entity
+@Table(name = "revoked_tokens",
+        indexes = {
+                @Index(name = "idx_revoked_tokens_key", columnList = "tokenKey"),
+                @Index(name = "idx_revoked_tokens_expires", columnList = "expiresAt")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+public class RevokedToken {
+
+    // Creciente: sirve de cursor para la sincronización incremental de los demás servicios
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(length = 64, nullable = false)
+    private String tokenKey;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    public RevokedToken(String tokenKey, Instant revokedAt, Instant expiresAt) {
+        this.tokenKey = tokenKey;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+}
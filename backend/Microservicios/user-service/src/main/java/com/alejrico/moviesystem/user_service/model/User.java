@@ -7,6 +7,10 @@ import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -17,15 +21,24 @@ import java.util.Set;
                 @UniqueConstraint(columnNames = "username"),
                 @UniqueConstraint(columnNames = "email")
         })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @Getter
 @Setter
 @NoArgsConstructor
 public class User {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Secuencia con asignación por bloques (en MySQL, tabla user_seq): a diferencia de IDENTITY
+    // permite agrupar los INSERT en lotes JDBC. DataInitializer la alinea con los ids existentes.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = User.ID_ALLOCATION_SIZE)
     private Long id;
 
+    // Identificador natural (no cambia): las búsquedas por nombre usan la caché de ids naturales
+    @NaturalId
     @NotBlank
     @Size(max = 50)
     private String username;
@@ -43,6 +56,7 @@ public class User {
     private String lastName;
 
     @ManyToMany(fetch = FetchType.EAGER) // Cargar roles junto con el usuario
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id"))
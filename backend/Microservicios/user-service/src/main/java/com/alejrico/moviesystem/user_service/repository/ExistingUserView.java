@@ -0,0 +1,7 @@
+package com.alejrico.moviesystem.user_service.repository;
+
+// Nombre de usuario y email ya registrados (detección de duplicados en las altas masivas)
+public interface ExistingUserView {
+    String getUsername();
+    String getEmail();
+}
@@ -0,0 +1,26 @@
+package com.alejrico.moviesystem.user_service.repository;
+
+import com.alejrico.moviesystem.user_service.model.RevokedToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    // Revocaciones vigentes posteriores al cursor, en orden de alta
+    List<RevokedToken> findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(Long id, Instant now, Pageable pageable);
+
+    // La más reciente: un usuario puede tener varios cierres de sesión forzados
+    Optional<RevokedToken> findFirstByTokenKeyOrderByRevokedAtDesc(String tokenKey);
+
+    @Modifying
+    @Query("delete from RevokedToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -2,12 +2,15 @@ package com.alejrico.moviesystem.user_service.repository;
 
 import com.alejrico.moviesystem.user_service.model.ERole;
 import com.alejrico.moviesystem.user_service.model.Role;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Role> findByName(ERole name);
 }
\ No newline at end of file
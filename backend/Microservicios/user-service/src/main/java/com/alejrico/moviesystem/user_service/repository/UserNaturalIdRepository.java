@@ -0,0 +1,11 @@
+package com.alejrico.moviesystem.user_service.repository;
+
+import com.alejrico.moviesystem.user_service.model.User;
+
+import java.util.Optional;
+
+// Búsquedas por el identificador natural de User (username), implementadas con la API de Hibernate
+public interface UserNaturalIdRepository {
+
+    Optional<User> findByUsername(String username);
+}
@@ -0,0 +1,29 @@
+package com.alejrico.moviesystem.user_service.repository;
+
+import com.alejrico.moviesystem.user_service.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Carga por nombre de usuario con bySimpleNaturalId: la caché de ids naturales resuelve el
+ * nombre al id y el usuario sale de la caché de segundo nivel, sin consultas mientras ambas
+ * estén calientes. A diferencia de la caché de consultas, cualquier escritura en la tabla
+ * users no la invalida entera.
+ */
+@Transactional(readOnly = true)
+public class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+    private final EntityManager entityManager;
+
+    public UserNaturalIdRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(User.class).loadOptional(username);
+    }
+}
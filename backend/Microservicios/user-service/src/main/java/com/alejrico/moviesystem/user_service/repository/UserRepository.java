@@ -1,15 +1,52 @@
 package com.alejrico.moviesystem.user_service.repository;
 
+import com.alejrico.moviesystem.user_service.dto.UserSummaryResponse;
 import com.alejrico.moviesystem.user_service.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
+    // findByUsername va por el identificador natural (UserNaturalIdRepositoryImpl)
     Optional<User> findByEmail(String email);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    // Rehash al iniciar sesión: solo si el hash no ha cambiado desde que se comprobó la contraseña
+    @Modifying
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int replacePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    // Página del listado de administración: solo las columnas mostradas, sin cargar entidades ni roles
+    @Query(value = "select new com.alejrico.moviesystem.user_service.dto.UserSummaryResponse("
+            + "u.id, u.username, u.email, u.firstName, u.lastName) from User u",
+            countQuery = "select count(u) from User u")
+    Page<UserSummaryResponse> findSummaries(Pageable pageable);
+
+    // Búsqueda por prefijo de usuario o email; el prefijo llega ya escapado y con el % final
+    @Query(value = "select new com.alejrico.moviesystem.user_service.dto.UserSummaryResponse("
+            + "u.id, u.username, u.email, u.firstName, u.lastName) from User u "
+            + "where u.username like :prefix escape '!' or u.email like :prefix escape '!'",
+            countQuery = "select count(u) from User u "
+                    + "where u.username like :prefix escape '!' or u.email like :prefix escape '!'")
+    Page<UserSummaryResponse> findSummariesByPrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    // Roles de todos los usuarios de una página en una sola consulta
+    @Query("select u.id as userId, r.name as role from User u join u.roles r where u.id in :userIds")
+    List<UserRoleView> findRolesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    // Usuarios que ya tienen alguno de estos nombres o emails: una consulta por bloque de altas masivas
+    @Query("select u.username as username, u.email as email from User u "
+            + "where u.username in :usernames or u.email in :emails")
+    List<ExistingUserView> findExisting(@Param("usernames") Collection<String> usernames,
+                                        @Param("emails") Collection<String> emails);
+}
@@ -0,0 +1,9 @@
+package com.alejrico.moviesystem.user_service.repository;
+
+import com.alejrico.moviesystem.user_service.model.ERole;
+
+// Proyección (usuario, rol) para cargar los roles de una página de usuarios en una sola consulta
+public interface UserRoleView {
+    Long getUserId();
+    ERole getRole();
+}
@@ -4,31 +4,163 @@ import com.alejrico.moviesystem.user_service.dto.AuthResponse;
 import com.alejrico.moviesystem.user_service.dto.LoginRequest;
 import com.alejrico.moviesystem.user_service.dto.RegisterRequest;
 import com.alejrico.moviesystem.user_service.dto.UserResponse;
+import com.alejrico.moviesystem.user_service.model.RefreshToken;
 import com.alejrico.moviesystem.user_service.model.User;
+import com.alejrico.moviesystem.user_service.repository.RefreshTokenRepository;
+import com.alejrico.moviesystem.user_service.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
 
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     private final AuthenticationManager authenticationManager;
     private final UserService userService;
     private final PasswordEncoder passwordEncoder;
+    private final JwtService jwtService;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final LoginThrottle loginThrottle;
+    private final TokenRevocationService tokenRevocationService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${auth.jwt.refresh-token-ttl-seconds:604800}")
+    private long refreshTokenTtlSeconds;
+
+    /**
+     * Comprueba las credenciales y emite los tokens. Si el usuario o la IP superan los fallos
+     * permitidos se rechaza con {@link LoginThrottledException} antes de tocar la base de datos
+     * o calcular BCrypt; los nombres que no existen se recuerdan para no volver a buscarlos.
+     * <p>
+     * BCrypt (matches y el posible rehash) se calcula fuera de cualquier transacción, para no
+     * retener una conexión del pool durante decenas de milisegundos; la transacción solo cubre
+     * las escrituras: el rehash y el alta del refresh token.
+     */
+    @Timed(value = "auth.login", histogram = true)
+    public AuthResponse login(LoginRequest loginRequest, String clientIp) {
+        String username = loginRequest.getUsername();
+        loginThrottle.checkAllowed(username, clientIp);
+        if (loginThrottle.isKnownUnknown(username)) {
+            loginThrottle.recordFailure(username, clientIp);
+            throw new RuntimeException("Usuario no encontrado");
+        }
 
-    public AuthResponse login(LoginRequest loginRequest) {
         // Verificar credenciales básicas
-        User user = userService.findByUsername(loginRequest.getUsername())
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        User user = userService.findByUsername(username).orElse(null);
+        if (user == null) {
+            loginThrottle.rememberUnknown(username);
+            loginThrottle.recordFailure(username, clientIp);
+            throw new RuntimeException("Usuario no encontrado");
+        }
         
         if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+            loginThrottle.recordFailure(username, clientIp);
             throw new RuntimeException("Credenciales inválidas");
         }
+        // Si cambió el factor de trabajo, se aprovecha la contraseña en claro para rehacer el hash
+        String currentHash = user.getPassword();
+        String upgradedHash = passwordEncoder.upgradeEncoding(currentHash)
+                ? passwordEncoder.encode(loginRequest.getPassword())
+                : null;
+
+        return transactionTemplate.execute(status -> {
+            if (upgradedHash != null) {
+                userRepository.replacePasswordHash(user.getId(), currentHash, upgradedHash);
+            }
+            return issueTokens(user);
+        });
+    }
+
+    /**
+     * Cambia un refresh token válido por un token de acceso nuevo y otro refresh token (el
+     * usado queda revocado). Si llega un refresh token ya revocado se asume que lo han robado
+     * y se revocan todos los del usuario.
+     */
+    @Transactional(noRollbackFor = RuntimeException.class)
+    public AuthResponse refresh(String refreshToken) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new RuntimeException("Refresh token no válido"));
+        if (stored.isRevoked()) {
+            refreshTokenRepository.revokeAllByUserId(stored.getUserId());
+            throw new RuntimeException("Refresh token ya utilizado");
+        }
+        if (stored.getExpiresAt().isBefore(Instant.now())) {
+            throw new RuntimeException("Refresh token caducado");
+        }
+        stored.setRevoked(true);
+
+        User user = userRepository.findById(stored.getUserId())
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        return issueTokens(user);
+    }
+
+    public UserResponse register(RegisterRequest registerRequest) {
+        UserResponse registered = userService.registerUser(registerRequest);
+        loginThrottle.forgetUnknown(registered.getUsername());
+        return registered;
+    }
+
+    // Revoca el refresh token y el token de acceso actual (deja de aceptarse en todos los servicios)
+    @Transactional
+    public void logout(String refreshToken, String accessToken) {
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                    .ifPresent(stored -> stored.setRevoked(true));
+        }
+        if (accessToken != null && !accessToken.isBlank()) {
+            try {
+                Claims claims = jwtService.parseAccessToken(accessToken);
+                tokenRevocationService.revokeToken(claims.getId(), claims.getExpiration().toInstant());
+            } catch (JwtException | IllegalArgumentException e) {
+                // Token ya caducado o no válido: no hay nada que revocar
+            }
+        }
+        SecurityContextHolder.clearContext();
+    }
+
+    // Cierre de sesión forzado: invalida todos los tokens de acceso y refresh tokens del usuario
+    @Transactional
+    public void signOutEverywhere(Long userId) {
+        refreshTokenRepository.revokeAllByUserId(userId);
+        tokenRevocationService.revokeUser(userId);
+    }
+
+    @Scheduled(cron = "${auth.jwt.refresh-token-cleanup-cron:0 0 4 * * *}")
+    @Transactional
+    public void deleteExpiredRefreshTokens() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            System.out.println("Refresh tokens caducados eliminados: " + deleted);
+        }
+    }
+
+    private AuthResponse issueTokens(User user) {
+        byte[] secret = new byte[32];
+        RANDOM.nextBytes(secret);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        refreshTokenRepository.save(new RefreshToken(hash(refreshToken), user.getId(),
+                Instant.now().plusSeconds(refreshTokenTtlSeconds)));
 
         UserResponse userResponse = new UserResponse(
                 user.getId(),
@@ -39,15 +171,16 @@ public class AuthService {
         );
         userResponse.setRoles(user.getRoles());
 
-        // Por ahora devolver un token simple
-        return new AuthResponse("simple-token-" + user.getId(), userResponse);
-    }
-
-    public UserResponse register(RegisterRequest registerRequest) {
-        return userService.registerUser(registerRequest);
+        return new AuthResponse(jwtService.issueAccessToken(user), refreshToken,
+                jwtService.getAccessTokenTtlSeconds(), userResponse);
     }
 
-    public void logout() {
-        SecurityContextHolder.clearContext();
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
-} 
\ No newline at end of file
+}
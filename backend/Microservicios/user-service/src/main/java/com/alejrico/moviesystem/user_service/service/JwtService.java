@@ -0,0 +1,127 @@
+package com.alejrico.moviesystem.user_service.service;
+
+import com.alejrico.moviesystem.user_service.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Emite los tokens de acceso: JWT firmados con RS256 que llevan el id del usuario, su nombre
+ * y sus roles. Los demás servicios los validan en local con la clave pública publicada en
+ * /api/auth/public-key, sin llamar a user-service en cada petición.
+ */
+@Service
+public class JwtService {
+
+    public static final String ISSUER = "user-service";
+
+    private final KeyPair keyPair;
+    private final String keyId;
+    private final long accessTokenTtlSeconds;
+
+    public JwtService(@Value("${auth.jwt.private-key:}") String privateKey,
+                      @Value("${auth.jwt.public-key:}") String publicKey,
+                      @Value("${auth.jwt.access-token-ttl-seconds:900}") long accessTokenTtlSeconds) {
+        this.keyPair = privateKey.isBlank() || publicKey.isBlank() ? generateKeyPair() : loadKeyPair(privateKey, publicKey);
+        this.keyId = keyId(keyPair.getPublic());
+        this.accessTokenTtlSeconds = accessTokenTtlSeconds;
+    }
+
+    public String issueAccessToken(User user) {
+        Instant now = Instant.now();
+        List<String> roles = user.getRoles().stream()
+                .map(role -> role.getName().name())
+                .toList();
+        return Jwts.builder()
+                .header().keyId(keyId).and()
+                .issuer(ISSUER)
+                .subject(String.valueOf(user.getId()))
+                .id(UUID.randomUUID().toString())
+                .claim("username", user.getUsername())
+                .claim("roles", roles)
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusSeconds(accessTokenTtlSeconds)))
+                .signWith(keyPair.getPrivate(), Jwts.SIG.RS256)
+                .compact();
+    }
+
+    // Valida firma, emisor y caducidad; lanza JwtException si el token no es válido
+    public Claims parseAccessToken(String token) throws JwtException {
+        return Jwts.parser()
+                .verifyWith(keyPair.getPublic())
+                .requireIssuer(ISSUER)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public long getAccessTokenTtlSeconds() {
+        return accessTokenTtlSeconds;
+    }
+
+    // Clave pública (X.509 en Base64) con su identificador, para los verificadores de otros servicios
+    public Map<String, String> getPublicKeyInfo() {
+        return Map.of(
+                "kid", keyId,
+                "alg", "RS256",
+                "key", Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+    }
+
+    private static KeyPair loadKeyPair(String privateKey, String publicKey) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            PrivateKey privateRsa = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decode(privateKey)));
+            PublicKey publicRsa = keyFactory.generatePublic(new X509EncodedKeySpec(decode(publicKey)));
+            return new KeyPair(publicRsa, privateRsa);
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new IllegalStateException("Claves JWT no válidas", e);
+        }
+    }
+
+    // Sin claves configuradas (desarrollo) se genera un par nuevo: los tokens emitidos
+    // dejan de ser válidos al reiniciar el servicio y hay que volver a iniciar sesión
+    private static KeyPair generateKeyPair() {
+        System.out.println("auth.jwt.private-key no configurada: se genera un par de claves temporal");
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Admite Base64 "pelado" o PEM con cabeceras
+    private static byte[] decode(String key) {
+        return Base64.getMimeDecoder().decode(key.replaceAll("-----[A-Z ]+-----", "").trim());
+    }
+
+    private static String keyId(PublicKey publicKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(publicKey.getEncoded());
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
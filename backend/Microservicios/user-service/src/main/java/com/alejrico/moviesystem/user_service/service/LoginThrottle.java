@@ -0,0 +1,159 @@
+package com.alejrico.moviesystem.user_service.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador de intentos de login frente a ataques de diccionario y credential stuffing. Cuenta
+ * los fallos por nombre de usuario y por IP en una ventana deslizante ({@link SlidingWindowSketch},
+ * memoria fija) y, pasado un número de fallos gratis, impone una espera creciente entre intentos
+ * (base·2^n, con tope) y, más allá de un umbral, un bloqueo. Las peticiones en espera se rechazan
+ * antes de consultar la base de datos o calcular BCrypt.
+ * <p>
+ * También recuerda durante un tiempo los nombres de usuario que no existen, para no ir a la base
+ * de datos en cada intento con un nombre inventado. Al registrarse un usuario se olvida su nombre.
+ */
+@Component
+public class LoginThrottle {
+
+    private final SlidingWindowSketch failures;
+    private final LongSupplier clock;
+
+    private final int freeFailuresPerUser;
+    private final int lockoutFailuresPerUser;
+    private final int freeFailuresPerIp;
+    private final int lockoutFailuresPerIp;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long lockoutMs;
+
+    private final Map<String, Long> unknownUsernames = new ConcurrentHashMap<>();
+    private final long unknownUsernameTtlMs;
+    private final int unknownUsernameMaxEntries;
+
+    private final Counter throttled;
+
+    @Autowired
+    public LoginThrottle(@Value("${auth.throttle.window-seconds:900}") long windowSeconds,
+                         @Value("${auth.throttle.sketch-width:16384}") int sketchWidth,
+                         @Value("${auth.throttle.free-failures-per-user:5}") int freeFailuresPerUser,
+                         @Value("${auth.throttle.lockout-failures-per-user:20}") int lockoutFailuresPerUser,
+                         @Value("${auth.throttle.free-failures-per-ip:20}") int freeFailuresPerIp,
+                         @Value("${auth.throttle.lockout-failures-per-ip:200}") int lockoutFailuresPerIp,
+                         @Value("${auth.throttle.base-delay-ms:1000}") long baseDelayMs,
+                         @Value("${auth.throttle.max-delay-ms:60000}") long maxDelayMs,
+                         @Value("${auth.throttle.lockout-seconds:900}") long lockoutSeconds,
+                         @Value("${auth.throttle.unknown-username-ttl-seconds:300}") long unknownUsernameTtlSeconds,
+                         @Value("${auth.throttle.unknown-username-max-entries:100000}") int unknownUsernameMaxEntries,
+                         MeterRegistry meterRegistry) {
+        this(windowSeconds, sketchWidth, freeFailuresPerUser, lockoutFailuresPerUser, freeFailuresPerIp,
+                lockoutFailuresPerIp, baseDelayMs, maxDelayMs, lockoutSeconds, unknownUsernameTtlSeconds,
+                unknownUsernameMaxEntries, meterRegistry, System::currentTimeMillis);
+    }
+
+    LoginThrottle(long windowSeconds, int sketchWidth, int freeFailuresPerUser, int lockoutFailuresPerUser,
+                  int freeFailuresPerIp, int lockoutFailuresPerIp, long baseDelayMs, long maxDelayMs,
+                  long lockoutSeconds, long unknownUsernameTtlSeconds, int unknownUsernameMaxEntries,
+                  MeterRegistry meterRegistry, LongSupplier clock) {
+        // 4 filas y 10 buckets por ventana: con el ancho por defecto, unos 3 MB en total
+        this.failures = new SlidingWindowSketch(4, sketchWidth, 10, windowSeconds * 1000);
+        this.clock = clock;
+        this.freeFailuresPerUser = freeFailuresPerUser;
+        this.lockoutFailuresPerUser = lockoutFailuresPerUser;
+        this.freeFailuresPerIp = freeFailuresPerIp;
+        this.lockoutFailuresPerIp = lockoutFailuresPerIp;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.lockoutMs = lockoutSeconds * 1000;
+        this.unknownUsernameTtlMs = unknownUsernameTtlSeconds * 1000;
+        this.unknownUsernameMaxEntries = unknownUsernameMaxEntries;
+        this.throttled = Counter.builder("auth.login.throttled").register(meterRegistry);
+        Gauge.builder("auth.login.unknown-usernames", unknownUsernames, Map::size).register(meterRegistry);
+    }
+
+    // Lanza LoginThrottledException si el usuario o la IP tienen que esperar todavía
+    public void checkAllowed(String username, String clientIp) {
+        long now = clock.getAsLong();
+        long until = Math.max(failures.blockedUntil(userKey(username)), failures.blockedUntil(ipKey(clientIp)));
+        if (until > now) {
+            throttled.increment();
+            throw new LoginThrottledException(Math.max(1, (until - now + 999) / 1000));
+        }
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        long now = clock.getAsLong();
+        penalize(userKey(username), now, freeFailuresPerUser, lockoutFailuresPerUser);
+        penalize(ipKey(clientIp), now, freeFailuresPerIp, lockoutFailuresPerIp);
+    }
+
+    public boolean isKnownUnknown(String username) {
+        Long expiresAt = unknownUsernames.get(normalize(username));
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt <= clock.getAsLong()) {
+            unknownUsernames.remove(normalize(username), expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    // Si la caché está llena se purgan los caducados; si sigue llena no se añade (memoria acotada)
+    public void rememberUnknown(String username) {
+        long now = clock.getAsLong();
+        if (unknownUsernames.size() >= unknownUsernameMaxEntries) {
+            unknownUsernames.values().removeIf(expiresAt -> expiresAt <= now);
+            if (unknownUsernames.size() >= unknownUsernameMaxEntries) {
+                return;
+            }
+        }
+        unknownUsernames.put(normalize(username), now + unknownUsernameTtlMs);
+    }
+
+    public void forgetUnknown(String username) {
+        if (username != null) {
+            unknownUsernames.remove(normalize(username));
+        }
+    }
+
+    private void penalize(String key, long now, int freeFailures, int lockoutFailures) {
+        int count = failures.increment(key, now);
+        long delay = delayFor(count, freeFailures, lockoutFailures);
+        if (delay > 0) {
+            failures.blockUntil(key, now + delay);
+        }
+    }
+
+    private long delayFor(int failureCount, int freeFailures, int lockoutFailures) {
+        if (failureCount >= lockoutFailures) {
+            return lockoutMs;
+        }
+        if (failureCount <= freeFailures) {
+            return 0;
+        }
+        int doublings = Math.min(failureCount - freeFailures - 1, 30);
+        return Math.min(maxDelayMs, baseDelayMs << doublings);
+    }
+
+    private static String userKey(String username) {
+        return "user:" + normalize(username);
+    }
+
+    private static String ipKey(String clientIp) {
+        return "ip:" + (clientIp != null ? clientIp : "");
+    }
+
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,16 @@
+package com.alejrico.moviesystem.user_service.service;
+
+// Demasiados intentos fallidos para este usuario o IP; el cliente debe esperar retryAfterSeconds (429)
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(long retryAfterSeconds) {
+        super("Demasiados intentos de inicio de sesión, inténtalo de nuevo en " + retryAfterSeconds + " s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
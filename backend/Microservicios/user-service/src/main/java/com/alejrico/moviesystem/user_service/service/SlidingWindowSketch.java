@@ -0,0 +1,131 @@
+package com.alejrico.moviesystem.user_service.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contador aproximado por clave en una ventana deslizante, con memoria fija e independiente del
+ * número de claves (count-min sketch). La ventana se divide en buckets de tiempo; cada bucket es
+ * un sketch de depth filas × width contadores y se vacía al reutilizarse. Todo son operaciones
+ * atómicas sobre arrays, sin bloqueos.
+ * <p>
+ * La estimación nunca es menor que el valor real (las colisiones solo suman). Al rotar un
+ * bucket pueden perderse incrementos concurrentes con el vaciado, lo que es aceptable para
+ * limitar intentos de login.
+ * <p>
+ * Además guarda por clave un instante "no antes de" (bloqueos): en cada fila se queda el máximo
+ * de las claves que colisionan y se lee el mínimo entre filas, que tampoco es nunca menor que
+ * el real.
+ */
+final class SlidingWindowSketch {
+
+    private final int depth;
+    private final int width;
+    private final int buckets;
+    private final long bucketMillis;
+    private final long seed = ThreadLocalRandom.current().nextLong();
+
+    private final AtomicIntegerArray counts;
+    private final AtomicLongArray bucketEpochs;
+    private final AtomicLongArray deadlines;
+
+    SlidingWindowSketch(int depth, int width, int buckets, long windowMillis) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("width debe ser potencia de dos: " + width);
+        }
+        this.depth = depth;
+        this.width = width;
+        this.buckets = buckets;
+        this.bucketMillis = Math.max(1, windowMillis / buckets);
+        this.counts = new AtomicIntegerArray(buckets * depth * width);
+        this.bucketEpochs = new AtomicLongArray(buckets);
+        this.deadlines = new AtomicLongArray(depth * width);
+        for (int b = 0; b < buckets; b++) {
+            bucketEpochs.set(b, -1);
+        }
+    }
+
+    // Suma uno a la clave y devuelve la estimación en la ventana (incluido este incremento)
+    int increment(String key, long now) {
+        long hash = hash(key);
+        long epoch = now / bucketMillis;
+        int bucket = (int) (epoch % buckets);
+        rotate(bucket, epoch);
+        int base = bucket * depth * width;
+        for (int row = 0; row < depth; row++) {
+            counts.incrementAndGet(base + row * width + slot(hash, row));
+        }
+        return estimate(hash, epoch);
+    }
+
+    int estimate(String key, long now) {
+        return estimate(hash(key), now / bucketMillis);
+    }
+
+    void blockUntil(String key, long until) {
+        long hash = hash(key);
+        for (int row = 0; row < depth; row++) {
+            deadlines.accumulateAndGet(row * width + slot(hash, row), until, Math::max);
+        }
+    }
+
+    long blockedUntil(String key) {
+        long hash = hash(key);
+        long until = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            until = Math.min(until, deadlines.get(row * width + slot(hash, row)));
+        }
+        return until;
+    }
+
+    private int estimate(long hash, long epoch) {
+        int total = 0;
+        for (int i = 0; i < buckets; i++) {
+            long bucketEpoch = epoch - i;
+            int bucket = (int) (bucketEpoch % buckets);
+            if (bucketEpoch < 0 || bucketEpochs.get(bucket) != bucketEpoch) {
+                continue;
+            }
+            int base = bucket * depth * width;
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                min = Math.min(min, counts.get(base + row * width + slot(hash, row)));
+            }
+            total += min;
+        }
+        return total;
+    }
+
+    // El primer hilo que ve un bucket de una vuelta anterior lo reclama y lo vacía
+    private void rotate(int bucket, long epoch) {
+        long current = bucketEpochs.get(bucket);
+        if (current < epoch && bucketEpochs.compareAndSet(bucket, current, epoch)) {
+            int base = bucket * depth * width;
+            for (int i = 0; i < depth * width; i++) {
+                counts.set(base + i, 0);
+            }
+        }
+    }
+
+    // Índice de la fila: h1 + fila·h2 (dos mitades de un hash de 64 bits)
+    private int slot(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return (h1 + row * h2) & (width - 1);
+    }
+
+    // FNV-1a con semilla aleatoria y mezcla final: las colisiones no se pueden preparar de antemano
+    private long hash(String key) {
+        long hash = 0xcbf29ce484222325L ^ seed;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
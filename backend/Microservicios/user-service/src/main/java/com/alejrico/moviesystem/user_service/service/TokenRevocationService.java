@@ -0,0 +1,175 @@
+package com.alejrico.moviesystem.user_service.service;
+
+import com.alejrico.moviesystem.common.security.BloomFilter;
+import com.alejrico.moviesystem.user_service.dto.RevocationDelta;
+import com.alejrico.moviesystem.user_service.dto.RevocationEntry;
+import com.alejrico.moviesystem.user_service.model.RevokedToken;
+import com.alejrico.moviesystem.user_service.repository.RevokedTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Revocación de tokens de acceso. Las revocaciones se guardan en revoked_tokens con su
+ * caducidad y se publican a los demás servicios en /api/internal/revocations (sincronización
+ * incremental por id). Para no consultar la base de datos en cada petición, cada servicio
+ * mantiene un filtro de Bloom con las claves revocadas y solo hace la comprobación exacta
+ * cuando el filtro da positivo.
+ * <p>
+ * Aquí el filtro se alimenta directamente de la tabla (incluidas las revocaciones hechas por
+ * otras réplicas) y se reconstruye cada hora para descartar las caducadas.
+ */
+@Service
+public class TokenRevocationService {
+
+    public static final String USER_KEY_PREFIX = "user:";
+
+    private static final long REBUILD_INTERVAL_MS = 3_600_000;
+    private static final long CURSOR_SETTLE_MS = 10_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long accessTokenTtlSeconds;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    private volatile long cursor;
+    private volatile long lastRebuild;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  JwtService jwtService,
+                                  @Value("${auth.revocation.expected-entries:100000}") int expectedRevocations,
+                                  @Value("${auth.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.accessTokenTtlSeconds = jwtService.getAccessTokenTtlSeconds();
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    // Logout: revoca un token concreto hasta que caduque
+    @Transactional
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        if (tokenId == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        revokedTokenRepository.save(new RevokedToken(tokenId, Instant.now(), expiresAt));
+        filter.add(tokenId);
+    }
+
+    // Cierre de sesión forzado: todos los tokens del usuario emitidos hasta ahora
+    @Transactional
+    public void revokeUser(Long userId) {
+        Instant now = Instant.now();
+        String key = USER_KEY_PREFIX + userId;
+        revokedTokenRepository.save(new RevokedToken(key, now, now.plusSeconds(accessTokenTtlSeconds)));
+        filter.add(key);
+    }
+
+    /**
+     * Comprobación por petición: casi siempre la resuelve el filtro en memoria; solo si da
+     * positivo (token revocado o falso positivo) se consulta la tabla.
+     */
+    public boolean isRevoked(String tokenId, Long userId, Instant issuedAt) {
+        BloomFilter current = filter;
+        if (tokenId != null && current.mightContain(tokenId) && find(tokenId).isPresent()) {
+            return true;
+        }
+        String userKey = USER_KEY_PREFIX + userId;
+        return current.mightContain(userKey) && find(userKey)
+                .map(entry -> revokes(entry, issuedAt))
+                .orElse(false);
+    }
+
+    // El iat del JWT va en segundos: un token emitido en el mismo segundo del cierre también cae
+    public static boolean revokes(RevocationEntry entry, Instant issuedAt) {
+        if (!entry.getKey().startsWith(USER_KEY_PREFIX)) {
+            return true;
+        }
+        return issuedAt == null || issuedAt.getEpochSecond() <= entry.getRevokedAt() / 1000;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<RevocationEntry> find(String key) {
+        return revokedTokenRepository.findFirstByTokenKeyOrderByRevokedAtDesc(key)
+                .filter(revoked -> revoked.getExpiresAt().isAfter(Instant.now()))
+                .map(TokenRevocationService::toEntry);
+    }
+
+    /**
+     * Revocaciones vigentes con id mayor que after (after = 0: todas). El cursor devuelto solo
+     * avanza hasta las entradas con más de unos segundos: una fila con id menor puede confirmarse
+     * después que otra con id mayor, así que las recientes se vuelven a enviar en la siguiente
+     * sincronización (añadir dos veces al filtro no tiene efecto).
+     */
+    @Transactional(readOnly = true)
+    public RevocationDelta changesSince(long after, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), 5000);
+        Instant now = Instant.now();
+        List<RevocationEntry> entries = revokedTokenRepository
+                .findByIdGreaterThanAndExpiresAtAfterOrderByIdAsc(after, now, PageRequest.of(0, pageSize))
+                .stream()
+                .map(TokenRevocationService::toEntry)
+                .toList();
+        long settledBefore = now.toEpochMilli() - CURSOR_SETTLE_MS;
+        long next = after;
+        for (RevocationEntry entry : entries) {
+            if (entry.getRevokedAt() < settledBefore) {
+                next = entry.getId();
+            }
+        }
+        return new RevocationDelta(entries, next, entries.size() == pageSize);
+    }
+
+    // Incorpora al filtro las revocaciones de otras réplicas; cada hora (o si se llena) se reconstruye
+    @Scheduled(fixedDelayString = "${auth.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        try {
+            if (filter.isSaturated() || System.currentTimeMillis() - lastRebuild > REBUILD_INTERVAL_MS) {
+                BloomFilter rebuilt = new BloomFilter(expectedRevocations, falsePositiveRate);
+                long rebuiltCursor = load(rebuilt, 0);
+                filter = rebuilt;
+                cursor = rebuiltCursor;
+                lastRebuild = System.currentTimeMillis();
+            } else {
+                cursor = load(filter, cursor);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("No se pudo sincronizar el filtro de tokens revocados: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${auth.revocation.cleanup-cron:0 30 4 * * *}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = revokedTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            System.out.println("Revocaciones caducadas eliminadas: " + deleted);
+        }
+    }
+
+    private long load(BloomFilter target, long after) {
+        RevocationDelta delta;
+        long position = after;
+        do {
+            delta = changesSince(position, 5000);
+            delta.getEntries().forEach(entry -> target.add(entry.getKey()));
+            if (delta.getCursor() <= position) {
+                break;
+            }
+            position = delta.getCursor();
+        } while (delta.isHasMore());
+        return position;
+    }
+
+    private static RevocationEntry toEntry(RevokedToken revoked) {
+        return new RevocationEntry(revoked.getId(), revoked.getTokenKey(),
+                revoked.getRevokedAt().toEpochMilli(), revoked.getExpiresAt().toEpochMilli());
+    }
+}
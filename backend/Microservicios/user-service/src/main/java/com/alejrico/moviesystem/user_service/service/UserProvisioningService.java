@@ -0,0 +1,280 @@
+package com.alejrico.moviesystem.user_service.service;
+
+import com.alejrico.moviesystem.user_service.config.BoundedPasswordEncoder;
+import com.alejrico.moviesystem.user_service.dto.ProvisioningResult;
+import com.alejrico.moviesystem.user_service.dto.RegisterRequest;
+import com.alejrico.moviesystem.user_service.model.ERole;
+import com.alejrico.moviesystem.user_service.model.Role;
+import com.alejrico.moviesystem.user_service.model.User;
+import com.alejrico.moviesystem.user_service.repository.ExistingUserView;
+import com.alejrico.moviesystem.user_service.repository.RoleRepository;
+import com.alejrico.moviesystem.user_service.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Altas masivas de usuarios (socios de un programa de fidelización). La entrada es NDJSON con
+ * un {@link RegisterRequest} por línea y se procesa en bloques: validación, una sola consulta
+ * de duplicados por bloque, hashes BCrypt en paralelo en el pool acotado y los INSERT en lotes
+ * JDBC dentro de una transacción por bloque. La memoria depende del tamaño del bloque, no del
+ * fichero, y el resultado de cada fila se entrega al terminar su bloque.
+ */
+@Service
+public class UserProvisioningService {
+
+    public static final String CREATED = "created";
+    public static final String DUPLICATE = "duplicate";
+    public static final String INVALID = "invalid";
+    public static final String FAILED = "failed";
+
+    private static final Logger LOG = LoggerFactory.getLogger(UserProvisioningService.class);
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final LoginThrottle loginThrottle;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxHashesInFlight;
+
+    public UserProvisioningService(UserRepository userRepository,
+                                   RoleRepository roleRepository,
+                                   BoundedPasswordEncoder passwordEncoder,
+                                   LoginThrottle loginThrottle,
+                                   EntityManager entityManager,
+                                   PlatformTransactionManager transactionManager,
+                                   Validator validator,
+                                   ObjectMapper objectMapper,
+                                   @Value("${user.bulk.chunk-size:500}") int chunkSize,
+                                   @Value("${user.bulk.max-hashes-in-flight:0}") int maxHashesInFlight) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.loginThrottle = loginThrottle;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxHashesInFlight = maxHashesInFlight > 0 ? maxHashesInFlight : passwordEncoder.getThreads();
+    }
+
+    /**
+     * Procesa todo el NDJSON y entrega a output los resultados de cada bloque, en el orden de
+     * las líneas. Las líneas vacías se ignoran.
+     */
+    public void provision(BufferedReader input, Consumer<List<ProvisioningResult>> output) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        int[] totals = new int[4];
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        String text;
+        long line = 0;
+        while ((text = input.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            chunk.add(parse(line, text));
+            if (chunk.size() == chunkSize) {
+                emit(processChunk(chunk), output, totals);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            emit(processChunk(chunk), output, totals);
+        }
+        LOG.info("Alta masiva: {} creados, {} duplicados, {} no válidos, {} fallidos en {} ms",
+                totals[0], totals[1], totals[2], totals[3], System.currentTimeMillis() - startedAt);
+    }
+
+    private List<ProvisioningResult> processChunk(List<Row> chunk) {
+        ProvisioningResult[] results = new ProvisioningResult[chunk.size()];
+
+        // 1. Validación y duplicados dentro del propio bloque (gana la primera aparición)
+        List<Integer> candidates = new ArrayList<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Row row = chunk.get(i);
+            String invalid = row.error() != null ? row.error() : validate(row.request());
+            if (invalid != null) {
+                results[i] = result(row, INVALID, null, invalid);
+            } else if (usernames.contains(key(row.request().getUsername()))) {
+                results[i] = result(row, DUPLICATE, null, "Nombre de usuario repetido en el fichero");
+            } else if (emails.contains(key(row.request().getEmail()))) {
+                results[i] = result(row, DUPLICATE, null, "Email repetido en el fichero");
+            } else {
+                usernames.add(key(row.request().getUsername()));
+                emails.add(key(row.request().getEmail()));
+                candidates.add(i);
+            }
+        }
+
+        // 2. Duplicados contra la base de datos: una sola consulta para todo el bloque
+        if (!candidates.isEmpty()) {
+            Set<String> takenUsernames = new HashSet<>();
+            Set<String> takenEmails = new HashSet<>();
+            for (ExistingUserView existing : userRepository.findExisting(usernames, emails)) {
+                takenUsernames.add(key(existing.getUsername()));
+                takenEmails.add(key(existing.getEmail()));
+            }
+            candidates.removeIf(i -> {
+                RegisterRequest request = chunk.get(i).request();
+                if (takenUsernames.contains(key(request.getUsername()))) {
+                    results[i] = result(chunk.get(i), DUPLICATE, null, "Username is already taken");
+                    return true;
+                }
+                if (takenEmails.contains(key(request.getEmail()))) {
+                    results[i] = result(chunk.get(i), DUPLICATE, null, "Email is already in use");
+                    return true;
+                }
+                return false;
+            });
+        }
+
+        // 3. Hashes en paralelo y 4. INSERT en lotes
+        if (!candidates.isEmpty()) {
+            List<String> hashes = passwordEncoder.encodeAll(candidates.stream()
+                    .map(i -> chunk.get(i).request().getPassword())
+                    .collect(Collectors.toList()), maxHashesInFlight);
+            List<User> users = new ArrayList<>(candidates.size());
+            for (int c = 0; c < candidates.size(); c++) {
+                users.add(toUser(chunk.get(candidates.get(c)).request(), hashes.get(c)));
+            }
+            insert(chunk, candidates, users, results);
+        }
+
+        // Los nombres dados de alta dejan de estar en la caché de usuarios inexistentes del login
+        for (ProvisioningResult result : results) {
+            if (CREATED.equals(result.getStatus())) {
+                loginThrottle.forgetUnknown(result.getUsername());
+            }
+        }
+        return List.of(results);
+    }
+
+    private void insert(List<Row> chunk, List<Integer> candidates, List<User> users, ProvisioningResult[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Role userRole = userRole();
+                // Las altas masivas no pasan por la caché de segundo nivel: llenarían la región de usuarios
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                for (User user : users) {
+                    user.getRoles().add(userRole);
+                    entityManager.persist(user);
+                }
+                entityManager.flush();
+            });
+            for (int c = 0; c < candidates.size(); c++) {
+                Row row = chunk.get(candidates.get(c));
+                results[candidates.get(c)] = result(row, CREATED, users.get(c).getId(), null);
+            }
+        } catch (RuntimeException e) {
+            // Normalmente un alta concurrente con el mismo nombre o email: se reintenta fila a fila
+            LOG.warn("Fallo al insertar un bloque de altas, se reintenta fila a fila: {}", e.getMessage());
+            for (int c = 0; c < candidates.size(); c++) {
+                results[candidates.get(c)] = insertOne(chunk.get(candidates.get(c)), users.get(c));
+            }
+        }
+    }
+
+    private ProvisioningResult insertOne(Row row, User user) {
+        User copy = toUser(row.request(), user.getPassword());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                copy.getRoles().add(userRole());
+                entityManager.persist(copy);
+                entityManager.flush();
+            });
+            return result(row, CREATED, copy.getId(), null);
+        } catch (RuntimeException e) {
+            if (userRepository.existsByUsername(row.request().getUsername())) {
+                return result(row, DUPLICATE, null, "Username is already taken");
+            }
+            if (userRepository.existsByEmail(row.request().getEmail())) {
+                return result(row, DUPLICATE, null, "Email is already in use");
+            }
+            return result(row, FAILED, null, e.getMessage());
+        }
+    }
+
+    private Role userRole() {
+        return roleRepository.findByName(ERole.ROLE_USER)
+                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
+    }
+
+    private static User toUser(RegisterRequest request, String passwordHash) {
+        User user = new User(request.getUsername(), request.getEmail(), passwordHash);
+        user.setFirstName(request.getFirstName());
+        user.setLastName(request.getLastName());
+        return user;
+    }
+
+    private Row parse(long line, String text) {
+        try {
+            return new Row(line, objectMapper.readValue(text, RegisterRequest.class), null);
+        } catch (JsonProcessingException e) {
+            return new Row(line, null, "JSON no válido: " + e.getOriginalMessage());
+        }
+    }
+
+    private String validate(RegisterRequest request) {
+        Set<ConstraintViolation<RegisterRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static void emit(List<ProvisioningResult> results, Consumer<List<ProvisioningResult>> output, int[] totals) {
+        for (ProvisioningResult result : results) {
+            switch (result.getStatus()) {
+                case CREATED -> totals[0]++;
+                case DUPLICATE -> totals[1]++;
+                case INVALID -> totals[2]++;
+                default -> totals[3]++;
+            }
+        }
+        output.accept(results);
+    }
+
+    // MySQL compara sin distinguir mayúsculas: los duplicados se detectan igual
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static ProvisioningResult result(Row row, String status, Long id, String message) {
+        String username = row.request() != null ? row.request().getUsername() : null;
+        return new ProvisioningResult(row.line(), username, status, id, message);
+    }
+
+    private record Row(long line, RegisterRequest request, String error) {
+    }
+}
@@ -1,13 +1,19 @@
 package com.alejrico.moviesystem.user_service.service;
 
 import com.alejrico.moviesystem.user_service.dto.RegisterRequest;
+import com.alejrico.moviesystem.user_service.dto.UserPageResponse;
 import com.alejrico.moviesystem.user_service.dto.UserResponse;
+import com.alejrico.moviesystem.user_service.dto.UserSummaryResponse;
 import com.alejrico.moviesystem.user_service.model.ERole;
 import com.alejrico.moviesystem.user_service.model.Role;
 import com.alejrico.moviesystem.user_service.model.User;
 import com.alejrico.moviesystem.user_service.repository.RoleRepository;
 import com.alejrico.moviesystem.user_service.repository.UserRepository;
+import com.alejrico.moviesystem.user_service.repository.UserRoleView;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -15,8 +21,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -30,6 +37,9 @@ public class UserService implements UserDetailsService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "username", "email", "firstName", "lastName");
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
@@ -74,10 +84,54 @@ public class UserService implements UserDetailsService {
         return userRepository.findByEmail(email);
     }
 
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::convertToUserResponse)
-                .collect(Collectors.toList());
+    /**
+     * Página del listado de administración. Siempre son tres consultas (página, total y roles de
+     * los usuarios de la página), independientemente del número de usuarios registrados.
+     * search filtra por prefijo de nombre de usuario o email.
+     */
+    @Transactional(readOnly = true)
+    public UserPageResponse getUsersPage(String search, int page, int size, String sort) {
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0),
+                Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                parseSort(sort));
+
+        Page<UserSummaryResponse> users = search == null || search.isBlank()
+                ? userRepository.findSummaries(pageRequest)
+                : userRepository.findSummariesByPrefix(likePrefix(search.trim()), pageRequest);
+
+        if (users.hasContent()) {
+            Map<Long, UserSummaryResponse> byId = users.getContent().stream()
+                    .collect(Collectors.toMap(UserSummaryResponse::getId, user -> user));
+            for (UserRoleView userRole : userRepository.findRolesByUserIds(byId.keySet())) {
+                byId.get(userRole.getUserId()).getRoles().add(userRole.getRole());
+            }
+            users.getContent().forEach(user -> Collections.sort(user.getRoles()));
+        }
+
+        return new UserPageResponse(users.getContent(), users.getNumber(), users.getSize(),
+                users.getTotalElements(), users.getTotalPages());
+    }
+
+    // sort = "campo" o "campo,asc|desc"; solo se admiten columnas del listado
+    private static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("id");
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE_FIELDS.contains(property)) {
+            throw new IllegalArgumentException("No se puede ordenar por: " + property);
+        }
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromString(parts[1].trim())
+                : Sort.Direction.ASC;
+        // Desempate por id para que la paginación sea estable
+        return Sort.by(direction, property).and(Sort.by("id"));
+    }
+
+    // Escapa los comodines de LIKE (el carácter de escape es '!') y añade el % final
+    static String likePrefix(String search) {
+        return search.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
     }
 
     public Optional<UserResponse> getUserById(Long id) {
@@ -3,7 +3,7 @@ package com.alejrico.moviesystem.user_service;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "auth.service-token=credencial-de-prueba")
 class UserServiceApplicationTests {
 
 	@Test
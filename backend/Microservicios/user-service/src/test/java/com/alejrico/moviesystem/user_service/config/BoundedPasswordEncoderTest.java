@@ -0,0 +1,63 @@
+package com.alejrico.moviesystem.user_service.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void shutdown() {
+        encoder.shutdown();
+    }
+
+    @Test
+    void hashesOnThePoolAndRecordsLatency() {
+        encoder = new BoundedPasswordEncoder(4, 2, 8, 5000, meterRegistry);
+        String hash = encoder.encode("secreto");
+
+        assertTrue(encoder.matches("secreto", hash));
+        assertFalse(encoder.matches("otro", hash));
+        assertEquals(1, meterRegistry.get("password.hashing").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("password.hashing").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void rejectsImmediatelyWhenTheQueueIsFull() {
+        encoder = new BoundedPasswordEncoder(14, 1, 1, 60_000, meterRegistry);
+        // Uno en ejecución y otro en cola: el pool y la cola quedan llenos
+        CompletableFuture<?> running = CompletableFuture.runAsync(() -> encoder.encode("a"));
+        CompletableFuture<?> queued = CompletableFuture.runAsync(() -> encoder.encode("b"));
+        while (meterRegistry.get("password.hashing.queue").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.matches("c", "$2a$04$abcdefghijklmnopqrstuu"));
+        assertTrue(System.nanoTime() - start < 100_000_000L, "el rechazo debe ser inmediato");
+        assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+        running.cancel(true);
+        queued.cancel(true);
+    }
+
+    @Test
+    void requestsRehashWhenTheWorkFactorChanges() {
+        encoder = new BoundedPasswordEncoder(5, 1, 8, 5000, meterRegistry);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("x")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("x")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("x")));
+        assertFalse(encoder.upgradeEncoding("texto-plano"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.alejrico.moviesystem.user_service.config;
+
+import com.alejrico.moviesystem.user_service.controller.RevocationController;
+import com.alejrico.moviesystem.user_service.dto.RevocationDelta;
+import com.alejrico.moviesystem.user_service.dto.RevocationEntry;
+import com.alejrico.moviesystem.user_service.model.ERole;
+import com.alejrico.moviesystem.user_service.model.Role;
+import com.alejrico.moviesystem.user_service.model.User;
+import com.alejrico.moviesystem.user_service.service.JwtService;
+import com.alejrico.moviesystem.user_service.service.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Las revocaciones solo se publican con la credencial de servicio: ni anónimos ni usuarios (aunque sean admin)
+@SpringJUnitWebConfig(SecurityConfigTest.Context.class)
+@TestPropertySource(properties = "auth.service-token=secreto-interno")
+class SecurityConfigTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    @Test
+    void revocationsRequireTheServiceCredential() throws Exception {
+        mvc.perform(get("/api/internal/revocations")).andExpect(status().isUnauthorized());
+        mvc.perform(get("/api/internal/revocations/user:2")).andExpect(status().isUnauthorized());
+        mvc.perform(get("/api/internal/revocations").header("X-Service-Token", "adivinado"))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(get("/api/internal/revocations").header("Authorization", "Bearer " + adminToken()))
+                .andExpect(status().isForbidden());
+
+        mvc.perform(get("/api/internal/revocations").header("X-Service-Token", "secreto-interno"))
+                .andExpect(status().isOk());
+        mvc.perform(get("/api/internal/revocations/user:2").header("X-Service-Token", "secreto-interno"))
+                .andExpect(status().isOk());
+        mvc.perform(get("/api/internal/revocations/jti-desconocido").header("X-Service-Token", "secreto-interno"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void blankServiceCredentialFailsAtStartup() {
+        assertThrows(IllegalStateException.class, () -> new JwtAuthenticationFilter(jwtService, null, ""));
+        assertThrows(IllegalStateException.class, () -> new JwtAuthenticationFilter(jwtService, null, null));
+    }
+
+    private String adminToken() {
+        User admin = new User();
+        admin.setId(1L);
+        admin.setUsername("admin");
+        admin.setRoles(Set.of(new Role(ERole.ROLE_ADMIN), new Role(ERole.ROLE_USER)));
+        return jwtService.issueAccessToken(admin);
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @Import({SecurityConfig.class, RevocationController.class})
+    static class Context {
+
+        @Bean
+        JwtService jwtService() {
+            return new JwtService("", "", 900);
+        }
+
+        // Sin base de datos: una revocación de user:2 y nada más
+        @Bean
+        TokenRevocationService tokenRevocationService(JwtService jwtService) {
+            return new TokenRevocationService(null, jwtService, 1000, 0.01) {
+                @Override
+                public RevocationDelta changesSince(long after, int limit) {
+                    return new RevocationDelta(List.of(entry()), 1, false);
+                }
+
+                @Override
+                public Optional<RevocationEntry> find(String key) {
+                    return entry().getKey().equals(key) ? Optional.of(entry()) : Optional.empty();
+                }
+
+                @Override
+                public boolean isRevoked(String tokenId, Long userId, Instant issuedAt) {
+                    return false;
+                }
+            };
+        }
+
+        private static RevocationEntry entry() {
+            long now = System.currentTimeMillis();
+            return new RevocationEntry(1, "user:2", now, now + 900_000);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.alejrico.moviesystem.user_service.config;
+
+import com.alejrico.moviesystem.user_service.model.User;
+import com.alejrico.moviesystem.user_service.support.H2Jpa;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlowQueryLogTest {
+
+    private static final int LOGINS = 2000;
+
+    @Test
+    void onlyQueriesOverTheThresholdAreLogged() throws Exception {
+        List<String> lines = new ArrayList<>();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SlowQueryLog slowQueryLog = new SlowQueryLog(50, 1.0, meterRegistry, lines::add);
+        DataSource dataSource = slowQueryLog.wrap(new DriverManagerDataSource("jdbc:h2:mem:slow_sql", "sa", ""));
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE ALIAS SLEEP FOR 'java.lang.Thread.sleep(long)'");
+            }
+            try (PreparedStatement fast = connection.prepareStatement("SELECT ?")) {
+                fast.setString(1, "secreto");
+                fast.executeQuery().close();
+            }
+            try (PreparedStatement slow = connection.prepareStatement("CALL SLEEP(?)")) {
+                slow.setLong(1, 120);
+                slow.execute();
+            }
+        }
+
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("1 parámetros"), lines.get(0));
+        assertTrue(lines.get(0).endsWith("CALL SLEEP(?)"), lines.get(0));
+        assertEquals(1.0, meterRegistry.get("db.slow-queries").counter().count());
+    }
+
+    // Coste por login del volcado de SQL anterior (show_sql + format_sql + comentarios) frente al registro de lentas
+    @Test
+    void slowQueryLogRemovesPerRequestSqlOutput() {
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        long[] allSql;
+        long[] slowOnly;
+        System.setOut(new PrintStream(captured, true));
+        try {
+            allSql = benchmark(true, captured);
+            slowOnly = benchmark(false, captured);
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        System.out.printf("Por login: todo el SQL %.1f µs y %d bytes de log; solo lentas %.1f µs y %d bytes%n",
+                allSql[0] / 1000.0 / LOGINS, allSql[1] / LOGINS, slowOnly[0] / 1000.0 / LOGINS, slowOnly[1] / LOGINS);
+        assertTrue(allSql[1] > 0);
+        assertEquals(0, slowOnly[1], "sin consultas lentas no se escribe nada por petición");
+    }
+
+    // Devuelve {nanosegundos, bytes escritos en stdout} para LOGINS búsquedas de usuario por nombre
+    private long[] benchmark(boolean logAllSql, ByteArrayOutputStream captured) {
+        Properties sqlOutput = new Properties();
+        if (logAllSql) {
+            sqlOutput.setProperty("hibernate.show_sql", "true");
+            sqlOutput.setProperty("hibernate.format_sql", "true");
+            sqlOutput.setProperty("hibernate.use_sql_comments", "true");
+        }
+        try (H2Jpa jpa = H2Jpa.open("sql_log_" + logAllSql, false, dataSource -> logAllSql ? dataSource
+                : new SlowQueryLog(200, 1.0, new SimpleMeterRegistry(), line -> { }).wrap(dataSource), sqlOutput)) {
+            jpa.inTransaction(entityManager -> entityManager.persist(new User("ana", "ana@example.com", "$2a$10$hash")));
+            for (int i = 0; i < LOGINS; i++) {
+                login(jpa.entityManagerFactory()); // calentamiento
+            }
+            captured.reset();
+            long start = System.nanoTime();
+            for (int i = 0; i < LOGINS; i++) {
+                login(jpa.entityManagerFactory());
+            }
+            return new long[]{System.nanoTime() - start, captured.size()};
+        }
+    }
+
+    private void login(EntityManagerFactory entityManagerFactory) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            entityManager.createQuery("select u from User u where u.username = :username", User.class)
+                    .setParameter("username", "ana")
+                    .getSingleResult();
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.alejrico.moviesystem.user_service.config;
+
+import com.alejrico.moviesystem.user_service.model.ERole;
+import com.alejrico.moviesystem.user_service.model.Role;
+import com.alejrico.moviesystem.user_service.model.User;
+import com.alejrico.moviesystem.user_service.support.H2Jpa;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Sentencias SQL por login (usuario por nombre + roles) con y sin la caché de segundo nivel
+class UserCacheBenchmarkTest {
+
+    private static final int LOGINS = 200;
+
+    @Test
+    void cachedLoginsNeedFewerSqlRoundTrips() {
+        double withoutCache = statementsPerLogin(false);
+        double withCache = statementsPerLogin(true);
+
+        System.out.printf("Sentencias SQL por login: sin caché %.2f, con caché %.2f%n", withoutCache, withCache);
+        assertTrue(withoutCache >= 1);
+        assertTrue(withCache < 0.1, "con la caché caliente un login no debería ir a la base de datos");
+    }
+
+    private double statementsPerLogin(boolean cacheEnabled) {
+        try (H2Jpa jpa = H2Jpa.open("users_" + cacheEnabled, cacheEnabled)) {
+            seed(jpa);
+            Statistics statistics = jpa.statistics();
+
+            login(jpa.entityManagerFactory()); // calienta la caché
+            statistics.clear();
+            for (int i = 0; i < LOGINS; i++) {
+                login(jpa.entityManagerFactory());
+            }
+            return statistics.getPrepareStatementCount() / (double) LOGINS;
+        }
+    }
+
+    // Lo que hace un login: buscar el usuario por nombre (con sus roles) en una sesión nueva
+    private void login(EntityManagerFactory entityManagerFactory) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            User user = H2Jpa.userRepository(entityManager).findByUsername("ana").orElseThrow();
+            assertEquals(1, user.getRoles().size());
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private void seed(H2Jpa jpa) {
+        jpa.inTransaction(entityManager -> {
+            entityManager.persist(new Role(ERole.ROLE_USER));
+            entityManager.persist(new Role(ERole.ROLE_ADMIN));
+            User user = new User("ana", "ana@example.com", "$2a$10$hash");
+            user.getRoles().add(H2Jpa.roleRepository(entityManager).findByName(ERole.ROLE_USER).orElseThrow());
+            entityManager.persist(user);
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package com.alejrico.moviesystem.user_service.config;
+
+import com.alejrico.moviesystem.user_service.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserSequenceInitializerTest {
+
+    // Usuarios del antiguo AUTO_INCREMENT y user_seq aún sin crear (primer arranque tras el cambio)
+    @Test
+    void createsTheSequenceTableAboveExistingIdsAndOnlyMovesItForward() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:user-seq;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table users (id bigint primary key)");
+        jdbc.update("insert into users (id) values (1), (7), (120)");
+        UserSequenceInitializer initializer = new UserSequenceInitializer(dataSource);
+
+        assertEquals(1, initializer.align());
+        assertEquals(120L + User.ID_ALLOCATION_SIZE + 1, nextVal(jdbc));
+        assertEquals(0, initializer.align());
+
+        jdbc.update("update user_seq set next_val = 1000");
+        assertEquals(0, initializer.align());
+        assertEquals(1000L, nextVal(jdbc));
+    }
+
+    @Test
+    void freshSchemaIsLeftToHibernate() {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:user-seq-empty;DB_CLOSE_DELAY=-1", "sa", "");
+
+        assertEquals(0, new UserSequenceInitializer(dataSource).align());
+    }
+
+    private static long nextVal(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("select next_val from user_seq", Long.class);
+    }
+}
@@ -0,0 +1,116 @@
+package com.alejrico.moviesystem.user_service.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prueba de carga contra un user-service en marcha (con su MySQL): mide la latencia de
+ * GET /api/users/{id} en reposo y durante una avalancha de logins concurrentes.
+ * No forma parte de "gradle test"; se lanza con:
+ * <pre>gradle loadTest -Dload.user-service.url=http://localhost:8081</pre>
+ */
+@Tag("load")
+class LoginFloodLoadTest {
+
+    private static final String BASE_URL = System.getProperty("load.user-service.url", "http://localhost:8081");
+    private static final int FLOOD_CLIENTS = Integer.getInteger("load.flood-clients", 200);
+    private static final int SAMPLES = 300;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newFixedThreadPool(FLOOD_CLIENTS + 8))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void userEndpointLatencyStaysFlatDuringLoginFlood() throws Exception {
+        String username = "carga" + System.currentTimeMillis();
+        String credentials = "{\"username\":\"" + username + "\",\"password\":\"secreto123\"}";
+        post("/api/auth/register", "{\"username\":\"" + username + "\",\"email\":\"" + username
+                + "@example.com\",\"password\":\"secreto123\",\"firstName\":\"Carga\",\"lastName\":\"Test\"}");
+        JsonNode login = objectMapper.readTree(post("/api/auth/login", credentials).body());
+        String token = login.get("token").asText();
+        long userId = login.get("user").get("id").asLong();
+
+        List<Long> baseline = sampleUserLatency(userId, token);
+
+        AtomicBoolean flooding = new AtomicBoolean(true);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService flood = Executors.newFixedThreadPool(FLOOD_CLIENTS);
+        for (int i = 0; i < FLOOD_CLIENTS; i++) {
+            flood.submit(() -> {
+                while (flooding.get()) {
+                    try {
+                        int status = post("/api/auth/login", credentials).statusCode();
+                        (status == 503 ? rejected : accepted).incrementAndGet();
+                    } catch (Exception e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+        }
+        Thread.sleep(2000); // que la avalancha llene el pool de BCrypt
+        List<Long> duringFlood = sampleUserLatency(userId, token);
+        flooding.set(false);
+        flood.shutdown();
+        flood.awaitTermination(30, TimeUnit.SECONDS);
+
+        System.out.printf("GET /api/users/{id} en reposo:    p50=%d ms p95=%d ms p99=%d ms%n",
+                percentile(baseline, 50), percentile(baseline, 95), percentile(baseline, 99));
+        System.out.printf("GET /api/users/{id} con avalancha: p50=%d ms p95=%d ms p99=%d ms%n",
+                percentile(duringFlood, 50), percentile(duringFlood, 95), percentile(duringFlood, 99));
+        System.out.printf("Logins atendidos: %d, rechazados con 503: %d%n", accepted.get(), rejected.get());
+
+        assertTrue(percentile(duringFlood, 95) <= percentile(baseline, 95) * 2 + 20,
+                "la latencia de /api/users no debería dispararse durante la avalancha de logins");
+    }
+
+    private List<Long> sampleUserLatency(long userId, String token) throws Exception {
+        List<Long> latencies = new ArrayList<>();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + "/api/users/" + userId))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            assertEquals(200, response.statusCode());
+        }
+        return latencies;
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static long percentile(List<Long> values, int percentile) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(Math.min(sorted.size() - 1, sorted.size() * percentile / 100));
+    }
+}
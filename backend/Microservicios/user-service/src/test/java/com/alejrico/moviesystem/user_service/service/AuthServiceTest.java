@@ -0,0 +1,123 @@
+package com.alejrico.moviesystem.user_service.service;
+
+import com.alejrico.moviesystem.user_service.dto.AuthResponse;
+import com.alejrico.moviesystem.user_service.dto.LoginRequest;
+import com.alejrico.moviesystem.user_service.model.ERole;
+import com.alejrico.moviesystem.user_service.model.Role;
+import com.alejrico.moviesystem.user_service.model.User;
+import com.alejrico.moviesystem.user_service.repository.RefreshTokenRepository;
+import com.alejrico.moviesystem.user_service.repository.UserRepository;
+import com.alejrico.moviesystem.user_service.support.H2Jpa;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class AuthServiceTest {
+
+    private final HikariDataSource pool = new HikariDataSource();
+    private final List<Integer> activeDuringMatches = new ArrayList<>();
+    private H2Jpa jpa;
+    private EntityManagerFactory entityManagerFactory;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        pool.setMaximumPoolSize(4);
+        jpa = H2Jpa.open("user_login", false, dataSource -> {
+            pool.setDataSource(dataSource);
+            return pool;
+        }, new Properties());
+        entityManagerFactory = jpa.entityManagerFactory();
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        UserRepository userRepository = H2Jpa.userRepository(entityManager, transactionManager);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4) {
+            // Conexiones prestadas mientras se calcula el hash
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                activeDuringMatches.add(pool.getHikariPoolMXBean().getActiveConnections());
+                return super.matches(rawPassword, encodedPassword);
+            }
+        };
+        authService = new AuthService(null, new UserService(userRepository, null, bcrypt), bcrypt,
+                new JwtService("", "", 900),
+                new JpaRepositoryFactory(entityManager).getRepository(RefreshTokenRepository.class),
+                userRepository,
+                new LoginThrottle(900, 1024, 5, 20, 20, 200, 1000, 60000, 900, 300, 1000,
+                        new SimpleMeterRegistry(), System::currentTimeMillis),
+                null, new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(authService, "refreshTokenTtlSeconds", 3600L);
+
+        String hash = bcrypt.encode("secreto");
+        jpa.inTransaction(seed -> {
+            Role userRole = new Role(ERole.ROLE_USER);
+            seed.persist(userRole);
+            User user = new User("ana", "ana@example.com", hash);
+            user.getRoles().add(userRole);
+            seed.persist(user);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        jpa.close();
+        pool.close();
+    }
+
+    // Sin Open Session in View la búsqueda devuelve la conexión antes de calcular BCrypt
+    @Test
+    void loginHoldsNoConnectionWhileCheckingThePassword() {
+        AuthResponse response = authService.login(new LoginRequest("ana", "secreto"), "10.0.0.1");
+
+        assertNotNull(response.getRefreshToken());
+        assertEquals(List.of(0), activeDuringMatches);
+        assertEquals(0, pool.getHikariPoolMXBean().getActiveConnections());
+    }
+
+    // Lo que hace OpenEntityManagerInViewInterceptor: con el EntityManager ligado a la petición
+    // la conexión de la búsqueda queda retenida durante BCrypt
+    @Test
+    void openEntityManagerInViewWouldPinTheConnection() {
+        EntityManager requestEntityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(requestEntityManager));
+        try {
+            authService.login(new LoginRequest("ana", "secreto"), "10.0.0.1");
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            requestEntityManager.close();
+        }
+
+        assertEquals(List.of(1), activeDuringMatches);
+    }
+
+    @Test
+    void openInViewIsDisabled() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = getClass().getResourceAsStream("/application.properties")) {
+            properties.load(in);
+        }
+        assertEquals("false", properties.getProperty("spring.jpa.open-in-view"));
+    }
+}
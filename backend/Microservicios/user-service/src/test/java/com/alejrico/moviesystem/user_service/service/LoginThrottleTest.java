@@ -0,0 +1,79 @@
+package com.alejrico.moviesystem.user_service.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginThrottleTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Ventana de 15 min; por usuario 3 fallos gratis y bloqueo a los 6; por IP 10 y 50
+    private final LoginThrottle throttle = new LoginThrottle(900, 4096, 3, 6, 10, 50, 1000, 8000, 600,
+            300, 2, meterRegistry, now::get);
+
+    @Test
+    void delaysGrowAfterTheFreeFailuresAndEndInALockout() {
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("ana", "10.0.0.1");
+            assertDoesNotThrow(() -> throttle.checkAllowed("ana", "10.0.0.1"));
+        }
+
+        // 4º fallo: 1 s, 5º: 2 s, 6º: bloqueo de 10 min
+        throttle.recordFailure("ana", "10.0.0.1");
+        assertEquals(1, retryAfter("ana", "10.0.0.2"));
+        now.addAndGet(1000);
+        throttle.recordFailure("ana", "10.0.0.1");
+        assertEquals(2, retryAfter("ANA ", "10.0.0.3"));
+        now.addAndGet(2000);
+        throttle.recordFailure("ana", "10.0.0.1");
+        assertEquals(600, retryAfter("ana", "10.0.0.4"));
+
+        // Otro usuario desde otra IP no se ve afectado
+        assertDoesNotThrow(() -> throttle.checkAllowed("beatriz", "10.0.0.9"));
+        assertEquals(3, meterRegistry.get("auth.login.throttled").counter().count());
+    }
+
+    @Test
+    void limitsAnIpTryingManyUsernamesAndForgetsOldFailures() {
+        for (int i = 0; i < 11; i++) {
+            throttle.recordFailure("victima" + i, "203.0.113.7");
+        }
+        assertEquals(1, retryAfter("cualquiera", "203.0.113.7"));
+        assertDoesNotThrow(() -> throttle.checkAllowed("cualquiera", "203.0.113.8"));
+
+        // Pasada la ventana los fallos antiguos ya no cuentan
+        now.addAndGet(901_000);
+        throttle.recordFailure("victima0", "203.0.113.7");
+        assertDoesNotThrow(() -> throttle.checkAllowed("victima0", "203.0.113.7"));
+    }
+
+    @Test
+    void remembersUnknownUsernamesForALimitedTimeAndSize() {
+        throttle.rememberUnknown("Fantasma");
+        assertTrue(throttle.isKnownUnknown("fantasma"));
+
+        throttle.rememberUnknown("otro");
+        throttle.rememberUnknown("tercero"); // caché llena (2 entradas): no se añade
+        assertFalse(throttle.isKnownUnknown("tercero"));
+
+        throttle.forgetUnknown("otro");
+        assertFalse(throttle.isKnownUnknown("otro"));
+
+        now.addAndGet(301_000);
+        assertFalse(throttle.isKnownUnknown("fantasma"));
+    }
+
+    private long retryAfter(String username, String clientIp) {
+        return assertThrows(LoginThrottledException.class, () -> throttle.checkAllowed(username, clientIp))
+                .getRetryAfterSeconds();
+    }
+}
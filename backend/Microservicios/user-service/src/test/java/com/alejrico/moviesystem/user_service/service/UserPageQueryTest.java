@@ -0,0 +1,107 @@
+package com.alejrico.moviesystem.user_service.service;
+
+import com.alejrico.moviesystem.user_service.dto.UserPageResponse;
+import com.alejrico.moviesystem.user_service.dto.UserSummaryResponse;
+import com.alejrico.moviesystem.user_service.model.ERole;
+import com.alejrico.moviesystem.user_service.model.Role;
+import com.alejrico.moviesystem.user_service.model.User;
+import com.alejrico.moviesystem.user_service.support.H2Jpa;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UserPageQueryTest {
+
+    private static H2Jpa jpa;
+    private static EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    static void setUp() {
+        jpa = H2Jpa.open("user_pages", false);
+        entityManagerFactory = jpa.entityManagerFactory();
+
+        jpa.inTransaction(entityManager -> {
+            Role user = new Role(ERole.ROLE_USER);
+            Role admin = new Role(ERole.ROLE_ADMIN);
+            entityManager.persist(user);
+            entityManager.persist(admin);
+            for (int i = 0; i < 250; i++) {
+                User account = new User(String.format("cliente%03d", i), "cliente" + i + "@example.com", "$2a$10$hash");
+                account.getRoles().add(user);
+                if (i % 50 == 0) {
+                    account.getRoles().add(admin);
+                }
+                entityManager.persist(account);
+            }
+            User underscore = new User("ana_admin", "ana@cine.com", "$2a$10$hash");
+            underscore.getRoles().add(admin);
+            entityManager.persist(underscore);
+            entityManager.persist(new User("anaXadmin", "otra@cine.com", "$2a$10$hash"));
+        });
+    }
+
+    @AfterAll
+    static void tearDown() {
+        jpa.close();
+    }
+
+    @Test
+    void everyPageCostsTheSameThreeQueries() {
+        Statistics statistics = jpa.statistics();
+        for (int page = 0; page < 5; page++) {
+            int current = page;
+            statistics.clear();
+            UserPageResponse response = withService(service -> service.getUsersPage(null, current, 50, "username,desc"));
+
+            assertEquals(50, response.getContent().size());
+            assertEquals(252, response.getTotalElements());
+            // Página, total y roles de la página: no depende del número de filas ni de usuarios
+            assertEquals(3, statistics.getPrepareStatementCount());
+            assertEquals(0, statistics.getEntityLoadCount());
+        }
+
+        UserPageResponse first = withService(service -> service.getUsersPage(null, 0, 50, "username,asc"));
+        UserSummaryResponse cliente000 = first.getContent().get(2);
+        assertEquals("cliente000", cliente000.getUsername());
+        assertEquals(List.of(ERole.ROLE_USER, ERole.ROLE_ADMIN), cliente000.getRoles());
+        assertEquals(List.of(ERole.ROLE_USER), first.getContent().get(3).getRoles());
+    }
+
+    @Test
+    void searchesByUsernameOrEmailPrefixTreatingWildcardsLiterally() {
+        UserPageResponse underscore = withService(service -> service.getUsersPage("ana_", 0, 20, null));
+        assertEquals(1, underscore.getTotalElements());
+        assertEquals("ana_admin", underscore.getContent().get(0).getUsername());
+
+        UserPageResponse byEmail = withService(service -> service.getUsersPage("otra@", 0, 20, null));
+        assertEquals("anaXadmin", byEmail.getContent().get(0).getUsername());
+
+        assertEquals(0, withService(service -> service.getUsersPage("%", 0, 20, null)).getTotalElements());
+        assertEquals(250, withService(service -> service.getUsersPage("cliente", 0, 20, null)).getTotalElements());
+    }
+
+    @Test
+    void rejectsUnknownSortFields() {
+        assertThrows(IllegalArgumentException.class, () -> withService(service -> service.getUsersPage(null, 0, 20, "password")));
+    }
+
+    private static <T> T withService(Function<UserService, T> call) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            UserService service = new UserService(H2Jpa.userRepository(entityManager),
+                    H2Jpa.roleRepository(entityManager), null);
+            return call.apply(service);
+        } finally {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.alejrico.moviesystem.user_service.service;
+
+import com.alejrico.moviesystem.user_service.config.BoundedPasswordEncoder;
+import com.alejrico.moviesystem.user_service.dto.ProvisioningResult;
+import com.alejrico.moviesystem.user_service.model.ERole;
+import com.alejrico.moviesystem.user_service.model.Role;
+import com.alejrico.moviesystem.user_service.model.User;
+import com.alejrico.moviesystem.user_service.repository.RoleRepository;
+import com.alejrico.moviesystem.user_service.repository.UserRepository;
+import com.alejrico.moviesystem.user_service.support.H2Jpa;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.validation.Validation;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserProvisioningServiceTest {
+
+    private H2Jpa jpa;
+    private EntityManagerFactory entityManagerFactory;
+    private JpaTransactionManager transactionManager;
+    private BoundedPasswordEncoder passwordEncoder;
+    private UserProvisioningService service;
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        jpa = H2Jpa.open("user_bulk", true);
+        entityManagerFactory = jpa.entityManagerFactory();
+        transactionManager = new JpaTransactionManager(entityManagerFactory);
+
+        EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        userRepository = H2Jpa.userRepository(entityManager);
+        RoleRepository roleRepository = H2Jpa.roleRepository(entityManager);
+        passwordEncoder = new BoundedPasswordEncoder(4, 4, 64, 5000, new SimpleMeterRegistry());
+        service = new UserProvisioningService(userRepository, roleRepository, passwordEncoder,
+                new LoginThrottle(900, 1024, 5, 20, 20, 200, 1000, 60000, 900, 300, 1000,
+                        new SimpleMeterRegistry(), System::currentTimeMillis),
+                entityManager,
+                transactionManager, Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper(), 500, 0);
+
+        jpa.inTransaction(seed -> {
+            Role userRole = new Role(ERole.ROLE_USER);
+            seed.persist(userRole);
+            seed.persist(new Role(ERole.ROLE_ADMIN));
+            User existing = new User("existente", "existente@example.com", "$2a$04$hash");
+            existing.getRoles().add(userRole);
+            seed.persist(existing);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        passwordEncoder.shutdown();
+        jpa.close();
+    }
+
+    @Test
+    void importsChunksWithBatchedInsertsAndReportsEveryRow() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            input.append(json("socio" + i, "socio" + i + "@example.com")).append('\n');
+        }
+        Statistics statistics = jpa.statistics();
+        statistics.clear();
+
+        List<ProvisioningResult> results = provision(input.toString());
+
+        assertEquals(2000, results.size());
+        assertTrue(results.stream().allMatch(result -> result.getStatus().equals(UserProvisioningService.CREATED)));
+        assertEquals(2000, results.stream().map(ProvisioningResult::getId).collect(Collectors.toSet()).size());
+        assertEquals(2001, userRepository.count());
+        // Una consulta de duplicados y unos pocos lotes por bloque, no varias sentencias por usuario
+        System.out.println("Sentencias preparadas para 2000 altas: " + statistics.getPrepareStatementCount());
+        assertTrue(statistics.getPrepareStatementCount() < 2000 / 5);
+
+        // La búsqueda por identificador natural usa la sesión de Hibernate: necesita transacción
+        User imported = new TransactionTemplate(transactionManager)
+                .execute(status -> userRepository.findByUsername("socio1999").orElseThrow());
+        assertTrue(passwordEncoder.matches("secreto1", imported.getPassword()));
+        assertEquals(Set.of(ERole.ROLE_USER), imported.getRoles().stream().map(Role::getName).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void reportsDuplicatesAndInvalidRowsWithoutStopping() throws IOException {
+        List<ProvisioningResult> results = provision(String.join("\n",
+                json("nuevo", "nuevo@example.com"),
+                json("existente", "otro@example.com"),
+                json("otro", "existente@example.com"),
+                json("nuevo", "nuevo2@example.com"),
+                "",
+                "{no es json",
+                json("x", "correo-no-valido"),
+                json("ultimo", "ultimo@example.com")));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 6L, 7L, 8L), results.stream().map(ProvisioningResult::getLine).toList());
+        assertEquals(List.of("created", "duplicate", "duplicate", "duplicate", "invalid", "invalid", "created"),
+                results.stream().map(ProvisioningResult::getStatus).toList());
+        assertNotNull(results.get(0).getId());
+        assertEquals("Username is already taken", results.get(1).getMessage());
+        assertEquals("Email is already in use", results.get(2).getMessage());
+        assertEquals(3, userRepository.count());
+    }
+
+    private List<ProvisioningResult> provision(String ndjson) throws IOException {
+        List<ProvisioningResult> results = new ArrayList<>();
+        service.provision(new BufferedReader(new StringReader(ndjson)), results::addAll);
+        return results;
+    }
+
+    private static String json(String username, String email) {
+        return "{\"username\":\"" + username + "\",\"email\":\"" + email + "\",\"password\":\"secreto1\"}";
+    }
+}
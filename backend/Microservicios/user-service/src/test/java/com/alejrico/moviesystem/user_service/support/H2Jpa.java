@@ -0,0 +1,104 @@
+package com.alejrico.moviesystem.user_service.support;
+
+import com.alejrico.moviesystem.user_service.config.DatabaseConfig;
+import com.alejrico.moviesystem.user_service.repository.RoleRepository;
+import com.alejrico.moviesystem.user_service.repository.UserNaturalIdRepositoryImpl;
+import com.alejrico.moviesystem.user_service.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import javax.sql.DataSource;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Unidad de persistencia de user-service sobre H2 en memoria con las propiedades de Hibernate
+ * de producción ({@link DatabaseConfig#jpaProperties}) y el esquema creado al arrancar. Los
+ * repositorios se crean a mano con {@link JpaRepositoryFactory}, sin contexto de Spring.
+ */
+public final class H2Jpa implements AutoCloseable {
+
+    private final LocalContainerEntityManagerFactoryBean factoryBean;
+
+    private H2Jpa(LocalContainerEntityManagerFactoryBean factoryBean) {
+        this.factoryBean = factoryBean;
+    }
+
+    public static H2Jpa open(String database, boolean cacheEnabled) {
+        return open(database, cacheEnabled, UnaryOperator.identity(), new Properties());
+    }
+
+    // wrapDataSource permite interponer p. ej. SlowQueryLog; overrides se aplican sobre las de producción
+    public static H2Jpa open(String database, boolean cacheEnabled, UnaryOperator<DataSource> wrapDataSource,
+                             Properties overrides) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1", "sa", "");
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(wrapDataSource.apply(dataSource));
+        factoryBean.setPackagesToScan("com.alejrico.moviesystem.user_service.model");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        Properties properties = DatabaseConfig.jpaProperties("org.hibernate.dialect.H2Dialect", cacheEnabled);
+        properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        properties.putAll(overrides);
+        factoryBean.setJpaProperties(properties);
+        factoryBean.afterPropertiesSet();
+        return new H2Jpa(factoryBean);
+    }
+
+    public EntityManagerFactory entityManagerFactory() {
+        return factoryBean.getObject();
+    }
+
+    public Statistics statistics() {
+        return entityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Con el fragmento de búsqueda por identificador natural, que JpaRepositoryFactory no detecta solo
+    public static UserRepository userRepository(EntityManager entityManager) {
+        return new JpaRepositoryFactory(entityManager).getRepository(UserRepository.class,
+                RepositoryFragments.just(new UserNaturalIdRepositoryImpl(entityManager)));
+    }
+
+    // Igual, pero con el @Transactional del fragmento aplicado como lo hace Spring con el bean:
+    // la búsqueda abre su propia transacción (y conexión) si no hay una en curso
+    public static UserRepository userRepository(EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        ProxyFactory fragment = new ProxyFactory(new UserNaturalIdRepositoryImpl(entityManager));
+        fragment.addAdvice(new TransactionInterceptor((TransactionManager) transactionManager,
+                new AnnotationTransactionAttributeSource()));
+        return new JpaRepositoryFactory(entityManager).getRepository(UserRepository.class,
+                RepositoryFragments.just(fragment.getProxy()));
+    }
+
+    public static RoleRepository roleRepository(EntityManager entityManager) {
+        return new JpaRepositoryFactory(entityManager).getRepository(RoleRepository.class);
+    }
+
+    // Ejecuta el bloque en un EntityManager nuevo dentro de una transacción (datos de partida)
+    public void inTransaction(Consumer<EntityManager> work) {
+        EntityManager entityManager = entityManagerFactory().createEntityManager();
+        try {
+            entityManager.getTransaction().begin();
+            work.accept(entityManager);
+            entityManager.getTransaction().commit();
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        factoryBean.destroy();
+    }
+}
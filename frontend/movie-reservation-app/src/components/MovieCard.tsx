@@ -3,6 +3,7 @@ import { useNavigate } from 'react-router-dom';
 import { Button } from './ui/Button';
 import { Calendar, Clock, Star } from 'lucide-react';
 import type { Movie } from '../types';
+import { posterUrl } from '../utils/poster';
 
 interface MovieCardProps {
   movie: Movie;
@@ -48,7 +49,7 @@ export const MovieCard = memo(({ movie, onImageError }: MovieCardProps) => {
       {/* Imagen de la película */}
       <div className="relative aspect-[2/3] overflow-hidden">
         <img
-          src={movie.posterImage || '/placeholder-movie.svg'}
+          src={posterUrl(movie)}
           alt={movie.title}
           className="w-full h-full object-cover transition-transform duration-300 hover:scale-105"
           onError={handleImageError}
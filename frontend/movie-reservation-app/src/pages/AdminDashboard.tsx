@@ -7,6 +7,7 @@ import { Modal } from '../components/ui/Modal';
 import { useMovieStore } from '../store/movieStore';
 import { useAdminStore } from '../store/adminStore';
 import { useNotifications } from '../store/uiStore';
+import { posterUrl } from '../utils/poster';
 
 interface MovieFormData {
   title: string;
@@ -399,7 +400,8 @@ export function AdminDashboard() {
               </div>
               <div className="ml-4">
                 <p className="text-sm font-medium text-gray-600">Películas</p>
-                <p className="text-2xl font-bold text-gray-900">{stats.totalMovies}</p>
+                {/* Las listas ya cargadas para las pestañas: sin volver a pedirlas para contarlas */}
+                <p className="text-2xl font-bold text-gray-900">{movies.length}</p>
               </div>
             </div>
           </div>
@@ -411,7 +413,7 @@ export function AdminDashboard() {
               </div>
               <div className="ml-4">
                 <p className="text-sm font-medium text-gray-600">Funciones</p>
-                <p className="text-2xl font-bold text-gray-900">{stats.totalShowtimes}</p>
+                <p className="text-2xl font-bold text-gray-900">{showtimes.length}</p>
               </div>
             </div>
           </div>
@@ -524,7 +526,7 @@ export function AdminDashboard() {
                           <div className="flex-shrink-0 h-16 w-12">
                             <img
                               className="h-16 w-12 object-cover rounded"
-                              src={movie.posterImage}
+                              src={posterUrl(movie, 'w185')}
                               alt={movie.title}
                               onError={(e) => {
                                 e.currentTarget.src = '/placeholder-movie.svg';
@@ -6,28 +6,27 @@ import { Button } from '../components/ui/Button';
 import { useAuthStore } from '../store/authStore';
 import { useMovieStore } from '../store/movieStore';
 import { useAdminStore } from '../store/adminStore';
+import { posterUrl } from '../utils/poster';
 
 export function MovieDetailPage() {
   const { id } = useParams<{ id: string }>();
   const navigate = useNavigate();
   const { isAuthenticated } = useAuthStore();
-  const { selectedMovie, showtimes, isLoading, error, fetchMovieById, fetchShowtimes } = useMovieStore();
+  const { selectedMovie, showtimes, isLoading, error, fetchMovieDetails } = useMovieStore();
   const { halls } = useAdminStore();
   
   const [selectedDate, setSelectedDate] = useState<string>('');
 
   useEffect(() => {
     if (id) {
-      // Cargar película del backend
-      fetchMovieById(id);
-      // Cargar horarios del backend
-      fetchShowtimes(id);
+      // Cargar película y horarios del backend en una sola llamada
+      fetchMovieDetails(id);
       
       // Establecer fecha inicial (hoy)
       const today = new Date().toISOString().split('T')[0];
       setSelectedDate(today);
     }
-  }, [id, fetchMovieById, fetchShowtimes]);
+  }, [id, fetchMovieDetails]);
 
   const handleShowtimeSelect = (showtime: Showtime) => {
     if (!isAuthenticated) {
@@ -133,7 +132,7 @@ export function MovieDetailPage() {
         {/* Movie Poster */}
         <div className="lg:col-span-1">
           <img
-            src={selectedMovie.posterImage}
+            src={posterUrl(selectedMovie, 'original')}
             alt={selectedMovie.title}
             className="w-full rounded-lg shadow-lg"
             onError={(e) => {
@@ -281,34 +281,20 @@ export const useAdminStore = create<AdminStore>((set, get) => ({
   fetchStats: async () => {
     set({ isLoading: true, error: null });
     try {
-      // Estadísticas calculadas desde múltiples servicios
-      const [moviesResponse, showtimesResponse] = await Promise.allSettled([
-        fetch('http://localhost:8083/api/movies'),
-        fetch('http://localhost:8084/api/showtimes'),
-      ]);
-
-      let totalMovies = 0;
-      let totalShowtimes = 0;
-
-      if (moviesResponse.status === 'fulfilled' && moviesResponse.value.ok) {
-        const movies = await moviesResponse.value.json();
-        totalMovies = movies.length;
-      }
-
-      if (showtimesResponse.status === 'fulfilled' && showtimesResponse.value.ok) {
-        const showtimes = await showtimesResponse.value.json();
-        totalShowtimes = showtimes.length;
-      } else {
-        // Si el servicio no está disponible, usar datos locales
-        const { showtimes } = get();
-        totalShowtimes = showtimes.length;
+      // Reservas e ingresos: contadores agregados de reservation-service (lectura en memoria,
+      // sin recorrer las reservas). Películas y funciones se cuentan en las listas ya cargadas.
+      const response = await fetch('http://localhost:8082/api/reservations/stats/summary');
+      if (!response.ok) {
+        throw new Error(`Failed to fetch stats: ${response.status}`);
       }
+      const summary = await response.json();
+      const { useMovieStore } = await import('./movieStore');
 
       const stats: AdminStats = {
-        totalMovies,
-        totalShowtimes,
-        totalReservations: 0, // Se calculará cuando esté el reservation service
-        totalRevenue: 0, // Se calculará cuando esté el reservation service
+        totalMovies: useMovieStore.getState().movies.length,
+        totalShowtimes: get().showtimes.length,
+        totalReservations: summary.reservations ?? 0,
+        totalRevenue: summary.revenue ?? 0,
       };
 
       set({ stats, isLoading: false });
@@ -190,6 +190,14 @@ export const useAuthStore = create<AuthStore>()(
       },
 
       logout: () => {
+        const { token } = get();
+        if (token) {
+          // Revocar el token en el servidor; la sesión local se cierra igualmente aunque falle
+          fetch(`${USER_SERVICE_URL}/auth/logout`, {
+            method: 'POST',
+            headers: { Authorization: `Bearer ${token}` },
+          }).catch(() => {});
+        }
         set({
           user: null,
           token: null,
@@ -14,6 +14,7 @@ interface MovieActions {
   fetchMovies: () => Promise<void>;
   fetchMovieById: (id: string) => Promise<void>;
   fetchShowtimes: (movieId: string, date?: string) => Promise<void>;
+  fetchMovieDetails: (id: string) => Promise<void>;
   setSelectedMovie: (movie: Movie | null) => void;
   setFilters: (filters: Partial<MovieFilters>) => void;
   clearFilters: () => void;
@@ -151,6 +152,36 @@ export const useMovieStore = create<MovieStore>((set, get) => ({
     }
   },
 
+  // Película y próximas funciones en una sola llamada; si falla o llega incompleta se piden por separado
+  fetchMovieDetails: async (id: string) => {
+    set({ isLoading: true, error: null });
+    try {
+      const response = await fetch(`${MOVIE_SERVICE_URL}/movies/${id}/details`);
+
+      if (!response.ok) {
+        throw new Error('Failed to fetch movie details');
+      }
+
+      const details: { movie: Movie | null; showtimes: Showtime[]; unavailable: string[] } = await response.json();
+      set({
+        selectedMovie: details.movie ?? get().selectedMovie,
+        showtimes: details.showtimes,
+        isLoading: false,
+      });
+
+      if (!details.movie) {
+        await get().fetchMovieById(id);
+      }
+      if (details.unavailable.includes('showtimes')) {
+        await get().fetchShowtimes(id);
+      }
+    } catch (error) {
+      console.warn('Movie details endpoint not available, fetching separately...');
+      const { fetchMovieById, fetchShowtimes } = get();
+      await Promise.all([fetchMovieById(id), fetchShowtimes(id)]);
+    }
+  },
+
   setSelectedMovie: (movie) => set({ selectedMovie: movie }),
   setFilters: (newFilters) => set(state => ({ 
     filters: { ...state.filters, ...newFilters } 
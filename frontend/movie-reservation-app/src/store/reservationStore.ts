@@ -119,9 +119,9 @@ export const useReservationStore = create<ReservationStore>((set, get) => ({
         const reservationsResponse = await fetch('http://localhost:8082/api/reservations');
         if (reservationsResponse.ok) {
           const reservations = await reservationsResponse.json();
-          // Filtrar reservas por showtime y extraer seatIds
+          // Filtrar reservas por showtime y extraer seatIds (las pendientes de pago también retienen sus asientos)
           const showtimeReservations = reservations.filter((r: any) => 
-            r.showtimeId === showtimeId && r.status === 'confirmed'
+            r.showtimeId === showtimeId && (r.status === 'confirmed' || r.status === 'pending')
           );
           backendOccupiedSeats = showtimeReservations.flatMap((r: any) => r.seatIds || []);
           console.log('✅ Asientos ocupados desde backend:', backendOccupiedSeats);
@@ -138,9 +138,9 @@ export const useReservationStore = create<ReservationStore>((set, get) => ({
         // NUEVO: Cargar reservas globales en lugar de solo del usuario actual
         const globalReservations = JSON.parse(localStorage.getItem('global_reservations') || '[]');
         
-        // Filtrar por showtime y extraer seatIds de TODAS las reservas confirmadas
+        // Filtrar por showtime y extraer seatIds de TODAS las reservas confirmadas o pendientes
         const showtimeGlobalReservations = globalReservations.filter((r: any) => 
-          r.showtimeId === showtimeId && r.status === 'confirmed'
+          r.showtimeId === showtimeId && (r.status === 'confirmed' || r.status === 'pending')
         );
         localReservedSeats = showtimeGlobalReservations.flatMap((r: any) => r.seatIds || []);
         
@@ -207,7 +207,8 @@ export const useReservationStore = create<ReservationStore>((set, get) => ({
       const transactionId = `TXN-${Date.now()}`;
       const reservationId = `RES-${Date.now()}`;
       
-      const authStore = JSON.parse(localStorage.getItem('auth-store') || '{}');
+      // Sesión persistida por authStore (clave auth-storage): usuario y token para confirmar la reserva
+      const authStore = JSON.parse(localStorage.getItem('auth-storage') || '{}');
       const currentUserId = authStore?.state?.user?.id || 'guest';
       
       const payment: PaymentResponse = {
@@ -239,7 +240,18 @@ export const useReservationStore = create<ReservationStore>((set, get) => ({
           });
           
           if (backendResponse.ok) {
-            console.log('✅ Reserva guardada en el backend');
+            // La reserva se crea pendiente de pago; con el pago ya aprobado la confirma su dueño (JWT)
+            const createdReservation = await backendResponse.json();
+            const token = authStore?.state?.token;
+            const confirmResponse = await fetch(`http://localhost:8082/api/reservations/${createdReservation.id}/confirm`, {
+              method: 'PUT',
+              headers: token ? { Authorization: `Bearer ${token}` } : {}
+            });
+            if (confirmResponse.ok) {
+              console.log('✅ Reserva guardada y confirmada en el backend');
+            } else {
+              console.warn('⚠️ No se pudo confirmar la reserva en el backend:', confirmResponse.status);
+            }
           } else {
             console.warn('⚠️ No se pudo guardar en el backend, continuando con localStorage');
           }
@@ -0,0 +1,15 @@
+import { describe, it, expect } from 'vitest'
+import { posterUrl } from '../poster'
+
+describe('posterUrl', () => {
+  it('should point to the movie-service poster proxy', () => {
+    expect(posterUrl({ id: 'm1', posterImage: 'https://image.tmdb.org/t/p/original/a.jpg' }))
+      .toBe('http://localhost:8083/api/movies/m1/poster?size=w342')
+    expect(posterUrl({ id: 'm1', posterImage: 'a.jpg' }, 'w185'))
+      .toBe('http://localhost:8083/api/movies/m1/poster?size=w185')
+  })
+
+  it('should fall back to the placeholder without a poster', () => {
+    expect(posterUrl({ id: 'm1', posterImage: '' })).toBe('/placeholder-movie.svg')
+  })
+})
@@ -0,0 +1,14 @@
+import type { Movie } from '../types';
+
+// Los pósters se piden al proxy de movie-service (caché en disco con variantes reducidas),
+// no al host de terceros
+const MOVIE_SERVICE_URL = 'http://localhost:8083/api';
+
+export type PosterSize = 'original' | 'w185' | 'w342';
+
+export function posterUrl(movie: Pick<Movie, 'id' | 'posterImage'>, size: PosterSize = 'w342') {
+  if (!movie.posterImage) {
+    return '/placeholder-movie.svg';
+  }
+  return `${MOVIE_SERVICE_URL}/movies/${movie.id}/poster?size=${size}`;
+}
@@ -5,6 +5,12 @@ echo "  INICIANDO SISTEMA CINERESERVA - BACKEND"
 echo "========================================="
 echo
 
+# Credencial entre servicios (SERVICE_TOKEN): si no está definida se genera una aleatoria
+# la primera vez y se guarda en .env, que docker-compose lee y no se versiona
+if [ -z "$SERVICE_TOKEN" ] && ! grep -q '^SERVICE_TOKEN=' .env 2>/dev/null; then
+    echo "SERVICE_TOKEN=$(openssl rand -hex 32)" >> .env
+fi
+
 echo "[1/3] Deteniendo servicios previos..."
 docker-compose down
 
@@ -4,6 +4,12 @@ echo   INICIANDO CINERESERVA - SISTEMA COMPLETO
 echo ==========================================
 echo.
 
+REM Credencial entre servicios (SERVICE_TOKEN): si no esta definida se genera una aleatoria
+REM la primera vez y se guarda en .env, que docker-compose lee y no se versiona
+if not defined SERVICE_TOKEN (
+    findstr /b "SERVICE_TOKEN=" .env >nul 2>&1 || powershell -NoProfile -Command "Add-Content .env ('SERVICE_TOKEN=' + [guid]::NewGuid().ToString('N') + [guid]::NewGuid().ToString('N'))"
+)
+
 echo 🐳 Construyendo y iniciando todos los servicios...
 docker-compose up --build -d
 